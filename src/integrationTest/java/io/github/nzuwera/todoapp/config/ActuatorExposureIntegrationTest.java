@@ -0,0 +1,32 @@
+package io.github.nzuwera.todoapp.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@Import(WebTestClientConfig.class)
+class ActuatorExposureIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void diagnosticEndpoints_ShouldNotBeExposedByDefault() {
+        // When & Then
+        webTestClient.get()
+                .uri("http://localhost:" + port + "/actuator")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._links.health").exists()
+                .jsonPath("$._links.metrics").exists()
+                .jsonPath("$._links.sqlstats").doesNotExist()
+                .jsonPath("$._links.httptimings").doesNotExist()
+                .jsonPath("$._links.jfr").doesNotExist();
+    }
+}
@@ -3,21 +3,45 @@ package io.github.nzuwera.todoapp.controller;
 import io.github.nzuwera.todoapp.TaskFixtures;
 import io.github.nzuwera.todoapp.config.AbstractIntegrationTest;
 import io.github.nzuwera.todoapp.config.WebTestClientConfig;
+import io.github.nzuwera.todoapp.entity.TaskEntity;
 import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.model.TaskBatchResult;
+import io.github.nzuwera.todoapp.model.TaskBulkResult;
+import io.github.nzuwera.todoapp.model.TaskBulkUpdate;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import io.github.nzuwera.todoapp.model.TaskLookupResult;
 import io.github.nzuwera.todoapp.repository.TaskRepository;
 import io.github.nzuwera.todoapp.service.ITaskService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
 import static org.springframework.http.MediaType.APPLICATION_STREAM_JSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
 
 @Import(WebTestClientConfig.class)
+@AutoConfigureObservability(tracing = false)
+@TestPropertySource(properties = "management.endpoints.web.exposure.include=health,info,metrics,prometheus,sqlstats,httptimings,jfr")
 class TaskControllerIntegrationTest extends AbstractIntegrationTest {
 
 
@@ -70,12 +94,48 @@ class TaskControllerIntegrationTest extends AbstractIntegrationTest {
                 .hasSize(1)
                 .value(tasks -> {
                     Task firstTask = tasks.getFirst();
-                    assertThat(firstTask.getDescription()).isEqualTo(task.getDescription());
-                    assertThat(firstTask.getId()).isNotNull();
-                    assertThat(firstTask.isCompleted()).isEqualTo(task.isCompleted());
+                    assertThat(firstTask.description()).isEqualTo(task.description());
+                    assertThat(firstTask.id()).isNotNull();
+                    assertThat(firstTask.completed()).isEqualTo(task.completed());
                 });
     }
 
+    @Test
+    void shouldPageThroughTaskListWithCursor() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            Task task = TaskFixtures.createTask().withDescription("Paged Task " + i);
+            taskService.createTask(task).block();
+        }
+
+        // When - First page
+        var firstPage = webTestClient
+                .get()
+                .uri("http://localhost:" + port + "/v1/tasks?limit=2")
+                .accept(APPLICATION_STREAM_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Task.class)
+                .hasSize(2)
+                .returnResult();
+        String cursor = firstPage.getResponseHeaders().getFirst(TaskController.NEXT_CURSOR_HEADER);
+        assertThat(cursor).isNotNull();
+
+        // Then - Second page holds the remaining task and no further cursor
+        webTestClient
+                .get()
+                .uri("http://localhost:" + port + "/v1/tasks?limit=2&after=" + cursor)
+                .accept(APPLICATION_STREAM_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(TaskController.NEXT_CURSOR_HEADER)
+                .expectBodyList(Task.class)
+                .hasSize(1)
+                .value(tasks -> assertThat(firstPage.getResponseBody())
+                        .extracting(Task::id)
+                        .doesNotContain(tasks.getFirst().id()));
+    }
+
     @Test
     void shouldCreateAndReturnTask() {
         // Given
@@ -91,11 +151,58 @@ class TaskControllerIntegrationTest extends AbstractIntegrationTest {
                 .expectStatus().isOk()
                 .expectBody(Task.class)
                 .value(createdTask -> {
-                    assert createdTask.getDescription().equals(task.getDescription());
-                    assert !createdTask.isCompleted();
+                    assert createdTask.description().equals(task.description());
+                    assert !createdTask.completed();
                 });
     }
 
+    @Test
+    void shouldReturnConflictWhenTaskDescriptionAlreadyExists() {
+        // Given
+        Task task = TaskFixtures.createTask();
+        taskService.createTask(task).block();
+
+        // When & Then
+        webTestClient
+                .post()
+                .uri("http://localhost:" + port + "/v1/tasks")
+                .accept(APPLICATION_STREAM_JSON)
+                .bodyValue(task)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void shouldCreateTasksInBatch() {
+        // Given
+        taskService.createTask(TaskFixtures.createTask()).block();
+        String body = """
+                {"description":"Batch Task 1"}
+                {"description":"Test Task"}
+                {"description":""}
+                {"description":"Batch Task 2","completed":true}
+                """;
+
+        // When & Then
+        webTestClient
+                .post()
+                .uri("http://localhost:" + port + "/v1/tasks/batch")
+                .contentType(APPLICATION_NDJSON)
+                .accept(APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TaskBatchResult.class)
+                .value(results -> assertThat(results)
+                        .extracting(TaskBatchResult::status)
+                        .containsExactly(
+                                TaskBatchResult.Status.CREATED,
+                                TaskBatchResult.Status.CONFLICT,
+                                TaskBatchResult.Status.INVALID,
+                                TaskBatchResult.Status.CREATED));
+        assertThat(taskRepository.count().block()).isEqualTo(3L);
+    }
+
     @Test
     void shouldGetTaskById() {
         // Given
@@ -105,20 +212,76 @@ class TaskControllerIntegrationTest extends AbstractIntegrationTest {
         // When & Then
         webTestClient
                 .get()
-                .uri("http://localhost:" + port + "/v1/tasks/" + savedTask.getId())
+                .uri("http://localhost:" + port + "/v1/tasks/" + savedTask.id())
                 .accept(APPLICATION_JSON)
                 .exchange()
                 .expectStatus().isOk()
                 .expectBody(Task.class)
                 .value(retrievedTask -> {
-                    assertThat(retrievedTask.getId()).isEqualTo(savedTask.getId());
-                    assertThat(retrievedTask.getDescription()).isEqualTo(savedTask.getDescription());
-                    assertThat(retrievedTask.isCompleted()).isEqualTo(savedTask.isCompleted());
+                    assertThat(retrievedTask.id()).isEqualTo(savedTask.id());
+                    assertThat(retrievedTask.description()).isEqualTo(savedTask.description());
+                    assertThat(retrievedTask.completed()).isEqualTo(savedTask.completed());
                 });
     }
 
     @Test
-    void shouldReturnEmptyWhenTaskDoesNotExist() {
+    void shouldGetManyTasksByIdInRequestOrder() {
+        // Given
+        Task first = taskService.createTask(TaskFixtures.createTask()).block();
+        Task second = TaskFixtures.createTask().withDescription("Second Task");
+        second = taskService.createTask(second).block();
+        String missingId = UUID.randomUUID().toString();
+
+        // When & Then
+        webTestClient
+                .get()
+                .uri("http://localhost:" + port + "/v1/tasks?ids=" + second.id() + "," + missingId + "," + first.id())
+                .accept(APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskLookupResult.class)
+                .value(lookup -> {
+                    assertThat(lookup.tasks()).extracting(Task::description)
+                            .containsExactly("Second Task", first.description());
+                    assertThat(lookup.missing()).containsExactly(missingId);
+                });
+    }
+
+    @Test
+    void shouldSearchTaskDescriptions() {
+        // Given
+        // Inserted below the service, so the operation counts of the metrics test stay untouched
+        Instant now = Instant.now();
+        TaskEntity milk = taskRepository.insertIfAbsent(new TaskEntity(null, "Buy oat milk", false, now, now)).block();
+        taskRepository.insertIfAbsent(new TaskEntity(null, "Walk the dog", false, now, now)).block();
+
+        // When & Then
+        webTestClient
+                .get()
+                .uri("http://localhost:" + port + "/v1/tasks/search?q=milks")
+                .accept(APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Task.class)
+                .value(tasks -> assertThat(tasks).extracting(Task::id).containsExactly(milk.getId()));
+        webTestClient
+                .get()
+                .uri("http://localhost:" + port + "/v1/tasks/search?q=OAT&mode=substring")
+                .accept(APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Task.class)
+                .value(tasks -> assertThat(tasks).extracting(Task::id).containsExactly(milk.getId()));
+        webTestClient
+                .get()
+                .uri("http://localhost:" + port + "/v1/tasks/search?q=mi&mode=substring")
+                .accept(APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenTaskDoesNotExist() {
         // Given
         String nonExistentTaskId = "non-existent-id";
 
@@ -128,8 +291,7 @@ class TaskControllerIntegrationTest extends AbstractIntegrationTest {
                 .uri("http://localhost:" + port + "/v1/tasks/" + nonExistentTaskId)
                 .accept(APPLICATION_JSON)
                 .exchange()
-                .expectStatus().isOk()
-                .expectBody().isEmpty();
+                .expectStatus().isNotFound();
     }
 
     @Test
@@ -139,26 +301,93 @@ class TaskControllerIntegrationTest extends AbstractIntegrationTest {
         Task savedTask = taskService.createTask(task).block();
 
         // Create updated task
-        Task updatedTask = new Task();
-        updatedTask.setDescription("Updated Task Description");
-        updatedTask.setCompleted(true);
+        Task updatedTask = new Task(null, "Updated Task Description", true, null, null);
 
         // When & Then
         webTestClient
                 .put()
-                .uri("http://localhost:" + port + "/v1/tasks/" + savedTask.getId())
+                .uri("http://localhost:" + port + "/v1/tasks/" + savedTask.id())
                 .accept(APPLICATION_STREAM_JSON)
                 .bodyValue(updatedTask)
                 .exchange()
                 .expectStatus().isOk()
                 .expectBody(Task.class)
                 .value(resultTask -> {
-                    assertThat(resultTask.getId()).isEqualTo(savedTask.getId());
-                    assertThat(resultTask.getDescription()).isEqualTo("Updated Task Description");
-                    assertThat(resultTask.isCompleted()).isTrue();
+                    assertThat(resultTask.id()).isEqualTo(savedTask.id());
+                    assertThat(resultTask.description()).isEqualTo("Updated Task Description");
+                    assertThat(resultTask.completed()).isTrue();
+                    assertThat(resultTask.createdAt()).isEqualTo(savedTask.createdAt());
                 });
     }
 
+    @Test
+    void shouldReturnNotFoundWhenUpdatingMissingTask() {
+        // Given
+        Task updatedTask = new Task(null, "Updated Task Description", false, null, null);
+
+        // When & Then
+        webTestClient
+                .put()
+                .uri("http://localhost:" + port + "/v1/tasks/" + UUID.randomUUID())
+                .accept(APPLICATION_STREAM_JSON)
+                .bodyValue(updatedTask)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldReturnConflictWhenUpdatingToExistingDescription() {
+        // Given
+        Task first = TaskFixtures.createTask();
+        taskService.createTask(first).block();
+        Task second = TaskFixtures.createTask().withDescription("Another Task");
+        Task savedSecond = taskService.createTask(second).block();
+
+        Task updatedTask = new Task(null, first.description(), false, null, null);
+
+        // When & Then
+        webTestClient
+                .put()
+                .uri("http://localhost:" + port + "/v1/tasks/" + savedSecond.id())
+                .accept(APPLICATION_STREAM_JSON)
+                .bodyValue(updatedTask)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void shouldCompleteTasksInBulk() {
+        // Given
+        Task first = taskService.createTask(TaskFixtures.createTask()).block();
+        Task second = TaskFixtures.createTask().withDescription("Second Task");
+        second = taskService.createTask(second).block();
+        Task third = TaskFixtures.createTask().withDescription("Third Task");
+        taskService.createTask(third).block();
+
+        // When - Complete the first two tasks by id
+        webTestClient
+                .patch()
+                .uri("http://localhost:" + port + "/v1/tasks")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(new TaskBulkUpdate(List.of(first.id().toString(), second.id().toString()), null, true))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskBulkResult.class)
+                .isEqualTo(new TaskBulkResult(2));
+
+        // Then - Completing all open tasks only touches the remaining one
+        webTestClient
+                .patch()
+                .uri("http://localhost:" + port + "/v1/tasks")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(new TaskBulkUpdate(null, new TaskBulkUpdate.Filter(false), true))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskBulkResult.class)
+                .isEqualTo(new TaskBulkResult(1));
+        assertThat(taskRepository.findAll().all(TaskEntity::isCompleted).block()).isTrue();
+    }
+
     @Test
     void shouldDeleteTaskById() {
         // Given
@@ -168,18 +397,242 @@ class TaskControllerIntegrationTest extends AbstractIntegrationTest {
         // When - Delete the task
         webTestClient
                 .delete()
-                .uri("http://localhost:" + port + "/v1/tasks/" + savedTask.getId())
+                .uri("http://localhost:" + port + "/v1/tasks/" + savedTask.id())
                 .accept(APPLICATION_STREAM_JSON)
                 .exchange()
-                .expectStatus().isOk();
+                .expectStatus().isNoContent();
 
         // Then - Verify task is deleted
         webTestClient
                 .get()
-                .uri("http://localhost:" + port + "/v1/tasks/" + savedTask.getId())
+                .uri("http://localhost:" + port + "/v1/tasks/" + savedTask.id())
                 .accept(APPLICATION_JSON)
                 .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenDeletingMissingTask() {
+        webTestClient
+                .delete()
+                .uri("http://localhost:" + port + "/v1/tasks/" + UUID.randomUUID())
+                .accept(APPLICATION_STREAM_JSON)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldDeleteTasksInBulk() {
+        // Given
+        Task kept = taskService.createTask(TaskFixtures.createTask()).block();
+        for (int i = 0; i < 3; i++) {
+            Task task = TaskFixtures.createTask().withDescription("Completed Task " + i);
+            task = taskService.createTask(task).block();
+            taskService.updateTasks(new TaskBulkUpdate(List.of(task.id().toString()), null, true)).block();
+        }
+
+        // When
+        webTestClient
+                .delete()
+                .uri("http://localhost:" + port + "/v1/tasks?completed=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskBulkResult.class)
+                .isEqualTo(new TaskBulkResult(3));
+
+        // Then
+        assertThat(taskRepository.findAll().map(TaskEntity::getId).collectList().block())
+                .containsExactly(kept.id());
+    }
+
+    @Test
+    void shouldStreamTaskChanges() {
+        Flux<ServerSentEvent<TaskChangeEvent>> changes = webTestClient
+                .get()
+                .uri("http://localhost:" + port + "/v1/tasks/changes")
+                .accept(TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<TaskChangeEvent>>() {
+                })
+                .getResponseBody();
+
+        Task task = TaskFixtures.createTask();
+        StepVerifier.create(changes.map(ServerSentEvent::data).filter(Objects::nonNull))
+                .expectNextMatches(change -> change.type() == TaskChangeEvent.Type.RESET)
+                .then(() -> taskService.createTask(task).block())
+                .assertNext(change -> {
+                    assertThat(change.type()).isEqualTo(TaskChangeEvent.Type.CREATED);
+                    assertThat(change.task().description()).isEqualTo(task.description());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void shouldAnswerConditionalRequestsWithETags() {
+        Task created = taskService.createTask(TaskFixtures.createTask()).block();
+        String taskUri = "http://localhost:" + port + "/v1/tasks/" + created.id();
+
+        String eTag = webTestClient.get()
+                .uri(taskUri)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Task.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.get()
+                .uri(taskUri)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        Task update = TaskFixtures.createTask().withDescription("Updated with If-Match");
+        String newETag = webTestClient.put()
+                .uri(taskUri)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .bodyValue(update)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Task.class)
+                .getResponseHeaders()
+                .getETag();
+        assertThat(newETag).isNotEqualTo(eTag);
+
+        // The first version is stale now
+        webTestClient.delete()
+                .uri(taskUri)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        webTestClient.delete()
+                .uri(taskUri)
+                .header(HttpHeaders.IF_MATCH, newETag)
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void shouldReturnNotModifiedTaskList_UntilATaskChanges() {
+        taskService.createTask(TaskFixtures.createTask()).block();
+        String listUri = "http://localhost:" + port + "/v1/tasks";
+
+        String eTag = webTestClient.get()
+                .uri(listUri)
+                .accept(APPLICATION_STREAM_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Task.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.get()
+                .uri(listUri)
+                .accept(APPLICATION_STREAM_JSON)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        Task other = TaskFixtures.createTask().withDescription("Another task");
+        taskService.createTask(other).block();
+
+        webTestClient.get()
+                .uri(listUri)
+                .accept(APPLICATION_STREAM_JSON)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Task.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void shouldExposeServiceAndPoolMetricsForPrometheus() {
+        // Given
+        taskService.createTask(new Task(null, "Measured task", false, null, null)).block();
+
+        // When
+        String scrape = webTestClient
+                .get()
+                .uri("http://localhost:" + port + "/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        // Then
+        assertThat(scrape)
+                .contains("todo_tasks_operations_seconds_count{operation=\"createTask\",outcome=\"ok\"} 1")
+                .contains("todo_tasks_operations_seconds_bucket{")
+                .contains("r2dbc_pool_acquire_seconds_count{name=\"connectionFactory\"}")
+                .contains("r2dbc_pool_acquired")
+                .contains("r2dbc_pool_pending");
+    }
+
+    @Test
+    void shouldReportPerStatementSqlStats() {
+        // Given
+        webTestClient.delete()
+                .uri("http://localhost:" + port + "/actuator/sqlstats")
+                .exchange()
+                .expectStatus().is2xxSuccessful();
+        Task created = taskService.createTask(new Task(null, "Counted task", false, null, null)).block();
+        taskService.getTasks(List.of(created.id().toString())).block();
+
+        // When & Then
+        webTestClient.get()
+                .uri("http://localhost:" + port + "/actuator/sqlstats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[?(@.statement =~ /INSERT INTO tasks.*/)].calls").isEqualTo(1)
+                .jsonPath("$[?(@.statement =~ /SELECT id, description, completed, created_at, updated_at FROM tasks WHERE id = ANY.*/)].rows").isEqualTo(1)
+                .jsonPath("$[0].p99Millis").isNumber();
+    }
+
+    @Test
+    void shouldReportRouteTimingsByPhase() {
+        // Given
+        Task created = taskService.createTask(new Task(null, "Timed task", false, null, null)).block();
+        webTestClient.delete()
+                .uri("http://localhost:" + port + "/actuator/httptimings")
+                .exchange()
+                .expectStatus().is2xxSuccessful();
+        webTestClient.get()
+                .uri("http://localhost:" + port + "/v1/tasks/{taskId}", created.id())
+                .exchange()
+                .expectStatus().isOk();
+
+        // When & Then
+        webTestClient.get()
+                .uri("http://localhost:" + port + "/actuator/httptimings")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.routes[?(@.route == 'GET /v1/tasks/{taskId}')].count").isEqualTo(1)
+                .jsonPath("$.routes[?(@.route == 'GET /v1/tasks/{taskId}')].total.max").value(max ->
+                        assertThat(((List<?>) max).get(0)).isInstanceOf(Number.class))
+                .jsonPath("$.routes[?(@.route == 'GET /v1/tasks/{taskId}')].phases.query.max").value(max ->
+                        assertThat(((Number) ((List<?>) max).get(0)).doubleValue()).isPositive())
+                .jsonPath("$.routes[?(@.route == 'GET /v1/tasks/{taskId}')].phases.acquire").exists()
+                .jsonPath("$.routes[?(@.route == 'GET /v1/tasks/{taskId}')].phases.encode.max").value(max ->
+                        assertThat(((Number) ((List<?>) max).get(0)).doubleValue()).isPositive())
+                .jsonPath("$.routes[?(@.route =~ /.*actuator.*/)]").isEmpty()
+                .jsonPath("$.slowestRecentRequests").isArray();
+    }
+
+    @Test
+    void shouldExposeTheFlightRecordingEndpoint() {
+        // When & Then
+        webTestClient.get()
+                .uri("http://localhost:" + port + "/actuator/jfr")
+                .exchange()
                 .expectStatus().isOk()
-                .expectBody().isEmpty();
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("CLOSED")
+                .jsonPath("$.dumps").isArray();
     }
 }
@@ -0,0 +1,154 @@
+package io.github.nzuwera.todoapp.repository;
+
+import io.github.nzuwera.todoapp.config.AbstractIntegrationTest;
+import io.github.nzuwera.todoapp.config.WebTestClientConfig;
+import io.github.nzuwera.todoapp.controller.ReadYourWritesFilter;
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import io.github.nzuwera.todoapp.model.TaskLookupResult;
+import io.github.nzuwera.todoapp.store.TaskStore;
+import io.r2dbc.spi.ConnectionFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseCookie;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_STREAM_JSON;
+
+/**
+ * A second database of the same server stands in for the replica. Nothing replicates to it, so
+ * a read that finds a task written through the application went to the primary.
+ */
+@Import(WebTestClientConfig.class)
+class ReadReplicaIntegrationTest extends AbstractIntegrationTest {
+    private static final String REPLICA_DATABASE = "todo_replica";
+    private static String replicaUrl;
+
+    @DynamicPropertySource
+    static void configureReplica(DynamicPropertyRegistry registry) {
+        registry.add("todo.r2dbc.replica.url", () -> replicaJdbcUrl().replace("jdbc", "r2dbc"));
+    }
+
+    private static synchronized String replicaJdbcUrl() {
+        if (replicaUrl == null) {
+            try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DROP DATABASE IF EXISTS " + REPLICA_DATABASE + " WITH (FORCE)");
+                statement.execute("CREATE DATABASE " + REPLICA_DATABASE);
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Cannot create the replica database", ex);
+            }
+            replicaUrl = postgres.getJdbcUrl().replaceFirst("/" + postgres.getDatabaseName(), "/" + REPLICA_DATABASE);
+            // Like spring.flyway.postgresql.transactional-lock, which the concurrent index builds need
+            Flyway.configure()
+                    .dataSource(replicaUrl, postgres.getUsername(), postgres.getPassword())
+                    .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                    .load()
+                    .migrate();
+        }
+        return replicaUrl;
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private TaskStore taskStore;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskChangeListener taskChangeListener;
+
+    @LocalServerPort
+    private int port;
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll().block();
+    }
+
+    @Test
+    void taskStore_ShouldReadListsFromTheReplicaAndSingleTasksFromThePrimary() {
+        // Given
+        assertThat(connectionFactory).isInstanceOf(ReadWriteRoutingConnectionFactory.class);
+        TaskEntity task = taskStore.insertIfAbsent(new TaskEntity(null, "Written to the primary", false, Instant.now(), Instant.now())).block();
+
+        // When & Then
+        StepVerifier.create(taskStore.findFirstPage(10))
+                .verifyComplete();
+        StepVerifier.create(taskStore.findById(task.getId()))
+                .expectNextMatches(found -> found.getDescription().equals("Written to the primary"))
+                .verifyComplete();
+        StepVerifier.create(taskStore.findFirstPage(10).contextWrite(ReadWriteRoutingConnectionFactory.PINNED))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void lookup_ShouldSeeOwnWrite_WhenClientSendsBackTheStickinessCookie() {
+        // Given
+        ResponseCookie cookie = webTestClient.post()
+                .uri("http://localhost:" + port + "/v1/tasks")
+                .accept(APPLICATION_STREAM_JSON)
+                .bodyValue(new Task(null, "Own write", false, null, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectCookie().exists(ReadYourWritesFilter.COOKIE)
+                .returnResult(Task.class)
+                .getResponseCookies()
+                .getFirst(ReadYourWritesFilter.COOKIE);
+        String taskId = taskRepository.findAll().blockFirst().getId().toString();
+
+        // When & Then
+        webTestClient.get()
+                .uri("http://localhost:" + port + "/v1/tasks?ids=" + taskId)
+                .accept(APPLICATION_JSON)
+                .cookie(cookie.getName(), cookie.getValue())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskLookupResult.class)
+                .value(result -> assertThat(result.missing()).isEmpty());
+        webTestClient.get()
+                .uri("http://localhost:" + port + "/v1/tasks?ids=" + taskId)
+                .accept(APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskLookupResult.class)
+                .value(result -> assertThat(result.missing()).containsExactly(taskId));
+    }
+
+    @Test
+    void changes_ShouldStillListenOnThePrimary() {
+        // When & Then
+        StepVerifier.create(taskChangeListener.changes()
+                        .filter(event -> event.type() == TaskChangeEvent.Type.CREATED)
+                        .next())
+                .then(() -> taskStore.insertIfAbsent(new TaskEntity(null, "Notified", false, Instant.now(), Instant.now())).block())
+                .expectNextMatches(event -> event.task().description().equals("Notified"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.nzuwera.todoapp.repository;
+
+import io.github.nzuwera.todoapp.TaskEntityFixtures;
+import io.github.nzuwera.todoapp.config.AbstractIntegrationTest;
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import io.github.nzuwera.todoapp.service.ITaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TaskChangeListenerIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private TaskChangeListener taskChangeListener;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ITaskService taskService;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll().block();
+    }
+
+    @Test
+    void changes_ShouldPublishEveryWriteOnTheTasksTable() {
+        // Given
+        TaskEntity task = TaskEntityFixtures.createTaskEntity();
+
+        // When / Then
+        StepVerifier.create(taskChangeListener.changes()
+                        .filter(event -> event.type() != TaskChangeEvent.Type.RESET)
+                        .take(2))
+                .then(() -> {
+                    TaskEntity saved = taskRepository.save(task).block();
+                    taskRepository.deleteById(saved.getId()).block();
+                })
+                .assertNext(event -> assertEquals(TaskChangeEvent.Type.CREATED, event.type()))
+                .assertNext(event -> assertEquals(TaskChangeEvent.Type.DELETED, event.type()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void changes_ShouldPublishEveryTaskOfAStatement_FromOneNotification() {
+        // When / Then
+        StepVerifier.create(taskChangeListener.changes()
+                        .filter(event -> event.type() != TaskChangeEvent.Type.RESET)
+                        .take(6))
+                .then(() -> {
+                    databaseClient.sql("INSERT INTO tasks (description) VALUES ('Statement task 1'), ('Statement task 2'), ('Statement task 3')")
+                            .then()
+                            .block();
+                    databaseClient.sql("DELETE FROM tasks WHERE description LIKE 'Statement task %'")
+                            .then()
+                            .block();
+                })
+                .assertNext(event -> assertEquals("Statement task 1", event.task().description()))
+                .assertNext(event -> assertEquals("Statement task 2", event.task().description()))
+                .assertNext(event -> assertEquals("Statement task 3", event.task().description()))
+                .assertNext(event -> assertEquals(TaskChangeEvent.Type.DELETED, event.type()))
+                .assertNext(event -> assertEquals(TaskChangeEvent.Type.DELETED, event.type()))
+                .assertNext(event -> assertEquals(TaskChangeEvent.Type.DELETED, event.type()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void changes_ShouldPublishReset_WhenAStatementChangesTooManyTasksForOneNotification() {
+        // When / Then
+        StepVerifier.create(taskChangeListener.changes().next())
+                .then(() -> databaseClient.sql("""
+                                INSERT INTO tasks (description)
+                                SELECT 'Bulk task ' || n FROM generate_series(1, 200) AS n""")
+                        .then()
+                        .block())
+                .assertNext(event -> assertEquals(TaskChangeEvent.reset(), event))
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void getTask_ShouldNotServeStaleTask_WhenRowIsChangedOutsideThisInstance() {
+        // Given
+        TaskEntity saved = taskRepository.save(TaskEntityFixtures.createTaskEntity()).block();
+        String taskId = saved.getId().toString();
+        taskService.getTask(taskId).block();
+
+        // When - another replica updates the row
+        StepVerifier.create(taskChangeListener.changes()
+                        .filter(event -> taskId.equals(event.taskId()))
+                        .next())
+                .then(() -> databaseClient.sql("UPDATE tasks SET completed = NOT completed WHERE id = :id")
+                        .bind("id", saved.getId())
+                        .then()
+                        .block())
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Then
+        StepVerifier.create(taskService.getTask(taskId))
+                .expectNextMatches(task -> task.completed() != saved.isCompleted())
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.nzuwera.todoapp.repository;
+
+import io.github.nzuwera.todoapp.config.AbstractIntegrationTest;
+import io.github.nzuwera.todoapp.model.TaskFilter;
+import io.github.nzuwera.todoapp.model.TaskSort;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the plans of the listing statements on a table large enough for the planner to prefer
+ * indexes: every page must be read in index order, without sorting, from the intended index.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TaskPageQueryIntegrationTest extends AbstractIntegrationTest {
+    private static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @BeforeAll
+    void seedTasks() {
+        // One task in ten is open, updates are spread over the last days
+        databaseClient.sql("""
+                        INSERT INTO tasks (description, completed, created_at, updated_at)
+                        SELECT 'Seeded task ' || n, n % 10 <> 0,
+                               CAST(:now AS TIMESTAMPTZ) - n * INTERVAL '1 minute',
+                               CAST(:now AS TIMESTAMPTZ) - (n % 5000) * INTERVAL '1 minute'
+                        FROM generate_series(1, 20000) AS n""")
+                .bind("now", NOW)
+                .then()
+                .block();
+        databaseClient.sql("VACUUM ANALYZE tasks").then().block();
+    }
+
+    @AfterAll
+    void deleteTasks() {
+        taskRepository.deleteAll().block();
+    }
+
+    private String explain(TaskFilter filter, TaskSort sort, Instant after, UUID afterId) {
+        TaskPageQuery query = TaskPageQuery.of(filter, sort, after, afterId, 51);
+        return query.bind(databaseClient.sql("EXPLAIN (FORMAT JSON) " + query.sql()))
+                .map(row -> row.get(0, String.class))
+                .one()
+                .block();
+    }
+
+    @Test
+    void openTasks_ShouldBeReadFromThePartialIndex() {
+        // Given
+        TaskFilter open = new TaskFilter(false, null, null, null);
+
+        // When
+        String firstPage = explain(open, TaskSort.CREATED_AT, null, null);
+        String previousPage = explain(open, TaskSort.CREATED_AT_DESC, NOW.minus(100, ChronoUnit.MINUTES), UUID.randomUUID());
+
+        // Then
+        assertThat(firstPage)
+                .contains("\"Node Type\": \"Index Only Scan\"", "\"Index Name\": \"idx_tasks_open_created_at_id\"")
+                .doesNotContain("\"Node Type\": \"Sort\"");
+        assertThat(previousPage)
+                .contains("\"Scan Direction\": \"Backward\"", "\"Index Name\": \"idx_tasks_open_created_at_id\"")
+                .doesNotContain("\"Node Type\": \"Sort\"");
+    }
+
+    @Test
+    void creationOrder_ShouldBeReadFromTheCoveringIndex() {
+        // When
+        String newestFirst = explain(TaskFilter.NONE, TaskSort.CREATED_AT_DESC, null, null);
+        String createdRange = explain(new TaskFilter(null, NOW.minus(1, ChronoUnit.DAYS), NOW.minus(1, ChronoUnit.HOURS), null),
+                TaskSort.CREATED_AT, null, null);
+
+        // Then
+        assertThat(newestFirst)
+                .contains("\"Node Type\": \"Index Only Scan\"", "\"Index Name\": \"idx_tasks_created_at_id_covering\"")
+                .doesNotContain("\"Node Type\": \"Sort\"");
+        assertThat(createdRange)
+                .contains("\"Index Name\": \"idx_tasks_created_at_id_covering\"")
+                .doesNotContain("\"Node Type\": \"Sort\"", "\"Node Type\": \"Seq Scan\"");
+    }
+
+    @Test
+    void updateOrder_ShouldBeReadFromTheCoveringIndex() {
+        // When
+        String recentlyUpdated = explain(new TaskFilter(null, null, null, NOW.minus(1, ChronoUnit.HOURS)),
+                TaskSort.UPDATED_AT_DESC, null, null);
+        String nextPage = explain(TaskFilter.NONE, TaskSort.UPDATED_AT, NOW.minus(2, ChronoUnit.DAYS), UUID.randomUUID());
+
+        // Then
+        assertThat(recentlyUpdated)
+                .contains("\"Node Type\": \"Index Only Scan\"", "\"Index Name\": \"idx_tasks_updated_at_id_covering\"")
+                .doesNotContain("\"Node Type\": \"Sort\"");
+        assertThat(nextPage)
+                .contains("\"Index Name\": \"idx_tasks_updated_at_id_covering\"")
+                .doesNotContain("\"Node Type\": \"Sort\"", "\"Node Type\": \"Seq Scan\"");
+    }
+}
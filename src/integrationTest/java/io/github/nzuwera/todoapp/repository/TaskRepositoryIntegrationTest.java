@@ -2,7 +2,11 @@ package io.github.nzuwera.todoapp.repository;
 
 import io.github.nzuwera.todoapp.TaskEntityFixtures;
 import io.github.nzuwera.todoapp.config.AbstractIntegrationTest;
+import io.github.nzuwera.todoapp.entity.TaskChangeEntry;
+import io.github.nzuwera.todoapp.entity.TaskChangePosition;
 import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +14,8 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -19,6 +25,9 @@ class TaskRepositoryIntegrationTest extends AbstractIntegrationTest {
     @Autowired
     private TaskRepository taskRepository;
 
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
     private TaskEntity testTask;
 
     @BeforeEach
@@ -79,6 +88,75 @@ class TaskRepositoryIntegrationTest extends AbstractIntegrationTest {
                 .verifyComplete();
     }
 
+    @Test
+    void insertIfAbsent_ShouldInsertTask_WhenDescriptionIsFree() {
+        // Given
+        TaskEntity newTask = TaskEntityFixtures.createTaskEntity();
+        newTask.setDescription("Inserted Task");
+
+        // When
+        Mono<TaskEntity> result = taskRepository.insertIfAbsent(newTask);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextMatches(task ->
+                    task.getId() != null &&
+                    task.getDescription().equals("Inserted Task") &&
+                    task.getCreatedAt() != null)
+                .verifyComplete();
+    }
+
+    @Test
+    void insertIfAbsent_ShouldReturnEmptyMono_WhenDescriptionIsTaken() {
+        // Given
+        TaskEntity duplicate = TaskEntityFixtures.createTaskEntity();
+        duplicate.setDescription(testTask.getDescription());
+
+        // When
+        Mono<TaskEntity> result = taskRepository.insertIfAbsent(duplicate);
+
+        // Then
+        StepVerifier.create(result)
+                .verifyComplete();
+        assertEquals(1L, taskRepository.count().block());
+    }
+
+    @Test
+    void insertIfAbsent_ShouldLetOnlyOneConcurrentInsertWin() {
+        // Given
+        Flux<TaskEntity> concurrentInserts = Flux.range(0, 8)
+                .flatMap(i -> {
+                    TaskEntity task = TaskEntityFixtures.createTaskEntity();
+                    task.setDescription("Contended Task");
+                    return taskRepository.insertIfAbsent(task);
+                });
+
+        // When & Then
+        StepVerifier.create(concurrentInserts)
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void insertAllIfAbsent_ShouldInsertNewDescriptionsOnce() {
+        // Given
+        TaskEntity fresh = TaskEntityFixtures.createTaskEntity();
+        fresh.setDescription("Batch Task");
+        TaskEntity repeated = TaskEntityFixtures.createTaskEntity();
+        repeated.setDescription("Batch Task");
+        TaskEntity existing = TaskEntityFixtures.createTaskEntity();
+        existing.setDescription(testTask.getDescription());
+
+        // When
+        Flux<TaskEntity> result = taskRepository.insertAllIfAbsent(List.of(fresh, repeated, existing), Instant.now());
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextMatches(task -> task.getId() != null && task.getDescription().equals("Batch Task"))
+                .verifyComplete();
+        assertEquals(2L, taskRepository.count().block());
+    }
+
     @Test
     void update_ShouldUpdateExistingTask() {
         // Given
@@ -161,4 +239,76 @@ class TaskRepositoryIntegrationTest extends AbstractIntegrationTest {
         assertNotNull(tasks);
         assertEquals(2, tasks.size());
     }
+
+    @Test
+    void findChangesSince_ShouldReturnWritesAndDeletesInChangeOrder() {
+        // Given
+        TaskChangePosition since = lastChangePosition();
+        TaskEntity other = TaskEntityFixtures.createTaskEntity();
+        other.setDescription("Other task");
+        other = taskRepository.save(other).block();
+        taskRepository.updateTask(testTask.getId(), "Renamed task", true, Instant.now(), null).block();
+        taskRepository.deleteTaskById(other.getId(), null).block();
+
+        // When
+        List<TaskChangeEntry> changes = taskRepository.findChangesSince(since, 10).collectList().block();
+
+        // Then
+        assertEquals(2, changes.size());
+        assertEquals(testTask.getId(), changes.get(0).id());
+        assertEquals("Renamed task", changes.get(0).task().getDescription());
+        assertEquals(other.getId(), changes.get(1).id());
+        assertTrue(changes.get(1).deleted());
+        assertTrue(changes.get(0).position().compareTo(changes.get(1).position()) < 0);
+    }
+
+    @Test
+    void findChangesSince_ShouldHoldBackChanges_WhileAnOlderTransactionRuns() {
+        // Given
+        TaskChangePosition since = lastChangePosition();
+        Connection older = Mono.from(connectionFactory.create()).block();
+        try {
+            Mono.from(older.beginTransaction()).block();
+            // Takes a transaction id, like a writer that did not commit yet
+            Flux.from(older.createStatement("SELECT pg_current_xact_id()").execute())
+                    .flatMap(result -> result.map((row, metadata) -> row.get(0)))
+                    .blockLast();
+            taskRepository.updateTask(testTask.getId(), "Renamed task", true, Instant.now(), null).block();
+
+            // When & Then
+            StepVerifier.create(taskRepository.findChangesSince(since, 10))
+                    .verifyComplete();
+            Mono.from(older.commitTransaction()).block();
+            StepVerifier.create(taskRepository.findChangesSince(since, 10))
+                    .expectNextMatches(change -> change.id().equals(testTask.getId()))
+                    .verifyComplete();
+        } finally {
+            Mono.from(older.close()).block();
+        }
+    }
+
+    @Test
+    void pruneTombstones_ShouldMoveTheSyncHorizonPastThePrunedTombstones() {
+        // Given
+        taskRepository.deleteTaskById(testTask.getId(), null).block();
+        TaskChangePosition deletion = lastChangePosition();
+
+        // When
+        Long pruned = taskRepository.pruneTombstones(Instant.now().plusSeconds(60)).block();
+
+        // Then
+        assertTrue(pruned >= 1);
+        assertEquals(deletion, taskRepository.findSyncHorizon().block());
+        StepVerifier.create(taskRepository.findChangesSince(TaskChangePosition.START, 10))
+                .verifyComplete();
+        assertEquals(0L, taskRepository.pruneTombstones(Instant.now().plusSeconds(60)).block());
+        assertEquals(deletion, taskRepository.findSyncHorizon().block());
+    }
+
+    private TaskChangePosition lastChangePosition() {
+        List<TaskChangeEntry> changes = taskRepository.findChangesSince(TaskChangePosition.START, Integer.MAX_VALUE)
+                .collectList()
+                .block();
+        return changes.isEmpty() ? TaskChangePosition.START : changes.getLast().position();
+    }
 }
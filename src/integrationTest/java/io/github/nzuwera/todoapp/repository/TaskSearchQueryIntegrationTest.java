@@ -0,0 +1,84 @@
+package io.github.nzuwera.todoapp.repository;
+
+import io.github.nzuwera.todoapp.config.AbstractIntegrationTest;
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.model.TaskSearchMode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the plans of the search statements on a table large enough for the planner to prefer
+ * indexes: every search must be answered from a GIN index, never by reading the whole table.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TaskSearchQueryIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @BeforeAll
+    void seedTasks() {
+        // Every description ends with a word of its own, 'Seeded task 7 8f14e45fceea167a5a36dedd4bea2543'
+        databaseClient.sql("""
+                        INSERT INTO tasks (description, completed, created_at, updated_at)
+                        SELECT 'Seeded task ' || n || ' ' || md5(CAST(n AS TEXT)), FALSE, now(), now()
+                        FROM generate_series(1, 20000) AS n""")
+                .then()
+                .block();
+        databaseClient.sql("VACUUM ANALYZE tasks").then().block();
+    }
+
+    @AfterAll
+    void deleteTasks() {
+        taskRepository.deleteAll().block();
+    }
+
+    private String explain(String query, TaskSearchMode mode) {
+        TaskSearchQuery search = TaskSearchQuery.of(query, mode, 51);
+        return search.bind(databaseClient.sql("EXPLAIN (FORMAT JSON) " + search.sql()))
+                .map(row -> row.get(0, String.class))
+                .one()
+                .block();
+    }
+
+    @Test
+    void fullTextSearch_ShouldBeAnsweredFromTheTsvectorIndex() {
+        // When
+        String plan = explain("8f14e45fceea167a5a36dedd4bea2543", TaskSearchMode.TEXT);
+
+        // Then
+        assertThat(plan)
+                .contains("\"Index Name\": \"idx_tasks_description_tsv\"")
+                .doesNotContain("\"Node Type\": \"Seq Scan\"");
+        assertThat(taskRepository.search("8f14e45fceea167a5a36dedd4bea2543", TaskSearchMode.TEXT, 10)
+                .map(TaskEntity::getDescription).collectList().block())
+                .containsExactly("Seeded task 7 8f14e45fceea167a5a36dedd4bea2543");
+    }
+
+    @Test
+    void substringAndFuzzySearch_ShouldBeAnsweredFromTheTrigramIndex() {
+        // When
+        String substring = explain("fceea167a5", TaskSearchMode.SUBSTRING);
+        String fuzzy = explain("8f14e45fceea167a5a36dedd4baa2543", TaskSearchMode.FUZZY);
+
+        // Then
+        assertThat(substring)
+                .contains("\"Index Name\": \"idx_tasks_description_trgm\"")
+                .doesNotContain("\"Node Type\": \"Seq Scan\"");
+        assertThat(fuzzy)
+                .contains("\"Index Name\": \"idx_tasks_description_trgm\"")
+                .doesNotContain("\"Node Type\": \"Seq Scan\"");
+        assertThat(taskRepository.search("8f14e45fceea167a5a36dedd4baa2543", TaskSearchMode.FUZZY, 10)
+                .map(TaskEntity::getDescription).collectList().block())
+                .containsExactly("Seeded task 7 8f14e45fceea167a5a36dedd4bea2543");
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.nzuwera.todoapp.store;
+
+import io.github.nzuwera.todoapp.config.AbstractIntegrationTest;
+import io.github.nzuwera.todoapp.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+
+class R2dbcTaskStoreIntegrationTest extends AbstractIntegrationTest implements TaskStoreContract {
+
+    @Autowired
+    private TaskStore taskStore;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository.deleteAll().block();
+    }
+
+    @Override
+    public TaskStore taskStore() {
+        return taskStore;
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.nzuwera.todoapp.controller.advice;
+
+import io.github.nzuwera.todoapp.exceptions.TaskNotFoundException;
+import io.github.nzuwera.todoapp.model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ProblemDetail;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Problem detail construction for the most frequent client errors. The exceptions are built
+ * once, so only the advice is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ErrorControllerAdviceBenchmark {
+
+    private final ErrorControllerAdvice advice = new ErrorControllerAdvice();
+    private TaskNotFoundException notFound;
+    private WebExchangeBindException validationFailed;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        notFound = new TaskNotFoundException("Task with id 4f0c6a9e-1b8a-4e55-9a55-3c2b8f7b1d2e not found");
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(
+                new Task(null, "", false, null, null), "task");
+        bindingResult.addError(new FieldError("task", "description", "Task description cannot be empty"));
+        MethodParameter parameter = new MethodParameter(
+                ErrorControllerAdviceBenchmark.class.getDeclaredMethod("taskParameter", Task.class), 0);
+        validationFailed = new WebExchangeBindException(parameter, bindingResult);
+    }
+
+    @Benchmark
+    public ProblemDetail notFound() {
+        return advice.handleTaskNotFoundException(notFound).block();
+    }
+
+    @Benchmark
+    public ProblemDetail validationFailed() {
+        return advice.handleValidationException(validationFailed).block();
+    }
+
+    @SuppressWarnings("unused")
+    private void taskParameter(Task task) {
+    }
+}
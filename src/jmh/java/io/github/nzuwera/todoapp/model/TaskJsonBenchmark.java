@@ -0,0 +1,75 @@
+package io.github.nzuwera.todoapp.model;
+
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.service.TaskBenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes task lists with the WebFlux Jackson encoder, as a JSON page and as an NDJSON stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskJsonBenchmark {
+
+    private static final ResolvableType TASK_TYPE = ResolvableType.forClass(Task.class);
+    private static final ResolvableType TASK_PAGE_TYPE = ResolvableType.forClass(TaskPage.class);
+
+    @Param({"50", "500"})
+    public int size;
+
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private Jackson2JsonEncoder encoder;
+    private List<Task> tasks;
+    private TaskPage page;
+
+    @Setup
+    public void setUp() {
+        encoder = new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json().build());
+        tasks = TaskBenchmarkData.taskEntities(size).stream().map(TaskJsonBenchmark::toTask).toList();
+        page = new TaskPage(tasks, "bmV4dA");
+    }
+
+    @Benchmark
+    public int json() {
+        DataBuffer buffer = encoder.encodeValue(page, bufferFactory, TASK_PAGE_TYPE, MediaType.APPLICATION_JSON, null);
+        return release(buffer);
+    }
+
+    @Benchmark
+    public int ndjson() {
+        return encoder.encode(Flux.fromIterable(tasks), bufferFactory, TASK_TYPE, MediaType.APPLICATION_NDJSON, null)
+                .map(TaskJsonBenchmark::release)
+                .reduce(0, Integer::sum)
+                .block();
+    }
+
+    private static int release(DataBuffer buffer) {
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    private static Task toTask(TaskEntity entity) {
+        return new Task(entity.getId(), entity.getDescription(), entity.isCompleted(), entity.getCreatedAt(), entity.getUpdatedAt());
+    }
+}
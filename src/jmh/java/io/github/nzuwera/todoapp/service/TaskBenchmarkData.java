@@ -0,0 +1,40 @@
+package io.github.nzuwera.todoapp.service;
+
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.store.InMemoryTaskStore;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rows shared by the benchmarks.
+ */
+public final class TaskBenchmarkData {
+
+    private TaskBenchmarkData() {
+    }
+
+    public static List<TaskEntity> taskEntities(int count) {
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        List<TaskEntity> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Instant createdAt = start.plus(i, ChronoUnit.SECONDS).plusNanos(123_456_000L);
+            entities.add(new TaskEntity(UUID.randomUUID(), "Benchmark task number " + i, i % 3 == 0, createdAt, createdAt.plusMillis(250)));
+        }
+        return entities;
+    }
+
+    /**
+     * Store holding {@code count} tasks, so the service benchmarks measure the service and not the database.
+     */
+    public static InMemoryTaskStore inMemoryStore(int count) {
+        InMemoryTaskStore store = new InMemoryTaskStore();
+        for (TaskEntity entity : taskEntities(count)) {
+            store.insertIfAbsent(entity).block();
+        }
+        return store;
+    }
+}
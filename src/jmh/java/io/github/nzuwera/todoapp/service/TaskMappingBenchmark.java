@@ -0,0 +1,44 @@
+package io.github.nzuwera.todoapp.service;
+
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of converting between rows and API tasks, paid once per task on every read and write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskMappingBenchmark {
+
+    private TaskEntity entity;
+    private Task task;
+    private Instant now;
+
+    @Setup
+    public void setUp() {
+        entity = TaskBenchmarkData.taskEntities(1).get(0);
+        task = TaskService.mapToTask(entity);
+        now = Instant.now();
+    }
+
+    @Benchmark
+    public Task mapToTask() {
+        return TaskService.mapToTask(entity);
+    }
+
+    @Benchmark
+    public TaskEntity mapToTaskEntity() {
+        return TaskService.mapToTaskEntity(task, now);
+    }
+}
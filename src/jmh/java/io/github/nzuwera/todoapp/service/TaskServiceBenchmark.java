@@ -0,0 +1,68 @@
+package io.github.nzuwera.todoapp.service;
+
+import io.github.nzuwera.todoapp.config.TaskProperties;
+import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.model.TaskLookupResult;
+import io.github.nzuwera.todoapp.model.TaskPage;
+import io.github.nzuwera.todoapp.store.InMemoryTaskStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of the service against the in-memory store: everything a request pays for
+ * apart from the database round trip and the HTTP layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskServiceBenchmark {
+
+    @Param({"50", "500"})
+    public int pageSize;
+
+    private TaskService taskService;
+    private List<String> taskIds;
+    private String taskId;
+
+    @Setup
+    public void setUp() {
+        InMemoryTaskStore store = TaskBenchmarkData.inMemoryStore(pageSize);
+        TaskProperties properties = new TaskProperties(pageSize, pageSize, 500, Duration.ofMillis(100), pageSize, 1000,
+                10_000, Duration.ofMinutes(5), 256);
+        taskService = new TaskService(
+                store,
+                properties,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new TaskCache(properties.cacheMaximumSize(), properties.cacheTimeToLive()),
+                new TaskMetrics(new SimpleMeterRegistry()));
+        taskIds = store.findFirstPage(pageSize).map(entity -> entity.getId().toString()).collectList().block();
+        taskId = taskIds.get(0);
+    }
+
+    @Benchmark
+    public TaskPage getTasks() {
+        return taskService.getTasks(pageSize, null).block();
+    }
+
+    @Benchmark
+    public TaskLookupResult lookupTasks() {
+        return taskService.getTasks(taskIds).block();
+    }
+
+    @Benchmark
+    public Task getCachedTask() {
+        return taskService.getTask(taskId).block();
+    }
+}
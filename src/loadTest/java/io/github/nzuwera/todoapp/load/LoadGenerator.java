@@ -0,0 +1,204 @@
+package io.github.nzuwera.todoapp.load;
+
+import io.github.nzuwera.todoapp.model.Task;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Open model load generator: requests start at a fixed rate whether or not earlier ones have
+ * completed, and at most {@link LoadTestOptions#connections()} are in flight. Requests that
+ * wait for a connection are timed from when they were due, like a real client would see them.
+ */
+final class LoadGenerator {
+
+    private final LoadTestOptions options;
+    private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong descriptions = new AtomicLong();
+    private final TaskIds taskIds = new TaskIds();
+    private final Operation[] schedule;
+
+    LoadGenerator(LoadTestOptions options, String baseUrl) {
+        this(options, baseUrl, List.of());
+    }
+
+    /**
+     * Generator also targeting {@code taskIds}, tasks that exist before the run.
+     */
+    LoadGenerator(LoadTestOptions options, String baseUrl, List<String> taskIds) {
+        this.options = options;
+        taskIds.forEach(this.taskIds::add);
+        this.connectionProvider = ConnectionProvider.builder("load-test")
+                .maxConnections(options.connections())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.webClient = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+        this.schedule = schedule(options.mix());
+    }
+
+    LoadReport run() {
+        Flux.range(0, options.seedTasks())
+                .flatMap(i -> create(), options.connections())
+                .blockLast();
+
+        LoadReport report = new LoadReport();
+        long periodNanos = 1_000_000_000L / options.rate();
+        long warmupTicks = options.warmup().toNanos() / periodNanos;
+        long ticks = warmupTicks + options.duration().toNanos() / periodNanos;
+        long start = System.nanoTime();
+        Flux.interval(Duration.ofNanos(periodNanos))
+                .take(ticks)
+                // Ticks wait here while every connection is busy, they are not skipped
+                .onBackpressureBuffer()
+                .flatMap(tick -> {
+                    long due = start + (tick + 1) * periodNanos;
+                    Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+                    return send(operation).doOnNext(sample -> {
+                        if (tick >= warmupTicks) {
+                            report.record(sample.operation(), System.nanoTime() - due, sample.success());
+                        }
+                    });
+                }, options.connections())
+                .blockLast();
+        connectionProvider.dispose();
+        return report;
+    }
+
+    /**
+     * Sends one request of the operation. Without a known task, a GET, UPDATE or DELETE creates one
+     * instead and is reported as the CREATE it was.
+     */
+    private Mono<Sample> send(Operation operation) {
+        return switch (operation) {
+            case CREATE -> created();
+            case GET -> withTask(operation, taskIds.any(), taskId -> webClient.get()
+                    .uri("/v1/tasks/{taskId}", taskId)
+                    .exchangeToMono(response -> succeeded(response, taskId)));
+            case LIST -> webClient.get()
+                    .uri("/v1/tasks")
+                    .exchangeToMono(LoadGenerator::succeeded)
+                    .onErrorReturn(false)
+                    .map(success -> new Sample(operation, success));
+            case UPDATE -> withTask(operation, taskIds.any(), taskId -> webClient.put()
+                    .uri("/v1/tasks/{taskId}", taskId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new Task(null, nextDescription(), ThreadLocalRandom.current().nextBoolean(), null, null))
+                    .exchangeToMono(response -> succeeded(response, taskId)));
+            case DELETE -> withTask(operation, taskIds.take(), taskId -> webClient.delete()
+                    .uri("/v1/tasks/{taskId}", taskId)
+                    .exchangeToMono(LoadGenerator::succeeded));
+        };
+    }
+
+    private Mono<Boolean> create() {
+        return webClient.post()
+                .uri("/v1/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new Task(null, nextDescription(), false, null, null))
+                .exchangeToMono(response -> response.statusCode().is2xxSuccessful()
+                        ? response.bodyToMono(Task.class).doOnNext(task -> taskIds.add(task.id().toString())).thenReturn(true)
+                        : response.releaseBody().thenReturn(false))
+                .onErrorReturn(false);
+    }
+
+    private Mono<Sample> created() {
+        return create().map(success -> new Sample(Operation.CREATE, success));
+    }
+
+    private Mono<Sample> withTask(Operation operation, String taskId, Function<String, Mono<Boolean>> request) {
+        return taskId == null
+                ? created()
+                : request.apply(taskId).onErrorReturn(false).map(success -> new Sample(operation, success));
+    }
+
+    /**
+     * A task deleted by a concurrent request is expected to be missing, so its 404 is no failure.
+     */
+    private Mono<Boolean> succeeded(ClientResponse response, String taskId) {
+        boolean success = response.statusCode().is2xxSuccessful()
+                || response.statusCode().isSameCodeAs(HttpStatus.NOT_FOUND) && !taskIds.contains(taskId);
+        return response.releaseBody().thenReturn(success);
+    }
+
+    private String nextDescription() {
+        return "load-%s-%d".formatted(runId, descriptions.incrementAndGet());
+    }
+
+    private static Mono<Boolean> succeeded(ClientResponse response) {
+        return response.releaseBody().thenReturn(response.statusCode().is2xxSuccessful());
+    }
+
+    /**
+     * Expands the weights into a table that a uniform random index picks from.
+     */
+    private static Operation[] schedule(Map<Operation, Integer> mix) {
+        List<Operation> schedule = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                schedule.add(operation);
+            }
+        });
+        return schedule.toArray(Operation[]::new);
+    }
+
+    /**
+     * Outcome of a request, under the operation it turned out to be.
+     */
+    private record Sample(Operation operation, boolean success) {
+    }
+
+    /**
+     * Ids of the tasks that exist, so reads and updates target real tasks and a task is deleted once.
+     */
+    private static final class TaskIds {
+        private final List<String> ids = new ArrayList<>();
+        private final Set<String> present = new HashSet<>();
+
+        synchronized void add(String taskId) {
+            ids.add(taskId);
+            present.add(taskId);
+        }
+
+        synchronized boolean contains(String taskId) {
+            return present.contains(taskId);
+        }
+
+        synchronized String any() {
+            return ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+
+        synchronized String take() {
+            if (ids.isEmpty()) {
+                return null;
+            }
+            int index = ThreadLocalRandom.current().nextInt(ids.size());
+            String taskId = ids.get(index);
+            ids.set(index, ids.get(ids.size() - 1));
+            ids.remove(ids.size() - 1);
+            present.remove(taskId);
+            return taskId;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.nzuwera.todoapp.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and failures of a run, per operation. Latencies are recorded in microseconds from
+ * the time a request was due to start, so a stalled server also shows up in the percentiles
+ * instead of just slowing the clients down.
+ */
+final class LoadReport {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<Operation, ConcurrentHistogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> failures = new EnumMap<>(Operation.class);
+
+    LoadReport() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3));
+            failures.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, boolean success) {
+        latencies.get(operation).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_LATENCY_MICROS));
+        if (!success) {
+            failures.get(operation).increment();
+        }
+    }
+
+    void print(PrintStream out, LoadTestOptions options, Duration elapsed) {
+        double seconds = elapsed.toNanos() / 1e9;
+        out.printf("%nLoad test: %d req/s target, %d connections, %s measured%n", options.rate(), options.connections(), elapsed);
+        out.printf("%-24s %9s %9s %7s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        long totalFailures = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            long failed = failures.get(operation).sum();
+            printRow(out, operation.endpoint(), histogram, failed, seconds);
+            total.add(histogram);
+            totalFailures += failed;
+        }
+        printRow(out, "all", total, totalFailures, seconds);
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, long failed, double seconds) {
+        out.printf("%-24s %9d %9.1f %7d %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                name,
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                failed,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(95)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.nzuwera.todoapp.load;
+
+import io.github.nzuwera.todoapp.TodoAppApplication;
+import io.github.nzuwera.todoapp.repository.TaskRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Boots the application on a random port and measures it with a {@link LoadGenerator}. The
+ * database is a Postgres container, like in the integration tests, unless
+ * {@code spring.r2dbc.url} and {@code spring.flyway.url} point at an existing one.
+ * <p>
+ * With {@code load.scenario=table-sizes} the run is repeated at each of {@code load.table-sizes},
+ * the tasks table growing in between, and reads and updates target tasks sampled from the whole
+ * table. {@code load.scenario=updates} compares the update strategies in {@link UpdateComparison}.
+ */
+public final class LoadTest {
+
+    /**
+     * Tasks sampled as targets at each table size: ten times the default task cache size, so
+     * most reads reach the database.
+     */
+    private static final int SAMPLED_TASKS = 100_000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) {
+        LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+        PostgreSQLContainer<?> postgres = null;
+        if (System.getProperty("spring.r2dbc.url") == null) {
+            postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+            postgres.start();
+            System.setProperty("spring.r2dbc.url", postgres.getJdbcUrl().replace("jdbc", "r2dbc"));
+            System.setProperty("spring.r2dbc.username", postgres.getUsername());
+            System.setProperty("spring.r2dbc.password", postgres.getPassword());
+            System.setProperty("spring.flyway.url", postgres.getJdbcUrl());
+            System.setProperty("spring.flyway.user", postgres.getUsername());
+            System.setProperty("spring.flyway.password", postgres.getPassword());
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TodoAppApplication.class)
+                .properties("server.port=0", "spring.main.banner-mode=off")
+                .run(args)) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            String baseUrl = "http://localhost:" + port;
+            switch (options.scenario()) {
+                case MIX -> new LoadGenerator(options, baseUrl).run().print(System.out, options, options.duration());
+                case TABLE_SIZES -> runTableSizes(options, baseUrl, new TaskTable(context.getBean(DatabaseClient.class)));
+                case UPDATES -> new UpdateComparison(options, context.getBean(TaskRepository.class)).run(System.out);
+            }
+        } finally {
+            if (postgres != null) {
+                postgres.stop();
+            }
+        }
+    }
+
+    private static void runTableSizes(LoadTestOptions options, String baseUrl, TaskTable taskTable) {
+        for (long size : options.tableSizes()) {
+            System.out.printf("Growing the tasks table to %,d rows%n", size);
+            taskTable.growTo(size);
+            LoadReport report = new LoadGenerator(options, baseUrl, taskTable.sampleIds(SAMPLED_TASKS)).run();
+            System.out.printf("%n=== Table size: %,d tasks ===%n", size);
+            report.print(System.out, options, options.duration());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.nzuwera.todoapp.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from {@code load.*} system properties.
+ *
+ * @param rate        requests started per second, whatever the response times are
+ * @param duration    how long requests are started for, after the warm-up
+ * @param warmup      how long the same mix runs before measuring starts
+ * @param connections maximum number of concurrent connections, and so of requests in flight
+ * @param seedTasks   number of tasks created before the run so reads and updates have targets
+ * @param mix         relative weight of each operation
+ * @param scenario    what the run measures
+ * @param tableSizes  task counts the {@link Scenario#TABLE_SIZES} scenario runs the mix at, ascending
+ */
+record LoadTestOptions(int rate, Duration duration, Duration warmup, int connections, int seedTasks,
+                       Map<Operation, Integer> mix, Scenario scenario, List<Long> tableSizes) {
+
+    static final String DEFAULT_MIX = "create=20,get=40,list=20,update=15,delete=5";
+    static final String DEFAULT_TABLE_SIZES = "1000,100000,1000000,10000000";
+
+    static LoadTestOptions fromSystemProperties() {
+        return new LoadTestOptions(
+                Integer.getInteger("load.rate", 200),
+                Duration.parse("PT" + System.getProperty("load.duration", "30s")),
+                Duration.parse("PT" + System.getProperty("load.warmup", "10s")),
+                Integer.getInteger("load.connections", 64),
+                Integer.getInteger("load.seed-tasks", 500),
+                parseMix(System.getProperty("load.mix", DEFAULT_MIX)),
+                Scenario.valueOf(System.getProperty("load.scenario", "mix").trim().toUpperCase().replace('-', '_')),
+                parseTableSizes(System.getProperty("load.table-sizes", DEFAULT_TABLE_SIZES)));
+    }
+
+    /**
+     * Parses table sizes such as {@code 1000,100000}, sorted since the table only grows.
+     */
+    static List<Long> parseTableSizes(String tableSizes) {
+        List<Long> sizes = Arrays.stream(tableSizes.split(","))
+                .map(size -> Long.parseLong(size.trim()))
+                .sorted()
+                .toList();
+        if (sizes.getFirst() <= 0) {
+            throw new IllegalArgumentException("Table sizes must be positive");
+        }
+        return sizes;
+    }
+
+    /**
+     * Parses a mix such as {@code create=20,get=80}. Operations that are not listed are not run.
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry '%s', expected operation=weight".formatted(entry));
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight of %s must not be negative".formatted(parts[0]));
+            }
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("The mix must contain at least one operation");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.nzuwera.todoapp.load;
+
+/**
+ * Requests the load test can send, one per task endpoint.
+ */
+enum Operation {
+    CREATE("POST /v1/tasks"),
+    GET("GET /v1/tasks/{taskId}"),
+    LIST("GET /v1/tasks"),
+    UPDATE("PUT /v1/tasks/{taskId}"),
+    DELETE("DELETE /v1/tasks/{taskId}");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.nzuwera.todoapp.load;
+
+/**
+ * What a load test run measures, selected with {@code load.scenario}.
+ */
+enum Scenario {
+    /**
+     * The operation mix against the seeded tasks.
+     */
+    MIX,
+    /**
+     * The operation mix once per size of {@link LoadTestOptions#tableSizes()}, the tasks table
+     * growing with generated rows in between, to show how latency follows the table size.
+     */
+    TABLE_SIZES,
+    /**
+     * Concurrent updates of the seeded tasks through the repository, comparing the read-then-write
+     * update with the single statement one, see {@link UpdateComparison}.
+     */
+    UPDATES
+}
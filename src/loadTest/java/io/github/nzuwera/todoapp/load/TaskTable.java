@@ -0,0 +1,61 @@
+package io.github.nzuwera.todoapp.load;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The tasks table of the application under test, grown with generated rows straight in the
+ * database: creating millions of tasks through the API would take hours.
+ */
+final class TaskTable {
+    private static final long ROWS_PER_STATEMENT = 500_000;
+
+    private final DatabaseClient databaseClient;
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+
+    TaskTable(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    long count() {
+        return databaseClient.sql("SELECT count(*) FROM tasks")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+    }
+
+    /**
+     * Inserts generated tasks until the table holds {@code size} of them, then vacuums and
+     * analyzes it so plans and index-only scans are those of a settled table.
+     */
+    void growTo(long size) {
+        long current = count();
+        while (current < size) {
+            long last = Math.min(size, current + ROWS_PER_STATEMENT);
+            databaseClient.sql("""
+                            INSERT INTO tasks (description, completed)
+                            SELECT :prefix || n, n % 2 = 0 FROM generate_series(:first, :last) AS n""")
+                    .bind("prefix", "table-%s-".formatted(runId))
+                    .bind("first", current + 1)
+                    .bind("last", last)
+                    .then()
+                    .block();
+            current = last;
+        }
+        databaseClient.sql("VACUUM ANALYZE tasks").then().block();
+    }
+
+    /**
+     * Ids of {@code count} random tasks.
+     */
+    List<String> sampleIds(int count) {
+        return databaseClient.sql("SELECT CAST(id AS TEXT) FROM tasks ORDER BY random() LIMIT :count")
+                .bind("count", count)
+                .map(row -> row.get(0, String.class))
+                .all()
+                .collectList()
+                .block();
+    }
+}
@@ -0,0 +1,118 @@
+package io.github.nzuwera.todoapp.load;
+
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.repository.TaskRepository;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the two ways of updating a task under {@link LoadTestOptions#connections()} concurrent
+ * writers: loading the row and saving the whole entity back, as the service used to, and the single
+ * {@code UPDATE ... RETURNING} statement it runs now. Each writer starts its next update as soon as
+ * the previous one completes, so the update rate is the throughput of the strategy. Failed
+ * updates are only counted as errors, the updates, rate and latencies are those of successful ones.
+ */
+final class UpdateComparison {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    enum Strategy {
+        READ_THEN_WRITE("findById + save"),
+        UPDATE_RETURNING("UPDATE ... RETURNING");
+
+        private final String label;
+
+        Strategy(String label) {
+            this.label = label;
+        }
+    }
+
+    private final LoadTestOptions options;
+    private final TaskRepository taskRepository;
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+
+    UpdateComparison(LoadTestOptions options, TaskRepository taskRepository) {
+        this.options = options;
+        this.taskRepository = taskRepository;
+    }
+
+    void run(PrintStream out) {
+        Instant now = Instant.now();
+        List<TaskEntity> tasks = taskRepository.saveAll(Flux.range(0, options.seedTasks())
+                        .map(i -> new TaskEntity(null, "update-%s-%d".formatted(runId, i), false, now, now)))
+                .collectList()
+                .block();
+
+        out.printf("%nConcurrent updates: %d writers over %d tasks, %s measured per strategy%n",
+                options.connections(), tasks.size(), options.duration());
+        out.printf("%-24s %9s %9s %7s %10s %10s %10s%n",
+                "strategy", "updates", "updates/s", "errors", "p50 ms", "p99 ms", "max ms");
+        for (Strategy strategy : Strategy.values()) {
+            measure(strategy, tasks, options.warmup(), new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3), new LongAdder());
+            ConcurrentHistogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+            LongAdder failures = new LongAdder();
+            measure(strategy, tasks, options.duration(), latencies, failures);
+            printRow(out, strategy, latencies, failures.sum(), options.duration().toNanos() / 1e9);
+        }
+    }
+
+    private void measure(Strategy strategy, List<TaskEntity> tasks, Duration duration, Histogram latencies, LongAdder failures) {
+        long end = System.nanoTime() + duration.toNanos();
+        Flux.range(0, options.connections())
+                .flatMap(writer -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    TaskEntity task = tasks.get(ThreadLocalRandom.current().nextInt(tasks.size()));
+                    return update(strategy, task)
+                            .hasElement()
+                            .onErrorReturn(false)
+                            .doOnNext(updated -> {
+                                if (updated) {
+                                    latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), HIGHEST_LATENCY_MICROS));
+                                } else {
+                                    failures.increment();
+                                }
+                            });
+                }).repeat(() -> System.nanoTime() < end), options.connections())
+                .blockLast();
+    }
+
+    /**
+     * Toggles a task the way a PUT with the full task does.
+     */
+    private Mono<TaskEntity> update(Strategy strategy, TaskEntity task) {
+        boolean completed = ThreadLocalRandom.current().nextBoolean();
+        Instant now = Instant.now();
+        return switch (strategy) {
+            case READ_THEN_WRITE -> taskRepository.findById(task.getId())
+                    .flatMap(existing -> {
+                        existing.setDescription(task.getDescription());
+                        existing.setCompleted(completed);
+                        existing.setUpdatedAt(now);
+                        return taskRepository.save(existing);
+                    });
+            case UPDATE_RETURNING -> taskRepository.updateTask(task.getId(), task.getDescription(), completed, now, null);
+        };
+    }
+
+    private static void printRow(PrintStream out, Strategy strategy, Histogram histogram, long failed, double seconds) {
+        out.printf("%-24s %9d %9.1f %7d %10.2f %10.2f %10.2f%n",
+                strategy.label,
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                failed,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+}
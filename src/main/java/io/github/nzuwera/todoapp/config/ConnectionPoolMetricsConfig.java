@@ -0,0 +1,75 @@
+package io.github.nzuwera.todoapp.config;
+
+import io.github.nzuwera.todoapp.observability.RequestTimings;
+import io.github.nzuwera.todoapp.store.R2dbcTaskStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times how long requests wait for a pooled connection, under the {@code r2dbc.pool.acquire}
+ * timer and in the {@link RequestTimings.Phase#ACQUIRE acquire phase} of the request. The pool
+ * gauges ({@code r2dbc.pool.acquired}, {@code idle}, {@code pending} ...) are published by Spring
+ * Boot and share the {@code name} tag, the bean name of the pool.
+ */
+@Configuration
+@Profile(R2dbcTaskStore.PROFILE)
+public class ConnectionPoolMetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionAcquireTimer(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConnectionPool pool) {
+                    Timer timer = Timer.builder("r2dbc.pool.acquire")
+                            .description("Time spent waiting for a connection from the pool")
+                            .tag("name", beanName)
+                            .register(meterRegistry.getObject());
+                    return new TimedConnectionFactory(pool, timer);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Unwraps to the pool, so Spring Boot still finds it to publish the pool gauges, and keeps
+     * the {@code dispose()} destroy method of the pool bean.
+     */
+    record TimedConnectionFactory(ConnectionPool pool, Timer timer) implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+        @Override
+        public Publisher<? extends Connection> create() {
+            return Mono.defer(() -> {
+                Timer.Sample sample = Timer.start();
+                return pool.create().doOnSuccess(connection -> sample.stop(timer));
+            }).transform(RequestTimings.timed(RequestTimings.Phase.ACQUIRE));
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return pool.getMetadata();
+        }
+
+        @Override
+        public ConnectionFactory unwrap() {
+            return pool;
+        }
+
+        public void dispose() {
+            pool.dispose();
+        }
+    }
+}
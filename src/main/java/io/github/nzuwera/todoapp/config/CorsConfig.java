@@ -1,7 +1,9 @@
 package io.github.nzuwera.todoapp.config;
 
+import io.github.nzuwera.todoapp.controller.TaskController;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsWebFilter;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
@@ -15,6 +17,8 @@ public class CorsConfig {
         corsConfig.addAllowedOriginPattern("*"); // Allow all origins
         corsConfig.addAllowedMethod("*"); // Allow all HTTP methods
         corsConfig.addAllowedHeader("*"); // Allow all headers
+        corsConfig.addExposedHeader(TaskController.NEXT_CURSOR_HEADER); // Let browsers read the pagination cursor
+        corsConfig.addExposedHeader(HttpHeaders.ETAG); // Let browsers send conditional requests
         corsConfig.setAllowCredentials(false); // Important: must be false when using "*" for origins
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
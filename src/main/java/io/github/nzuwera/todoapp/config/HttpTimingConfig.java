@@ -0,0 +1,55 @@
+package io.github.nzuwera.todoapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.nzuwera.todoapp.observability.HttpTimings;
+import io.github.nzuwera.todoapp.observability.HttpTimingsEndpoint;
+import io.github.nzuwera.todoapp.observability.RequestArrivalHandler;
+import io.github.nzuwera.todoapp.observability.RequestTimingFilter;
+import io.github.nzuwera.todoapp.observability.TimedJsonEncoder;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import reactor.netty.NettyPipeline;
+
+@Configuration
+public class HttpTimingConfig {
+
+    @Bean
+    public HttpTimings httpTimings(HttpTimingProperties properties) {
+        return new HttpTimings(properties.slowRequestThreshold().toNanos(), properties.slowRequestBufferSize());
+    }
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public RequestTimingFilter requestTimingFilter(HttpTimings httpTimings) {
+        return new RequestTimingFilter(httpTimings);
+    }
+
+    @Bean
+    public HttpTimingsEndpoint httpTimingsEndpoint(HttpTimings httpTimings) {
+        return new HttpTimingsEndpoint(httpTimings);
+    }
+
+    @Bean
+    public NettyServerCustomizer requestArrivalCustomizer() {
+        return httpServer -> httpServer.doOnChannelInit((observer, channel, remoteAddress) -> {
+            // Only HTTP/1.1 has a codec at channel initialization, other requests fall back to no queue time
+            if (channel.pipeline().get(NettyPipeline.HttpCodec) != null) {
+                channel.pipeline().addAfter(NettyPipeline.HttpCodec, RequestArrivalHandler.NAME, RequestArrivalHandler.INSTANCE);
+            }
+        });
+    }
+
+    /**
+     * Applied after the customizer of Spring Boot that configures the Jackson codecs.
+     */
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public CodecCustomizer timedJsonEncoderCustomizer(ObjectMapper objectMapper) {
+        return configurer -> configurer.defaultCodecs().jackson2JsonEncoder(new TimedJsonEncoder(new Jackson2JsonEncoder(objectMapper)));
+    }
+}
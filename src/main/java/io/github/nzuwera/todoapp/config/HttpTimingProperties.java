@@ -0,0 +1,18 @@
+package io.github.nzuwera.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the HTTP request timings, bound from {@code todo.http.timing.*}.
+ *
+ * @param slowRequestThreshold   requests taking at least this long are kept with their phase timings
+ * @param slowRequestBufferSize  number of the latest slow requests kept
+ */
+@ConfigurationProperties(prefix = "todo.http.timing")
+public record HttpTimingProperties(
+        @DefaultValue("500ms") Duration slowRequestThreshold,
+        @DefaultValue("64") int slowRequestBufferSize) {
+}
@@ -0,0 +1,15 @@
+package io.github.nzuwera.todoapp.config;
+
+import io.github.nzuwera.todoapp.observability.JfrEndpoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JfrConfig {
+
+    @Bean
+    public JfrEndpoint jfrEndpoint(JfrProperties properties) {
+        return new JfrEndpoint(properties.directory(), properties.settings(), properties.maxAge(),
+                properties.maxSize().toBytes(), properties.maxDumps());
+    }
+}
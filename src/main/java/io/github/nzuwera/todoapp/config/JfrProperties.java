@@ -0,0 +1,26 @@
+package io.github.nzuwera.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of the on-demand flight recordings, bound from {@code todo.jfr.*}.
+ *
+ * @param directory directory the recordings are dumped to
+ * @param settings  JDK recording settings to start from, {@code default} or {@code profile}
+ * @param maxAge    age of the oldest data kept by a running recording
+ * @param maxSize   size of the data kept by a running recording
+ * @param maxDumps  number of dumps kept in the directory, older ones are deleted
+ */
+@ConfigurationProperties(prefix = "todo.jfr")
+public record JfrProperties(
+        @DefaultValue("recordings") Path directory,
+        @DefaultValue("default") String settings,
+        @DefaultValue("15m") Duration maxAge,
+        @DefaultValue("100MB") DataSize maxSize,
+        @DefaultValue("10") int maxDumps) {
+}
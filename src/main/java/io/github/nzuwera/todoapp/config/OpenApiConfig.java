@@ -11,6 +11,10 @@ public class OpenApiConfig {
     public static final String DESCRIPTION_CREATED = "The resource was created successfully.";
     public static final String DESCRIPTION_NO_CONTENT =
             "The request completed successfully and there is no content in the response body.";
+    public static final String DESCRIPTION_NOT_MODIFIED =
+            "The resource did not change since the version given in If-None-Match, the response has no body.";
+    public static final String DESCRIPTION_PRECONDITION_FAILED =
+            "The resource was modified since the version given in If-Match.";
     public static final String DESCRIPTION_BAD_REQUEST = "There was an error with the request data.";
     public static final String DESCRIPTION_NOT_FOUND = "The resource with the given id could not be found.";
     public static final String DESCRIPTION_INTERNAL_SERVER_ERROR = "Internal server error.";
@@ -18,6 +22,8 @@ public class OpenApiConfig {
             "The request could not be completed due to a conflict with the current state of the resource.";
     public static final String DESCRIPTION_CONTENT_TOO_LARGE =
             "Requested resource is larger than limits defined by server.";
+    public static final String DESCRIPTION_SYNC_EXPIRED =
+            "The sync token is older than the kept deletions, sync again without a token.";
     @Bean
     public OpenAPI customOpenAPI() {
         var title = getClass().getPackage().getImplementationTitle();
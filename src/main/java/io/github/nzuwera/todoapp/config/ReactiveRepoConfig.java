@@ -1,11 +1,14 @@
 package io.github.nzuwera.todoapp.config;
 
+import io.github.nzuwera.todoapp.store.R2dbcTaskStore;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
 
 @EnableR2dbcRepositories
 @EnableR2dbcAuditing
 @Configuration
+@Profile(R2dbcTaskStore.PROFILE)
 public class ReactiveRepoConfig {
 }
@@ -0,0 +1,92 @@
+package io.github.nzuwera.todoapp.config;
+
+import io.github.nzuwera.todoapp.controller.ReadYourWritesFilter;
+import io.github.nzuwera.todoapp.repository.ReadWriteRoutingConnectionFactory;
+import io.github.nzuwera.todoapp.store.R2dbcTaskStore;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.boot.r2dbc.ConnectionFactoryDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.util.StringUtils;
+
+/**
+ * Replaces the connection pool of Spring Boot by one pool for the primary and one for the
+ * replica when {@code todo.r2dbc.replica.url} is set, behind a
+ * {@link ReadWriteRoutingConnectionFactory}. Both pools are built like the one of Spring Boot,
+ * from the {@code spring.r2dbc.pool.*} settings and with the R2DBC proxy, so they are timed and
+ * their statements counted the same way.
+ */
+@Configuration
+@Profile(R2dbcTaskStore.PROFILE)
+@ConditionalOnProperty(prefix = "todo.r2dbc.replica", name = "url")
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool primaryConnectionFactory(R2dbcProperties properties,
+                                                   ObjectProvider<ConnectionFactoryDecorator> decorators) {
+        return pool(properties.getUrl(), properties.getUsername(), properties.getPassword(), properties.getPool(), decorators);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool replicaConnectionFactory(ReadReplicaProperties replica, R2dbcProperties properties,
+                                                   ObjectProvider<ConnectionFactoryDecorator> decorators) {
+        String username = StringUtils.hasText(replica.username()) ? replica.username() : properties.getUsername();
+        String password = StringUtils.hasText(replica.password()) ? replica.password() : properties.getPassword();
+        return pool(replica.url(), username, password, properties.getPool(), decorators);
+    }
+
+    /**
+     * The pools are injected by name since the acquire timer wraps them.
+     */
+    @Bean
+    @Primary
+    public ReadWriteRoutingConnectionFactory connectionFactory(@Qualifier("primaryConnectionFactory") ConnectionFactory primary,
+                                                               @Qualifier("replicaConnectionFactory") ConnectionFactory replica) {
+        return new ReadWriteRoutingConnectionFactory(primary, replica);
+    }
+
+    /**
+     * Runs before the request timing filter, which needs nothing from it.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public ReadYourWritesFilter readYourWritesFilter(ReadReplicaProperties replica) {
+        return new ReadYourWritesFilter(replica.stickiness());
+    }
+
+    private static ConnectionPool pool(String url, String username, String password, R2dbcProperties.Pool settings,
+                                       ObjectProvider<ConnectionFactoryDecorator> decorators) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(url)
+                .username(username)
+                .password(password)
+                .build();
+        for (ConnectionFactoryDecorator decorator : decorators.orderedStream().toList()) {
+            connectionFactory = decorator.decorate(connectionFactory);
+        }
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(connectionFactory);
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(settings.getMaxIdleTime()).to(builder::maxIdleTime);
+        map.from(settings.getMaxLifeTime()).to(builder::maxLifeTime);
+        map.from(settings.getMaxAcquireTime()).to(builder::maxAcquireTime);
+        map.from(settings.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+        map.from(settings.getMaxValidationTime()).to(builder::maxValidationTime);
+        map.from(settings.getInitialSize()).to(builder::initialSize);
+        map.from(settings.getMaxSize()).to(builder::maxSize);
+        map.from(settings.getMinIdle()).to(builder::minIdle);
+        map.from(settings.getValidationQuery()).whenHasText().to(builder::validationQuery);
+        map.from(settings.getValidationDepth()).to(builder::validationDepth);
+        return new ConnectionPool(builder.build());
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.nzuwera.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Read replica settings, bound from {@code todo.r2dbc.replica.*}. Without a URL all statements
+ * go to {@code spring.r2dbc.url}.
+ *
+ * @param url        R2DBC URL of the replica; its pool uses the {@code spring.r2dbc.pool.*} settings
+ * @param username   user of the replica, the one of the primary when not set
+ * @param password   password of the replica, the one of the primary when not set
+ * @param stickiness how long a client keeps reading from the primary after its own write, so that
+ *                   it sees it despite the replication lag; {@code 0} disables it
+ */
+@ConfigurationProperties(prefix = "todo.r2dbc.replica")
+public record ReadReplicaProperties(
+        String url,
+        String username,
+        String password,
+        @DefaultValue("5s") Duration stickiness) {
+}
@@ -0,0 +1,33 @@
+package io.github.nzuwera.todoapp.config;
+
+import io.github.nzuwera.todoapp.observability.SqlStatementStats;
+import io.github.nzuwera.todoapp.observability.SqlStatsEndpoint;
+import io.github.nzuwera.todoapp.store.R2dbcTaskStore;
+import org.springframework.boot.autoconfigure.r2dbc.ProxyConnectionFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Spring Boot wraps the connections of the pool in an R2DBC proxy when it is on the classpath;
+ * the statistics listen to the statements passing through it.
+ */
+@Configuration
+@Profile(R2dbcTaskStore.PROFILE)
+public class SqlStatsConfig {
+
+    @Bean
+    public SqlStatementStats sqlStatementStats(SqlStatsProperties properties) {
+        return new SqlStatementStats(properties.slowThreshold(), properties.maxStatements());
+    }
+
+    @Bean
+    public ProxyConnectionFactoryCustomizer sqlStatsProxyCustomizer(SqlStatementStats sqlStatementStats) {
+        return builder -> builder.listener(sqlStatementStats);
+    }
+
+    @Bean
+    public SqlStatsEndpoint sqlStatsEndpoint(SqlStatementStats sqlStatementStats) {
+        return new SqlStatsEndpoint(sqlStatementStats);
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.nzuwera.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the per-statement SQL statistics, bound from {@code todo.sql.*}.
+ *
+ * @param slowThreshold statements running at least this long are logged, with their bind values redacted
+ * @param maxStatements number of distinct statements tracked, later ones are counted together as {@code <other>}
+ */
+@ConfigurationProperties(prefix = "todo.sql")
+public record SqlStatsProperties(
+        @DefaultValue("200ms") Duration slowThreshold,
+        @DefaultValue("500") int maxStatements) {
+}
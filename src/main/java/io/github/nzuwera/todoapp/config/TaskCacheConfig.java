@@ -0,0 +1,23 @@
+package io.github.nzuwera.todoapp.config;
+
+import io.github.nzuwera.todoapp.service.TaskCache;
+import io.github.nzuwera.todoapp.store.TaskStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TaskCacheConfig {
+
+    @Bean
+    public TaskCache taskCache(TaskProperties taskProperties,
+                               MeterRegistry meterRegistry,
+                               TaskStore taskStore) {
+        TaskCache taskCache = new TaskCache(taskProperties.cacheMaximumSize(), taskProperties.cacheTimeToLive());
+        taskCache.bindTo(meterRegistry, "tasks");
+        // Writes made by other replicas reach this instance through the store's change stream,
+        // Postgres LISTEN/NOTIFY for the default store
+        taskStore.changes().subscribe(taskCache::apply);
+        return taskCache;
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.nzuwera.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of the log-structured task store, bound from {@code todo.store.log.*}.
+ *
+ * @param directory        directory holding the write-ahead log segments and snapshots
+ * @param segmentSize      size of one memory-mapped log segment
+ * @param syncWrites       whether every write is forced to disk before it completes, otherwise
+ *                         writes survive a crash of the application but not of the machine
+ *                         until the next flush
+ * @param flushInterval    how often written records are forced to disk when writes are not synced
+ * @param snapshotInterval how often a snapshot is written, when tasks changed, so that the log
+ *                         segments it replaces can be deleted
+ */
+@ConfigurationProperties(prefix = "todo.store.log")
+public record TaskLogProperties(
+        @DefaultValue("data/tasks") Path directory,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("false") boolean syncWrites,
+        @DefaultValue("1s") Duration flushInterval,
+        @DefaultValue("5m") Duration snapshotInterval) {
+}
@@ -0,0 +1,15 @@
+package io.github.nzuwera.todoapp.config;
+
+import io.github.nzuwera.todoapp.service.TaskMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TaskMetricsConfig {
+
+    @Bean
+    public TaskMetrics taskMetrics(MeterRegistry meterRegistry) {
+        return new TaskMetrics(meterRegistry);
+    }
+}
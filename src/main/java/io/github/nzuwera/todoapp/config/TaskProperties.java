@@ -0,0 +1,32 @@
+package io.github.nzuwera.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Tunables for the task API, bound from {@code todo.tasks.*}.
+ *
+ * @param defaultPageSize number of tasks returned by a list request that does not specify a limit
+ * @param maxPageSize     upper bound applied to the limit requested by clients
+ * @param batchSize       maximum number of tasks written by one multi-row insert of the batch endpoint
+ * @param batchMaxWait    how long a partial batch waits for more tasks before it is written anyway
+ * @param maxBulkIds      maximum number of ids a single bulk request may reference
+ * @param deleteChunkSize maximum number of rows removed by one statement of a bulk delete
+ * @param cacheMaximumSize maximum number of tasks kept in the single task read cache
+ * @param cacheTimeToLive  how long a task stays cached after it was loaded
+ * @param changeBufferSize number of change events buffered for a slow change feed subscriber before it is dropped
+ */
+@ConfigurationProperties(prefix = "todo.tasks")
+public record TaskProperties(
+        @DefaultValue("50") int defaultPageSize,
+        @DefaultValue("500") int maxPageSize,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("100ms") Duration batchMaxWait,
+        @DefaultValue("1000") int maxBulkIds,
+        @DefaultValue("1000") int deleteChunkSize,
+        @DefaultValue("10000") long cacheMaximumSize,
+        @DefaultValue("5m") Duration cacheTimeToLive,
+        @DefaultValue("256") int changeBufferSize) {
+}
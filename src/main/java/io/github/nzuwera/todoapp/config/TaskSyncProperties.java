@@ -0,0 +1,19 @@
+package io.github.nzuwera.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the delta sync, bound from {@code todo.sync.*}.
+ *
+ * @param tombstoneRetention how long the deletion of a task is kept for the clients to sync it;
+ *                           a client that did not sync for longer has to start over
+ * @param pruneInterval      how often the tombstones past their retention are dropped
+ */
+@ConfigurationProperties(prefix = "todo.sync")
+public record TaskSyncProperties(
+        @DefaultValue("30d") Duration tombstoneRetention,
+        @DefaultValue("1h") Duration pruneInterval) {
+}
@@ -0,0 +1,66 @@
+package io.github.nzuwera.todoapp.controller;
+
+import io.github.nzuwera.todoapp.repository.ReadWriteRoutingConnectionFactory;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Lets a client read its own writes despite the lag of the read replica. A request that may
+ * write gets a {@value #COOKIE} cookie holding until when the client stays on the primary;
+ * requests carrying an unexpired one are {@link ReadWriteRoutingConnectionFactory#PINNED pinned}
+ * to the primary.
+ */
+public class ReadYourWritesFilter implements WebFilter {
+    public static final String COOKIE = "todo-primary-until";
+
+    private final Duration stickiness;
+
+    public ReadYourWritesFilter(Duration stickiness) {
+        this.stickiness = stickiness;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (stickiness.isZero()) {
+            return chain.filter(exchange);
+        }
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method) && !HttpMethod.OPTIONS.equals(method)) {
+            exchange.getResponse().beforeCommit(() -> {
+                long until = System.currentTimeMillis() + stickiness.toMillis();
+                exchange.getResponse().addCookie(ResponseCookie.from(COOKIE, Long.toString(until))
+                        .maxAge(stickiness)
+                        .path("/")
+                        .httpOnly(true)
+                        .sameSite("Lax")
+                        .build());
+                return Mono.empty();
+            });
+            return chain.filter(exchange);
+        }
+        return isPinned(exchange.getRequest().getCookies().getFirst(COOKIE))
+                ? chain.filter(exchange).contextWrite(ReadWriteRoutingConnectionFactory.PINNED)
+                : chain.filter(exchange);
+    }
+
+    /**
+     * Clients may keep a cookie past its max age, so its expiry is checked as well.
+     */
+    private static boolean isPinned(HttpCookie cookie) {
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+}
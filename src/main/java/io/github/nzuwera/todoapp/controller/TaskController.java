@@ -2,6 +2,15 @@ package io.github.nzuwera.todoapp.controller;
 
 import io.github.nzuwera.todoapp.config.OpenApiConfig;
 import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.model.TaskBatchResult;
+import io.github.nzuwera.todoapp.model.TaskBulkResult;
+import io.github.nzuwera.todoapp.model.TaskBulkUpdate;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import io.github.nzuwera.todoapp.model.TaskFilter;
+import io.github.nzuwera.todoapp.model.TaskLookup;
+import io.github.nzuwera.todoapp.model.TaskLookupResult;
+import io.github.nzuwera.todoapp.model.TaskPage;
+import io.github.nzuwera.todoapp.model.TaskSync;
 import io.github.nzuwera.todoapp.service.ITaskService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,39 +18,161 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
 @RestController
 @RequestMapping("/v1/tasks")
 @RequiredArgsConstructor
 public class TaskController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final Duration CHANGES_HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+
     private final ITaskService taskService;
 
     /**
      * GET /tasks
      *
-     * @return Flux<Task> - List of tasks. If no tasks are found, Flux<Task> will be empty.
+     * @param completed     - Only list tasks in this completed state.
+     * @param createdAfter  - Only list tasks created after this instant.
+     * @param createdBefore - Only list tasks created before this instant.
+     * @param updatedSince  - Only list tasks last updated at or after this instant.
+     * @param sort          - createdAt (default), -createdAt, updatedAt or -updatedAt.
+     * @param limit         - Maximum number of tasks to return. Defaults to the configured page size.
+     * @param after         - Opaque cursor taken from the X-Next-Cursor header of the previous page, with the same filters and sort.
+     * @return Flux<Task> - One page of tasks in the requested order. The X-Next-Cursor header is set when more tasks follow.
+     * Answers 304 without reading the page when If-None-Match carries the current ETag.
      */
     @GetMapping(produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
-    @Operation(summary = "Get all tasks", description = "Returns a list of tasks with optional pagination")
+    @Operation(
+            summary = "Get all tasks",
+            description = "Returns a page of tasks, optionally filtered and sorted, use the X-Next-Cursor header to fetch the next page")
     @ApiResponses(
             value = {
                     @ApiResponse(responseCode = "200", description = OpenApiConfig.DESCRIPTION_OK, content = @Content()),
                     @ApiResponse(
-                            responseCode = "404",
-                            description = OpenApiConfig.DESCRIPTION_NOT_FOUND,
+                            responseCode = "304",
+                            description = OpenApiConfig.DESCRIPTION_NOT_MODIFIED,
+                            content = @Content),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = OpenApiConfig.DESCRIPTION_BAD_REQUEST,
+                            content = @Content),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = OpenApiConfig.DESCRIPTION_INTERNAL_SERVER_ERROR,
+                            content = @Content)
+            })
+    public Mono<ResponseEntity<Flux<Task>>> getTasks(@RequestParam(required = false) Boolean completed,
+                                                     @RequestParam(required = false) Instant createdAfter,
+                                                     @RequestParam(required = false) Instant createdBefore,
+                                                     @RequestParam(required = false) Instant updatedSince,
+                                                     @RequestParam(required = false) String sort,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(required = false) String after,
+                                                     ServerWebExchange exchange) {
+        TaskFilter filter = new TaskFilter(completed, createdAfter, createdBefore, updatedSince);
+        // The version is read before the page, so a concurrent write can only make the ETag
+        // older than the body, which costs the client a refetch but never hides a change
+        return taskService.getTasksVersion().flatMap(version -> {
+            String eTag = TaskETags.ofPage(version, filter, sort, limit, after);
+            if (exchange.checkNotModified(eTag)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<Flux<Task>>build());
+            }
+            return taskService.getTasks(filter, sort, limit, after).map(page -> toPageResponse(page, eTag));
+        });
+    }
+
+    /**
+     * GET /tasks?ids=
+     *
+     * @param ids - Comma separated ids of the tasks to be retrieved.
+     * @return Mono<TaskLookupResult> - Found tasks in request order and the ids that matched no task.
+     */
+    @GetMapping(params = "ids", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get many tasks by id", description = "Returns the requested tasks in request order with one query")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = OpenApiConfig.DESCRIPTION_OK, content = @Content()),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = OpenApiConfig.DESCRIPTION_BAD_REQUEST,
+                            content = @Content),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = OpenApiConfig.DESCRIPTION_INTERNAL_SERVER_ERROR,
+                            content = @Content)
+            })
+    public Mono<TaskLookupResult> getTasksByIds(@RequestParam List<String> ids) {
+        return taskService.getTasks(ids);
+    }
+
+    /**
+     * POST /tasks/lookup
+     *
+     * @param lookup - Ids of the tasks to be retrieved, for lists too long for a query string.
+     * @return Mono<TaskLookupResult> - Found tasks in request order and the ids that matched no task.
+     */
+    @PostMapping(
+            value = "/lookup",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get many tasks by id", description = "Returns the requested tasks in request order with one query")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = OpenApiConfig.DESCRIPTION_OK, content = @Content()),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = OpenApiConfig.DESCRIPTION_BAD_REQUEST,
+                            content = @Content),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = OpenApiConfig.DESCRIPTION_INTERNAL_SERVER_ERROR,
+                            content = @Content)
+            })
+    public Mono<TaskLookupResult> lookupTasks(@Valid @RequestBody TaskLookup lookup) {
+        return taskService.getTasks(lookup.ids());
+    }
+
+    /**
+     * GET /tasks/search
+     *
+     * @param q     - Text to look for in the task descriptions.
+     * @param mode  - text (default) for ranked full-text search, substring or fuzzy.
+     * @param limit - Maximum number of tasks to return. Defaults to the configured page size.
+     * @return Flux<Task> - Newline delimited stream of the matching tasks, best match first.
+     */
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Search tasks",
+            description = "Streams the tasks whose description matches the query, with ranked full-text, substring or fuzzy matching")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = OpenApiConfig.DESCRIPTION_OK, content = @Content()),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = OpenApiConfig.DESCRIPTION_BAD_REQUEST,
                             content = @Content),
                     @ApiResponse(
                             responseCode = "500",
                             description = OpenApiConfig.DESCRIPTION_INTERNAL_SERVER_ERROR,
                             content = @Content)
             })
-    public Flux<Task> getTasks() {
-        return taskService.getTasks();
+    public Flux<Task> searchTasks(@RequestParam(required = false) String q,
+                                  @RequestParam(required = false) String mode,
+                                  @RequestParam(required = false) Integer limit) {
+        return taskService.searchTasks(q, mode, limit);
     }
 
     /**
@@ -72,17 +203,51 @@ public class TaskController {
         return ResponseEntity.ok(taskService.createTask(task));
     }
 
+    /**
+     * POST /tasks/batch
+     *
+     * @param tasks - Newline delimited stream of tasks to be created.
+     * @return Flux<TaskBatchResult> - One result per submitted task, in submission order.
+     */
+    @PostMapping(
+            value = "/batch",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Create tasks in bulk",
+            description = "Creates a stream of tasks with batched inserts and streams back a result per task")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = OpenApiConfig.DESCRIPTION_OK, content = @Content()),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = OpenApiConfig.DESCRIPTION_BAD_REQUEST,
+                            content = @Content),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = OpenApiConfig.DESCRIPTION_INTERNAL_SERVER_ERROR,
+                            content = @Content)
+            })
+    public Flux<TaskBatchResult> createTasks(@RequestBody Flux<Task> tasks) {
+        return taskService.createTasks(tasks);
+    }
+
     /**
      * GET /tasks/{taskId}
      *
      * @param taskId - Task Id to be retrieved. Must be a valid UUID.
-     * @return Mono<Task> - Task with the given id. If no task is found, Mono<Task> will be empty.
+     * @return Mono<Task> - Task with the given id. If no task is found, a 404 problem detail is returned.
+     * Answers 304 without a body when If-None-Match carries the task's current ETag.
      */
     @GetMapping(value = "/{taskId}", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Get a task by id", description = "Returns a task by id")
     @ApiResponses(
             value = {
                     @ApiResponse(responseCode = "200", description = OpenApiConfig.DESCRIPTION_OK, content = @Content()),
+                    @ApiResponse(
+                            responseCode = "304",
+                            description = OpenApiConfig.DESCRIPTION_NOT_MODIFIED,
+                            content = @Content),
                     @ApiResponse(
                             responseCode = "404",
                             description = OpenApiConfig.DESCRIPTION_NOT_FOUND,
@@ -92,10 +257,9 @@ public class TaskController {
                             description = OpenApiConfig.DESCRIPTION_INTERNAL_SERVER_ERROR,
                             content = @Content)
             })
-    public Mono<Task> getTaskById(@PathVariable String taskId) {
-        return taskService.getTasks()
-                .filter(task -> task.getId().equals(taskId))
-                .next();
+    public Mono<ResponseEntity<Task>> getTaskById(@PathVariable String taskId) {
+        // The ETag lets the result handler answer If-None-Match with 304 before writing the body
+        return taskService.getTask(taskId).map(task -> ResponseEntity.ok().eTag(TaskETags.of(task)).body(task));
     }
 
     /**
@@ -103,7 +267,8 @@ public class TaskController {
      *
      * @param taskId - Task Id to be updated. Must be a valid UUID.
      * @param task   - Task to be updated. Must not be null. All fields are optional.
-     * @return Mono<Task> - Updated task.
+     * @param ifMatch - Optional ETag the task must still have, otherwise 412 is returned. {@code *} requires the task to exist.
+     * @return Mono<Task> - Updated task, with its new ETag.
      */
     @PutMapping(value = "/{taskId}", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
     @Operation(summary = "Update task by Id", description = "Update existing task and returns it")
@@ -118,37 +283,178 @@ public class TaskController {
                             responseCode = "404",
                             description = OpenApiConfig.DESCRIPTION_NOT_FOUND,
                             content = @Content),
+                    @ApiResponse(
+                            responseCode = "412",
+                            description = OpenApiConfig.DESCRIPTION_PRECONDITION_FAILED,
+                            content = @Content),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = OpenApiConfig.DESCRIPTION_INTERNAL_SERVER_ERROR,
+                            content = @Content)
+            })
+    public Mono<ResponseEntity<Task>> updateTaskById(@PathVariable String taskId,
+                                                     @Valid @RequestBody Task task,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return Mono.defer(() -> taskService.updateTask(taskId, task, TaskETags.parseIfMatch(ifMatch)))
+                .transform(TaskETags.requireExisting(ifMatch, taskId))
+                .map(updated -> ResponseEntity.ok().eTag(TaskETags.of(updated)).body(updated));
+    }
+
+    /**
+     * PATCH /tasks
+     *
+     * @param update - Target completed state and the ids or filter selecting the tasks to change.
+     * @return Mono<TaskBulkResult> - Number of tasks whose state was changed.
+     */
+    @PatchMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Update the completed state of many tasks",
+            description = "Marks the tasks selected by ids or filter as completed or open in one statement")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = OpenApiConfig.DESCRIPTION_OK, content = @Content()),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = OpenApiConfig.DESCRIPTION_BAD_REQUEST,
+                            content = @Content),
                     @ApiResponse(
                             responseCode = "500",
                             description = OpenApiConfig.DESCRIPTION_INTERNAL_SERVER_ERROR,
                             content = @Content)
             })
-    public ResponseEntity<Mono<Task>> updateTaskById(@PathVariable String taskId, @Valid @RequestBody Task task) {
-        return ResponseEntity.ok(taskService.updateTask(taskId, task));
+    public Mono<TaskBulkResult> updateTasks(@Valid @RequestBody TaskBulkUpdate update) {
+        return taskService.updateTasks(update);
     }
 
     /**
      * DELETE /tasks/{taskId}
      *
      * @param taskId - Task Id to be deleted. Must be a valid UUID.
-     * @return Mono<Void> - Empty Mono<Void> indicating that the task was deleted.
+     * @param ifMatch - Optional ETag the task must still have, otherwise 412 is returned. {@code *} requires the task to exist.
+     * @return Mono<Void> - Empty Mono<Void> answered with 204 once the task was deleted.
      */
     @DeleteMapping(value = "/{taskId}", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
-    @Operation(summary = "Delete task by Id", description = "Delete existing task and return confirmation message")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Delete task by Id", description = "Delete existing task, answers 404 when it does not exist")
     @ApiResponses(
             value = {
-                    @ApiResponse(responseCode = "200", description = OpenApiConfig.DESCRIPTION_OK, content = @Content()),
+                    @ApiResponse(
+                            responseCode = "204",
+                            description = OpenApiConfig.DESCRIPTION_NO_CONTENT,
+                            content = @Content()),
                     @ApiResponse(
                             responseCode = "404",
                             description = OpenApiConfig.DESCRIPTION_NOT_FOUND,
                             content = @Content),
+                    @ApiResponse(
+                            responseCode = "412",
+                            description = OpenApiConfig.DESCRIPTION_PRECONDITION_FAILED,
+                            content = @Content),
                     @ApiResponse(
                             responseCode = "500",
                             description = OpenApiConfig.DESCRIPTION_INTERNAL_SERVER_ERROR,
                             content = @Content)
             })
-    public ResponseEntity<Mono<Void>> deleteTaskById(@PathVariable String taskId) {
-        return ResponseEntity.ok(taskService.deleteTask(taskId));
+    public Mono<Void> deleteTaskById(@PathVariable String taskId,
+                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return Mono.defer(() -> taskService.deleteTask(taskId, TaskETags.parseIfMatch(ifMatch)))
+                .transform(TaskETags.requireExisting(ifMatch, taskId));
     }
 
+    /**
+     * DELETE /tasks
+     *
+     * @param ids           - Ids of the tasks to be deleted. Cannot be combined with a filter.
+     * @param completed     - Only delete tasks in this completed state.
+     * @param updatedBefore - Only delete tasks last updated before this instant.
+     * @return Mono<TaskBulkResult> - Number of deleted tasks.
+     */
+    @DeleteMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Delete many tasks",
+            description = "Deletes the tasks selected by ids or by filter in bounded chunks")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = OpenApiConfig.DESCRIPTION_OK, content = @Content()),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = OpenApiConfig.DESCRIPTION_BAD_REQUEST,
+                            content = @Content),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = OpenApiConfig.DESCRIPTION_INTERNAL_SERVER_ERROR,
+                            content = @Content)
+            })
+    public Mono<TaskBulkResult> deleteTasks(@RequestParam(required = false) List<String> ids,
+                                            @RequestParam(required = false) Boolean completed,
+                                            @RequestParam(required = false) Instant updatedBefore) {
+        return taskService.deleteTasks(ids, completed, updatedBefore);
+    }
+
+    /**
+     * GET /tasks/sync
+     *
+     * @param since - Token returned as next by the previous sync. Omit it to fetch every task, or when the token expired.
+     * @param limit - Maximum number of changes to return. Defaults to the configured page size.
+     * @return Mono<TaskSync> - Tasks changed and ids deleted since the token, and the token for the next sync.
+     */
+    @GetMapping(value = "/sync", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Sync task changes",
+            description = "Returns the tasks created, updated or deleted since a sync token, oldest first")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = OpenApiConfig.DESCRIPTION_OK, content = @Content()),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = OpenApiConfig.DESCRIPTION_BAD_REQUEST,
+                            content = @Content),
+                    @ApiResponse(
+                            responseCode = "410",
+                            description = OpenApiConfig.DESCRIPTION_SYNC_EXPIRED,
+                            content = @Content),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = OpenApiConfig.DESCRIPTION_INTERNAL_SERVER_ERROR,
+                            content = @Content)
+            })
+    public Mono<TaskSync> syncTasks(@RequestParam(required = false) String since,
+                                    @RequestParam(required = false) Integer limit) {
+        return taskService.syncTasks(since, limit);
+    }
+
+    /**
+     * GET /tasks/changes
+     *
+     * @return Flux<ServerSentEvent<TaskChangeEvent>> - Task changes made through any instance, as they happen.
+     * The stream starts with a RESET event, which is also sent whenever changes may have been missed.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream task changes",
+            description = "Server-Sent Events feed of task creations, updates and deletions, to be used instead of polling")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = OpenApiConfig.DESCRIPTION_OK, content = @Content()),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = OpenApiConfig.DESCRIPTION_INTERNAL_SERVER_ERROR,
+                            content = @Content)
+            })
+    public Flux<ServerSentEvent<TaskChangeEvent>> getTaskChanges() {
+        Flux<ServerSentEvent<TaskChangeEvent>> events = taskService.getTaskChanges()
+                .map(change -> ServerSentEvent.builder(change).event(change.type().name()).build());
+        // Comments keep idle connections from being closed by proxies
+        Flux<ServerSentEvent<TaskChangeEvent>> heartbeats = Flux.interval(CHANGES_HEARTBEAT_INTERVAL)
+                .map(tick -> ServerSentEvent.<TaskChangeEvent>builder().comment("heartbeat").build());
+        return events.publish(shared -> Flux.merge(shared, heartbeats.takeUntilOther(shared.ignoreElements())));
+    }
+
+    private static ResponseEntity<Flux<Task>> toPageResponse(TaskPage page, String eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag);
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(Flux.fromIterable(page.tasks()));
+    }
 }
@@ -0,0 +1,69 @@
+package io.github.nzuwera.todoapp.controller;
+
+import io.github.nzuwera.todoapp.exceptions.TaskNotFoundException;
+import io.github.nzuwera.todoapp.exceptions.TaskPreconditionFailedException;
+import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.model.TaskFilter;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Function;
+
+/**
+ * Strong entity tags of the task resources.
+ * <p>
+ * A task's tag is its {@code updated_at} in microseconds, the precision stored by Postgres,
+ * so an {@code If-Match} tag can be turned back into the timestamp the conditional write
+ * compares against. A list page's tag digests the table version and the page, filter and
+ * sort parameters.
+ */
+final class TaskETags {
+
+    private TaskETags() {
+    }
+
+    static String of(Task task) {
+        return "\"" + Long.toHexString(ChronoUnit.MICROS.between(Instant.EPOCH, task.updatedAt())) + "\"";
+    }
+
+    static String ofPage(String tasksVersion, TaskFilter filter, String sort, Integer limit, String after) {
+        String key = tasksVersion + "|" + filter + "|" + sort + "|" + limit + "|" + after;
+        return "\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Returns the last update time a task must still have for a request carrying this
+     * {@code If-Match} header, or {@code null} when any version matches: no header or
+     * {@code *}, see {@link #requireExisting}. A tag this API cannot have issued never matches.
+     */
+    static Instant parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.strip();
+        try {
+            if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+                throw new NumberFormatException(tag);
+            }
+            long micros = Long.parseLong(tag.substring(1, tag.length() - 1), 16);
+            return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+        } catch (NumberFormatException ex) {
+            throw new TaskPreconditionFailedException("If-Match %s does not match the task".formatted(ifMatch));
+        }
+    }
+
+    /**
+     * {@code If-Match: *} matches any current version of the task, so a write carrying it fails
+     * the precondition with 412 when the task does not exist, rather than answering 404.
+     */
+    static <T> Function<Mono<T>, Mono<T>> requireExisting(String ifMatch, String taskId) {
+        if (ifMatch == null || !ifMatch.strip().equals("*")) {
+            return Function.identity();
+        }
+        return write -> write.onErrorMap(TaskNotFoundException.class, ex -> new TaskPreconditionFailedException(
+                "If-Match * does not match, task %s does not exist".formatted(taskId)));
+    }
+}
@@ -1,8 +1,12 @@
 package io.github.nzuwera.todoapp.controller.advice;
 
 import io.github.nzuwera.todoapp.exceptions.TaskAlreadyExistException;
+import io.github.nzuwera.todoapp.exceptions.TaskBadRequestException;
 import io.github.nzuwera.todoapp.exceptions.TaskBusinessException;
 import io.github.nzuwera.todoapp.exceptions.TaskNotFoundException;
+import io.github.nzuwera.todoapp.exceptions.TaskPreconditionFailedException;
+import io.github.nzuwera.todoapp.exceptions.TaskSyncExpiredException;
+import io.github.nzuwera.todoapp.observability.ErrorMappingEvent;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.HttpStatus;
@@ -31,7 +35,7 @@ public class ErrorControllerAdvice {
                 HttpStatus.NOT_FOUND,
                 ex.getMessage()
         );
-        enrichProblemDetail(problemDetail, "Task Not Found");
+        enrichProblemDetail(problemDetail, "Task Not Found", ex);
         return Mono.just(problemDetail);
     }
 
@@ -42,7 +46,40 @@ public class ErrorControllerAdvice {
                 HttpStatus.CONFLICT,
                 ex.getMessage()
         );
-        enrichProblemDetail(problemDetail, "Task Already Exists");
+        enrichProblemDetail(problemDetail, "Task Already Exists", ex);
+        return Mono.just(problemDetail);
+    }
+
+    @ExceptionHandler(TaskPreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public Mono<ProblemDetail> handleTaskPreconditionFailedException(TaskPreconditionFailedException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+                HttpStatus.PRECONDITION_FAILED,
+                ex.getMessage()
+        );
+        enrichProblemDetail(problemDetail, "Precondition Failed", ex);
+        return Mono.just(problemDetail);
+    }
+
+    @ExceptionHandler(TaskSyncExpiredException.class)
+    @ResponseStatus(HttpStatus.GONE)
+    public Mono<ProblemDetail> handleTaskSyncExpiredException(TaskSyncExpiredException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+                HttpStatus.GONE,
+                ex.getMessage()
+        );
+        enrichProblemDetail(problemDetail, "Sync Token Expired", ex);
+        return Mono.just(problemDetail);
+    }
+
+    @ExceptionHandler(TaskBadRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Mono<ProblemDetail> handleTaskBadRequestException(TaskBadRequestException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+                HttpStatus.BAD_REQUEST,
+                ex.getMessage()
+        );
+        enrichProblemDetail(problemDetail, "Invalid Request", ex);
         return Mono.just(problemDetail);
     }
 
@@ -78,7 +115,7 @@ public class ErrorControllerAdvice {
                 "Validation failed"
         );
         problemDetail.setProperty("validationErrors", validationErrors);
-        enrichProblemDetail(problemDetail, "Validation Error");
+        enrichProblemDetail(problemDetail, "Validation Error", ex);
 
         return Mono.just(problemDetail);
     }
@@ -99,7 +136,7 @@ public class ErrorControllerAdvice {
                 "Constraint validation failed"
         );
         problemDetail.setProperty("violations", violations);
-        enrichProblemDetail(problemDetail, "Constraint Violation");
+        enrichProblemDetail(problemDetail, "Constraint Violation", ex);
 
         return Mono.just(problemDetail);
     }
@@ -112,7 +149,7 @@ public class ErrorControllerAdvice {
                 "Invalid request content"
         );
         problemDetail.setProperty("reason", ex.getReason());
-        enrichProblemDetail(problemDetail, "Invalid Input");
+        enrichProblemDetail(problemDetail, "Invalid Input", ex);
 
         return Mono.just(problemDetail);
     }
@@ -124,7 +161,7 @@ public class ErrorControllerAdvice {
                 HttpStatus.INTERNAL_SERVER_ERROR,
                 "An error occurred - %s".formatted(ex.getMessage())
         );
-        enrichProblemDetail(problemDetail, "Internal Server Error");
+        enrichProblemDetail(problemDetail, "Internal Server Error", ex);
         return Mono.just(problemDetail);
     }
 
@@ -135,11 +172,12 @@ public class ErrorControllerAdvice {
                 HttpStatus.INTERNAL_SERVER_ERROR,
                 "Task processing failed with error - %s".formatted(ex.getMessage())
         );
-        enrichProblemDetail(problemDetail, "Task Processing Error");
+        enrichProblemDetail(problemDetail, "Task Processing Error", ex);
         return Mono.just(problemDetail);
     }
 
-    private void enrichProblemDetail(ProblemDetail problemDetail, String title) {
+    private void enrichProblemDetail(ProblemDetail problemDetail, String title, Exception ex) {
+        ErrorMappingEvent.emit(ex, problemDetail.getStatus(), title);
         problemDetail.setTitle(title);
         problemDetail.setType(URI.create("https://api.todoapp.com/errors/" + title.toLowerCase().replace(" ", "-")));
         problemDetail.setProperty("timestamp", Instant.now());
@@ -0,0 +1,22 @@
+package io.github.nzuwera.todoapp.entity;
+
+import java.util.UUID;
+
+/**
+ * One row of the delta sync feed.
+ *
+ * @param changeXid id of the transaction that made the change, 0 for stores without transactions
+ * @param changeSeq position of the change in the change sequence
+ * @param id        id of the changed task
+ * @param task      current state of the task, {@code null} when it was deleted
+ */
+public record TaskChangeEntry(long changeXid, long changeSeq, UUID id, TaskEntity task) {
+
+    public boolean deleted() {
+        return task == null;
+    }
+
+    public TaskChangePosition position() {
+        return new TaskChangePosition(changeXid, changeSeq, id);
+    }
+}
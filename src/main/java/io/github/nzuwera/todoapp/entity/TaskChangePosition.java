@@ -0,0 +1,36 @@
+package io.github.nzuwera.todoapp.entity;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Position of a change in the delta sync feed, ordered by transaction id, then change sequence
+ * number, then task id.
+ *
+ * @param xid id of the writing transaction, 0 for stores without transactions
+ * @param seq change sequence number
+ * @param id  id of the changed task
+ */
+public record TaskChangePosition(long xid, long seq, UUID id) implements Comparable<TaskChangePosition> {
+    /**
+     * Position before every change.
+     */
+    public static final TaskChangePosition START = new TaskChangePosition(0, 0, new UUID(0, 0));
+
+    private static final Comparator<TaskChangePosition> ORDER = Comparator.comparingLong(TaskChangePosition::xid)
+            .thenComparingLong(TaskChangePosition::seq)
+            .thenComparing(TaskChangePosition::id, TaskChangePosition::compareIds);
+
+    @Override
+    public int compareTo(TaskChangePosition other) {
+        return ORDER.compare(this, other);
+    }
+
+    /**
+     * Compares ids byte by byte like Postgres, unlike {@link UUID#compareTo}.
+     */
+    private static int compareIds(UUID first, UUID second) {
+        int result = Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits());
+        return result == 0 ? Long.compareUnsigned(first.getLeastSignificantBits(), second.getLeastSignificantBits()) : result;
+    }
+}
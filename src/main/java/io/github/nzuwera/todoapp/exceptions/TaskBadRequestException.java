@@ -0,0 +1,7 @@
+package io.github.nzuwera.todoapp.exceptions;
+
+public class TaskBadRequestException extends RuntimeException {
+    public TaskBadRequestException(String message) {
+        super(message);
+    }
+}
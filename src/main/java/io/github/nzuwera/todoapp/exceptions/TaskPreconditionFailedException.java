@@ -0,0 +1,7 @@
+package io.github.nzuwera.todoapp.exceptions;
+
+public class TaskPreconditionFailedException extends RuntimeException {
+    public TaskPreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.nzuwera.todoapp.exceptions;
+
+public class TaskSyncExpiredException extends RuntimeException {
+    public TaskSyncExpiredException(String message) {
+        super(message);
+    }
+}
@@ -1,38 +1,29 @@
 package io.github.nzuwera.todoapp.model;
 
 import jakarta.validation.constraints.NotEmpty;
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
+import jakarta.validation.constraints.Size;
+import lombok.With;
 
 import java.time.Instant;
-import java.util.Objects;
+import java.util.UUID;
 
-@Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
-public class Task {
-    private String id;
-    @NotEmpty(message = "Task description cannot be empty")
-    private String description;
-    private boolean completed = false;
-    private String createdAt = Instant.now().toString();
-    private String updatedAt = Instant.now().toString();
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Task task = (Task) o;
-        return completed == task.completed &&
-                Objects.equals(id, task.id) &&
-                Objects.equals(description, task.description);
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(id, description, completed);
-    }
+/**
+ * Task as exposed by the API. Timestamps stay {@link Instant}s until Jackson writes them
+ * as ISO-8601 strings, so mapping a row never formats or parses them.
+ *
+ * @param id          id of the task, ignored when creating or updating a task
+ * @param description unique description of the task
+ * @param completed   whether the task is done
+ * @param createdAt   creation time, set by the server
+ * @param updatedAt   last modification time, set by the server
+ */
+@With
+public record Task(
+        UUID id,
+        @NotEmpty(message = "Task description cannot be empty")
+        @Size(max = 255, message = "Task description cannot be longer than 255 characters")
+        String description,
+        boolean completed,
+        Instant createdAt,
+        Instant updatedAt) {
 }
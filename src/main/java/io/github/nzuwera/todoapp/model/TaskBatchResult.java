@@ -0,0 +1,33 @@
+package io.github.nzuwera.todoapp.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one task submitted to the batch create endpoint.
+ *
+ * @param index  zero-based position of the task in the submitted stream
+ * @param status what happened to the task
+ * @param task   the created task, only set when the status is {@link Status#CREATED}
+ * @param error  why the task was not created, only set for the other statuses
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TaskBatchResult(long index, Status status, Task task, String error) {
+
+    public enum Status {
+        CREATED,
+        CONFLICT,
+        INVALID
+    }
+
+    public static TaskBatchResult created(long index, Task task) {
+        return new TaskBatchResult(index, Status.CREATED, task, null);
+    }
+
+    public static TaskBatchResult conflict(long index, String error) {
+        return new TaskBatchResult(index, Status.CONFLICT, null, error);
+    }
+
+    public static TaskBatchResult invalid(long index, String error) {
+        return new TaskBatchResult(index, Status.INVALID, null, error);
+    }
+}
@@ -0,0 +1,9 @@
+package io.github.nzuwera.todoapp.model;
+
+/**
+ * Outcome of a bulk operation.
+ *
+ * @param affected number of tasks the operation changed
+ */
+public record TaskBulkResult(long affected) {
+}
@@ -0,0 +1,24 @@
+package io.github.nzuwera.todoapp.model;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Bulk change of the completed state. Exactly one of {@code ids} or {@code filter} selects the tasks.
+ *
+ * @param ids       ids of the tasks to change
+ * @param filter    selects the tasks to change by their current state
+ * @param completed completed state the selected tasks end up in
+ */
+public record TaskBulkUpdate(
+        List<String> ids,
+        Filter filter,
+        @NotNull(message = "Target completed state is required") Boolean completed) {
+
+    /**
+     * @param completed only select tasks currently in this state, all tasks when {@code null}
+     */
+    public record Filter(Boolean completed) {
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.nzuwera.todoapp.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A change made to a task by any application instance.
+ *
+ * @param type   kind of change
+ * @param taskId id of the changed task, {@code null} for {@link Type#RESET}
+ * @param task   state of the task after the change, {@code null} for deletions and resets
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TaskChangeEvent(Type type, String taskId, Task task) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        /**
+         * Changes may have been missed, e.g. while the change listener was reconnecting, or
+         * were not listed because one statement changed too many tasks. Consumers holding
+         * tasks should fetch them again.
+         */
+        RESET
+    }
+
+    public static TaskChangeEvent reset() {
+        return new TaskChangeEvent(Type.RESET, null, null);
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.nzuwera.todoapp.model;
+
+import java.time.Instant;
+
+/**
+ * Restricts a task listing. Every criterion is optional, the ones given must all match.
+ *
+ * @param completed     only tasks in this completed state
+ * @param createdAfter  only tasks created strictly after this instant
+ * @param createdBefore only tasks created strictly before this instant
+ * @param updatedSince  only tasks last updated at or after this instant
+ */
+public record TaskFilter(Boolean completed, Instant createdAfter, Instant createdBefore, Instant updatedSince) {
+    public static final TaskFilter NONE = new TaskFilter(null, null, null, null);
+
+    public boolean isEmpty() {
+        return completed == null && createdAfter == null && createdBefore == null && updatedSince == null;
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.nzuwera.todoapp.model;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Body of the multi-get endpoint, for id lists too long for a query string.
+ *
+ * @param ids ids of the tasks to fetch
+ */
+public record TaskLookup(@NotNull(message = "Task ids are required") List<String> ids) {
+}
@@ -0,0 +1,12 @@
+package io.github.nzuwera.todoapp.model;
+
+import java.util.List;
+
+/**
+ * Result of fetching many tasks by id.
+ *
+ * @param tasks   found tasks, in the order their ids were requested
+ * @param missing requested ids that do not match any task, in request order
+ */
+public record TaskLookupResult(List<Task> tasks, List<String> missing) {
+}
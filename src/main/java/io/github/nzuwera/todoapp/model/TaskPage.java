@@ -0,0 +1,12 @@
+package io.github.nzuwera.todoapp.model;
+
+import java.util.List;
+
+/**
+ * One page of tasks in creation order.
+ *
+ * @param tasks      tasks of this page
+ * @param nextCursor opaque cursor pointing after the last task of this page, or {@code null} on the last page
+ */
+public record TaskPage(List<Task> tasks, String nextCursor) {
+}
@@ -0,0 +1,42 @@
+package io.github.nzuwera.todoapp.model;
+
+/**
+ * Ways of matching a search query against task descriptions, named by their {@code mode}
+ * parameter.
+ */
+public enum TaskSearchMode {
+    /**
+     * Every word of the query, stemmed, appears in the description; best ranked first.
+     */
+    TEXT("text"),
+    /**
+     * The query appears anywhere in the description, ignoring case; oldest first.
+     */
+    SUBSTRING("substring"),
+    /**
+     * The description contains words similar to the query, tolerating typos; most similar first.
+     */
+    FUZZY("fuzzy");
+
+    private final String parameter;
+
+    TaskSearchMode(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String parameter() {
+        return parameter;
+    }
+
+    /**
+     * Returns the mode named by a {@code mode} parameter, or {@code null} when there is none.
+     */
+    public static TaskSearchMode fromParameter(String parameter) {
+        for (TaskSearchMode mode : values()) {
+            if (mode.parameter.equals(parameter)) {
+                return mode;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.nzuwera.todoapp.model;
+
+/**
+ * Orders of a task listing, named by their {@code sort} parameter: the property, prefixed with
+ * {@code -} for a descending order. Ties are broken by id in the same direction, so every order
+ * is total and can be paged with a cursor.
+ */
+public enum TaskSort {
+    CREATED_AT("createdAt", false),
+    CREATED_AT_DESC("-createdAt", true),
+    UPDATED_AT("updatedAt", false),
+    UPDATED_AT_DESC("-updatedAt", true);
+
+    private final String parameter;
+    private final boolean descending;
+
+    TaskSort(String parameter, boolean descending) {
+        this.parameter = parameter;
+        this.descending = descending;
+    }
+
+    public String parameter() {
+        return parameter;
+    }
+
+    public boolean descending() {
+        return descending;
+    }
+
+    public boolean byUpdatedAt() {
+        return this == UPDATED_AT || this == UPDATED_AT_DESC;
+    }
+
+    /**
+     * Returns the order named by a {@code sort} parameter, or {@code null} when there is none.
+     */
+    public static TaskSort fromParameter(String parameter) {
+        for (TaskSort sort : values()) {
+            if (sort.parameter.equals(parameter)) {
+                return sort;
+            }
+        }
+        return null;
+    }
+}
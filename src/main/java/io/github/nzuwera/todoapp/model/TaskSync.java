@@ -0,0 +1,14 @@
+package io.github.nzuwera.todoapp.model;
+
+import java.util.List;
+
+/**
+ * Changes since a sync token, oldest first.
+ *
+ * @param tasks      tasks created or updated since the token, in their current state
+ * @param deletedIds ids of the tasks deleted since the token
+ * @param next       opaque token to pass as {@code since} on the next sync
+ * @param hasMore    whether more changes follow, in which case the client syncs again right away
+ */
+public record TaskSync(List<Task> tasks, List<String> deletedIds, String next, boolean hasMore) {
+}
@@ -0,0 +1,43 @@
+package io.github.nzuwera.todoapp.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of an exception mapped to an error response.
+ */
+@Name(ErrorMappingEvent.NAME)
+@Label("Error Mapping")
+@Category({"Todo App", "Web"})
+@Description("Exception turned into a problem detail response")
+@StackTrace(false)
+public class ErrorMappingEvent extends Event {
+    public static final String NAME = "io.github.nzuwera.todoapp.ErrorMapping";
+
+    @Label("Exception")
+    public String exception;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Title")
+    public String title;
+
+    @Label("Message")
+    public String message;
+
+    public static void emit(Throwable ex, int status, String title) {
+        ErrorMappingEvent event = new ErrorMappingEvent();
+        if (event.shouldCommit()) {
+            event.exception = ex.getClass().getName();
+            event.status = status;
+            event.title = title;
+            event.message = ex.getMessage();
+            event.commit();
+        }
+    }
+}
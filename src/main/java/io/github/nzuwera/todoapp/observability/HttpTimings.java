@@ -0,0 +1,146 @@
+package io.github.nzuwera.todoapp.observability;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latency histograms of every route, for the whole request and for each {@link RequestTimings.Phase},
+ * and a ring buffer of the latest requests slower than a threshold with their phase timings.
+ */
+public class HttpTimings {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final long slowRequestNanos;
+    private final Map<String, RouteTimings> routes = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<SlowRequest> slowRequests;
+    private final AtomicLong slowRequestCount = new AtomicLong();
+
+    public HttpTimings(long slowRequestNanos, int slowRequestBufferSize) {
+        this.slowRequestNanos = slowRequestNanos;
+        this.slowRequests = new AtomicReferenceArray<>(slowRequestBufferSize);
+    }
+
+    /**
+     * Records a finished request. {@code phaseNanos} holds the time of every phase by ordinal.
+     */
+    public void record(String method, String route, int status, long totalNanos, long[] phaseNanos) {
+        String key = method + " " + route;
+        RouteTimings timings = routes.get(key);
+        if (timings == null) {
+            timings = routes.computeIfAbsent(key, RouteTimings::new);
+        }
+        timings.record(totalNanos, phaseNanos);
+        if (totalNanos >= slowRequestNanos && slowRequests.length() > 0) {
+            int slot = (int) (slowRequestCount.getAndIncrement() % slowRequests.length());
+            Map<String, Double> phases = new LinkedHashMap<>();
+            for (RequestTimings.Phase phase : RequestTimings.Phase.values()) {
+                phases.put(name(phase), millis(TimeUnit.NANOSECONDS.toMicros(phaseNanos[phase.ordinal()])));
+            }
+            slowRequests.set(slot, new SlowRequest(Instant.now(), key, status,
+                    millis(TimeUnit.NANOSECONDS.toMicros(totalNanos)), phases));
+        }
+    }
+
+    public Report report() {
+        List<RouteReport> routeReports = routes.values().stream()
+                .map(RouteTimings::report)
+                .sorted(Comparator.comparing(RouteReport::route))
+                .toList();
+        List<SlowRequest> slowest = new ArrayList<>(slowRequests.length());
+        for (int i = 0; i < slowRequests.length(); i++) {
+            SlowRequest request = slowRequests.get(i);
+            if (request != null) {
+                slowest.add(request);
+            }
+        }
+        slowest.sort(Comparator.comparingDouble(SlowRequest::totalMillis).reversed());
+        return new Report(routeReports, slowest);
+    }
+
+    public void reset() {
+        routes.clear();
+        for (int i = 0; i < slowRequests.length(); i++) {
+            slowRequests.set(i, null);
+        }
+    }
+
+    private static String name(RequestTimings.Phase phase) {
+        return phase.name().toLowerCase();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1e3;
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS);
+    }
+
+    public record Report(List<RouteReport> routes, List<SlowRequest> slowestRecentRequests) {
+    }
+
+    public record RouteReport(String route, long count, Percentiles total, Map<String, Percentiles> phases) {
+    }
+
+    /**
+     * Latency percentiles in milliseconds.
+     */
+    public record Percentiles(double mean, double p50, double p95, double p99, double max) {
+        static Percentiles of(Histogram histogram) {
+            return new Percentiles(histogram.getMean() / 1e3,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(95)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getMaxValue()));
+        }
+    }
+
+    /**
+     * A request slower than the threshold, times in milliseconds.
+     */
+    public record SlowRequest(Instant finishedAt, String route, int status, double totalMillis, Map<String, Double> phases) {
+    }
+
+    private static final class RouteTimings {
+        private final String route;
+        private final Histogram total = histogram();
+        private final Histogram[] phases = new Histogram[RequestTimings.Phase.values().length];
+
+        RouteTimings(String route) {
+            this.route = route;
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = histogram();
+            }
+        }
+
+        private static Histogram histogram() {
+            return new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 2);
+        }
+
+        void record(long totalNanos, long[] phaseNanos) {
+            total.recordValue(micros(totalNanos));
+            for (int i = 0; i < phases.length; i++) {
+                phases[i].recordValue(micros(phaseNanos[i]));
+            }
+        }
+
+        RouteReport report() {
+            Map<String, Percentiles> byPhase = new LinkedHashMap<>();
+            for (RequestTimings.Phase phase : RequestTimings.Phase.values()) {
+                byPhase.put(name(phase), Percentiles.of(phases[phase.ordinal()]));
+            }
+            return new RouteReport(route, total.getTotalCount(), Percentiles.of(total), byPhase);
+        }
+    }
+}
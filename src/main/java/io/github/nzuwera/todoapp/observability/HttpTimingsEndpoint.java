@@ -0,0 +1,26 @@
+package io.github.nzuwera.todoapp.observability;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * {@code /actuator/httptimings}: latency percentiles of every API route, in total and by phase,
+ * and the slowest of the latest slow requests. A {@code DELETE} resets them.
+ */
+@Endpoint(id = "httptimings")
+@RequiredArgsConstructor
+public class HttpTimingsEndpoint {
+    private final HttpTimings httpTimings;
+
+    @ReadOperation
+    public HttpTimings.Report timings() {
+        return httpTimings.report();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        httpTimings.reset();
+    }
+}
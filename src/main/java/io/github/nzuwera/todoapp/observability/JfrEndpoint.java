@@ -0,0 +1,177 @@
+package io.github.nzuwera.todoapp.observability;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@code /actuator/jfr}: a Java Flight Recorder recording started on demand, including the
+ * {@link TaskOperationEvent task operation} and {@link ErrorMappingEvent error mapping} events.
+ * <p>
+ * {@code POST /actuator/jfr/start} starts it, {@code POST /actuator/jfr/dump} writes what it
+ * holds to a file and {@code POST /actuator/jfr/stop} writes a last file and ends it. The
+ * recording only keeps the data of the last {@code maxAge} up to {@code maxSize}, and only the
+ * latest {@code maxDumps} files are kept, so a forgotten recording cannot fill the disk.
+ */
+@Endpoint(id = "jfr")
+public class JfrEndpoint implements AutoCloseable {
+    private static final String PREFIX = "todo-app-";
+    private static final String SUFFIX = ".jfr";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS")
+            .withZone(ZoneOffset.UTC);
+
+    private final Path directory;
+    private final String settings;
+    private final Duration maxAge;
+    private final long maxSize;
+    private final int maxDumps;
+    private Recording recording;
+
+    public JfrEndpoint(Path directory, String settings, Duration maxAge, long maxSize, int maxDumps) {
+        this.directory = directory;
+        this.settings = settings;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.maxDumps = maxDumps;
+    }
+
+    public record RecordingStatus(String state, Instant startedAt, Duration maxAge, long maxSize, List<String> dumps) {
+    }
+
+    @ReadOperation
+    public synchronized RecordingStatus status() {
+        String state = recording == null ? RecordingState.CLOSED.name() : recording.getState().name();
+        Instant startedAt = recording == null ? null : recording.getStartTime();
+        return new RecordingStatus(state, startedAt, maxAge, maxSize, dumps().stream().map(dump -> dump.getFileName().toString()).toList());
+    }
+
+    /**
+     * Runs {@code start}, {@code dump} or {@code stop}.
+     */
+    @WriteOperation
+    public synchronized RecordingStatus control(@Selector String action) {
+        switch (action) {
+            case "start" -> start();
+            case "dump" -> dump();
+            case "stop" -> stop();
+            default -> throw new InvalidEndpointRequestException("Unknown action " + action, "Unknown action");
+        }
+        return status();
+    }
+
+    private void start() {
+        if (recording != null) {
+            throw new InvalidEndpointRequestException("A recording is already running", "Recording running");
+        }
+        Recording started = new Recording(configuration());
+        started.setName("todo-app");
+        started.setToDisk(true);
+        started.setMaxAge(maxAge);
+        started.setMaxSize(maxSize);
+        started.enable(TaskOperationEvent.class);
+        started.enable(ErrorMappingEvent.class);
+        started.start();
+        recording = started;
+    }
+
+    private void dump() {
+        try {
+            running().dump(nextDump());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        deleteOldDumps();
+    }
+
+    private void stop() {
+        Recording stopped = running();
+        recording = null;
+        try (stopped) {
+            stopped.stop();
+            stopped.dump(nextDump());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        deleteOldDumps();
+    }
+
+    private Recording running() {
+        if (recording == null) {
+            throw new InvalidEndpointRequestException("No recording is running", "No recording");
+        }
+        return recording;
+    }
+
+    private Configuration configuration() {
+        try {
+            return Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Cannot read the JFR settings " + settings, e);
+        }
+    }
+
+    private Path nextDump() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return directory.resolve(PREFIX + FILE_TIMESTAMP.format(Instant.now()) + SUFFIX);
+    }
+
+    private void deleteOldDumps() {
+        List<Path> dumps = dumps();
+        try {
+            for (Path dump : dumps.subList(0, Math.max(0, dumps.size() - maxDumps))) {
+                Files.deleteIfExists(dump);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Dumps in the directory, the oldest first.
+     */
+    private List<Path> dumps() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.nzuwera.todoapp.observability;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.util.AttributeKey;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import reactor.netty.Connection;
+
+/**
+ * Netty handler placed right after the HTTP codec, stamping the channel with the time a
+ * request was decoded. The {@link RequestTimingFilter} reads it back to tell how long the
+ * request waited before its processing started.
+ */
+@ChannelHandler.Sharable
+public final class RequestArrivalHandler extends ChannelInboundHandlerAdapter {
+    public static final String NAME = "todo.requestArrival";
+    public static final RequestArrivalHandler INSTANCE = new RequestArrivalHandler();
+
+    private static final AttributeKey<Long> DECODED_AT = AttributeKey.valueOf("todo.requestDecodedAt");
+
+    private RequestArrivalHandler() {
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof HttpRequest) {
+            ctx.channel().attr(DECODED_AT).set(System.nanoTime());
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    /**
+     * When the request was decoded, or {@code fallback} when it did not pass this handler.
+     */
+    static long decodedAt(ServerHttpRequest request, long fallback) {
+        Object nativeRequest;
+        try {
+            nativeRequest = ServerHttpRequestDecorator.getNativeRequest(request);
+        } catch (IllegalStateException ex) {
+            // Requests bound to the application without a server, as in tests, have none
+            return fallback;
+        }
+        if (nativeRequest instanceof Connection connection) {
+            Long decodedAt = connection.channel().attr(DECODED_AT).get();
+            if (decodedAt != null && decodedAt <= fallback) {
+                return decodedAt;
+            }
+        }
+        return fallback;
+    }
+}
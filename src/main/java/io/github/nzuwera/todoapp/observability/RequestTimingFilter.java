@@ -0,0 +1,53 @@
+package io.github.nzuwera.todoapp.observability;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Measures every API request, from its decoding by Netty to the end of the response, and
+ * breaks the time down into {@link RequestTimings.Phase phases} through the Reactor context.
+ * Requests are grouped by method and route pattern. Actuator requests and event streams,
+ * whose duration is the lifetime of the subscription, are left out.
+ */
+@RequiredArgsConstructor
+public class RequestTimingFilter implements WebFilter {
+    private final HttpTimings httpTimings;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        long decodedAt = RequestArrivalHandler.decodedAt(exchange.getRequest(), start);
+        RequestTimings timings = new RequestTimings();
+        timings.add(RequestTimings.Phase.QUEUE, start - decodedAt);
+        return chain.filter(exchange)
+                .contextWrite(Context.of(RequestTimings.CONTEXT_KEY, timings))
+                .doFinally(signal -> record(exchange, timings, System.nanoTime() - decodedAt));
+    }
+
+    private void record(ServerWebExchange exchange, RequestTimings timings, long totalNanos) {
+        PathPattern route = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (route == null
+                || route.getPatternString().startsWith("/actuator")
+                || MediaType.TEXT_EVENT_STREAM.isCompatibleWith(exchange.getResponse().getHeaders().getContentType())) {
+            return;
+        }
+        long[] phaseNanos = new long[RequestTimings.Phase.values().length];
+        for (RequestTimings.Phase phase : RequestTimings.Phase.values()) {
+            phaseNanos[phase.ordinal()] = timings.nanos(phase);
+        }
+        // Query time is measured around the store calls, which include waiting for the connection
+        int query = RequestTimings.Phase.QUERY.ordinal();
+        phaseNanos[query] = Math.max(0, phaseNanos[query] - phaseNanos[RequestTimings.Phase.ACQUIRE.ordinal()]);
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        httpTimings.record(exchange.getRequest().getMethod().name(), route.getPatternString(),
+                status == null ? 200 : status.value(), totalNanos, phaseNanos);
+    }
+}
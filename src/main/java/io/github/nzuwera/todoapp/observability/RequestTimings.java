@@ -0,0 +1,139 @@
+package io.github.nzuwera.todoapp.observability;
+
+import reactor.core.observability.DefaultSignalListener;
+import reactor.core.observability.SignalListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Time spent by one HTTP request in each {@link Phase}, carried in the Reactor context of the
+ * request by the {@link RequestTimingFilter}. Outside of a request the timing operators do nothing.
+ */
+public final class RequestTimings {
+    static final Class<RequestTimings> CONTEXT_KEY = RequestTimings.class;
+
+    private static final SignalListener<Object> NOT_TIMED = new DefaultSignalListener<>() {
+    };
+    private static final Map<Phase, Function<Mono<Object>, Mono<Object>>> TIMED = new EnumMap<>(Phase.class);
+    private static final Map<Phase, Function<Flux<Object>, Flux<Object>>> TIMED_MANY = new EnumMap<>(Phase.class);
+
+    static {
+        for (Phase phase : Phase.values()) {
+            TIMED.put(phase, mono -> mono.tap(context -> listener(phase, context, true)));
+            TIMED_MANY.put(phase, flux -> flux.tap(context -> listener(phase, context, false)));
+        }
+    }
+
+    public enum Phase {
+        /**
+         * From the decoded request to the start of its processing, waiting for the event loop.
+         */
+        QUEUE,
+        /**
+         * Waiting for a connection from the R2DBC pool.
+         */
+        ACQUIRE,
+        /**
+         * Executing statements and reading their rows, not counting the wait for a connection.
+         */
+        QUERY,
+        /**
+         * Serializing response bodies to JSON.
+         */
+        ENCODE
+    }
+
+    private final AtomicLongArray nanos = new AtomicLongArray(Phase.values().length);
+
+    /**
+     * Adds the time from subscription to termination of a {@code Mono} to a phase of the current request.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Function<Mono<T>, Mono<T>> timed(Phase phase) {
+        return (Function<Mono<T>, Mono<T>>) (Function<?, ?>) TIMED.get(phase);
+    }
+
+    /**
+     * Adds the time from subscription to termination of a {@code Flux} to a phase of the current request.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Function<Flux<T>, Flux<T>> timedMany(Phase phase) {
+        return (Function<Flux<T>, Flux<T>>) (Function<?, ?>) TIMED_MANY.get(phase);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> SignalListener<T> listener(Phase phase, ContextView context, boolean single) {
+        RequestTimings timings = current(context);
+        return timings == null ? (SignalListener<T>) NOT_TIMED : new Timing<>(timings, phase, single);
+    }
+
+    static RequestTimings current(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, null);
+    }
+
+    public void add(Phase phase, long elapsedNanos) {
+        nanos.addAndGet(phase.ordinal(), elapsedNanos);
+    }
+
+    public long nanos(Phase phase) {
+        return nanos.get(phase.ordinal());
+    }
+
+    /**
+     * Stops at the first terminal signal, or at the value of a {@code Mono}, before it travels
+     * downstream: the request may finish as soon as the last value reaches it.
+     */
+    private static final class Timing<T> extends DefaultSignalListener<T> {
+        private final RequestTimings timings;
+        private final Phase phase;
+        private final boolean single;
+        private long start;
+        private boolean stopped;
+
+        Timing(RequestTimings timings, Phase phase, boolean single) {
+            this.timings = timings;
+            this.phase = phase;
+            this.single = single;
+        }
+
+        @Override
+        public void doFirst() {
+            start = System.nanoTime();
+        }
+
+        @Override
+        public void doOnNext(T value) {
+            if (single) {
+                stop();
+            }
+        }
+
+        @Override
+        public void doOnComplete() {
+            stop();
+        }
+
+        @Override
+        public void doOnError(Throwable error) {
+            stop();
+        }
+
+        @Override
+        public void doOnCancel() {
+            stop();
+        }
+
+        private void stop() {
+            if (!stopped) {
+                stopped = true;
+                timings.add(phase, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package io.github.nzuwera.todoapp.observability;
+
+import io.r2dbc.proxy.core.Binding;
+import io.r2dbc.proxy.core.Bindings;
+import io.r2dbc.proxy.core.BoundValue;
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.core.ValueStore;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregates call count, rows and latency of every SQL statement executed through the R2DBC
+ * proxy, keyed by the normalized statement text, and logs slow statements. The rows of a query are
+ * the rows it returned; those of an INSERT, UPDATE or DELETE without RETURNING are the rows it
+ * affected, as reported by {@code Result.getRowsUpdated()}.
+ * <p>
+ * Normalizing collapses whitespace, replaces literals with {@code ?} and lists of bind markers
+ * with {@code ...}, so statements differing only in values or in the length of an {@code IN}
+ * list share a row. Bind values are never logged, only their type.
+ */
+@Slf4j
+public class SqlStatementStats implements ProxyExecutionListener {
+    static final String OTHER = "<other>";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern BIND_MARKER_LIST = Pattern.compile("\\$\\d+(?:\\s*,\\s*\\$\\d+)+");
+    private static final Pattern UPDATE_COUNT_STATEMENT = Pattern.compile(
+            "^(?:INSERT|UPDATE|DELETE)\\b(?!.*\\bRETURNING\\b)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final String ROWS_UPDATED = SqlStatementStats.class.getName() + ".rowsUpdated";
+
+    private final long slowThresholdNanos;
+    private final int maxStatements;
+    /**
+     * Statements by their text as executed, so a statement is only normalized the first time.
+     */
+    private final Map<String, Query> byQuery = new ConcurrentHashMap<>();
+    private final Map<String, Statement> byStatement = new ConcurrentHashMap<>();
+
+    public SqlStatementStats(Duration slowThreshold, int maxStatements) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * Sums the update counts of statements without rows, each result of {@code getRowsUpdated()}
+     * arrives here like a mapped row would.
+     */
+    @Override
+    public void eachQueryResult(QueryExecutionInfo execInfo) {
+        if (execInfo.getCurrentMappedResult() instanceof Number updated && !execInfo.getQueries().isEmpty()
+                && query(execInfo.getQueries().get(0).getQuery()).updateCount()) {
+            ValueStore values = execInfo.getValueStore();
+            values.put(ROWS_UPDATED, values.getOrDefault(ROWS_UPDATED, 0L) + updated.longValue());
+        }
+    }
+
+    @Override
+    public void afterQuery(QueryExecutionInfo execInfo) {
+        long nanos = execInfo.getExecuteDuration().toNanos();
+        for (QueryInfo queryInfo : execInfo.getQueries()) {
+            Query query = query(queryInfo.getQuery());
+            long rows = query.updateCount()
+                    ? execInfo.getValueStore().getOrDefault(ROWS_UPDATED, 0L)
+                    : execInfo.getCurrentResultCount();
+            query.statement().record(nanos, rows, execInfo.isSuccess());
+            if (nanos >= slowThresholdNanos) {
+                log.warn("Slow SQL statement took {} ms for {} rows: {} {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                        rows, query.statement().text, redact(queryInfo.getBindingsList()));
+            }
+        }
+    }
+
+    /**
+     * Statistics of every statement, the statements taking the most time in total first.
+     */
+    public List<StatementSummary> summaries() {
+        return byStatement.values().stream()
+                .map(Statement::summary)
+                .sorted(Comparator.comparingDouble(StatementSummary::totalMillis).reversed())
+                .toList();
+    }
+
+    public void reset() {
+        byQuery.clear();
+        byStatement.clear();
+    }
+
+    static String normalize(String query) {
+        String normalized = STRING_LITERAL.matcher(query).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = BIND_MARKER_LIST.matcher(normalized).replaceAll("...");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").strip();
+    }
+
+    static String redact(List<Bindings> bindingsList) {
+        if (bindingsList.isEmpty()) {
+            return "";
+        }
+        // A batch of bindings runs the statement many times; the types of the first set tell enough
+        String first = bindingsList.get(0).getIndexBindings().stream()
+                .map(binding -> "$" + ((int) binding.getKey() + 1) + "=" + type(binding))
+                .collect(Collectors.joining(", ", "[", "]"));
+        return bindingsList.size() == 1 ? first : first + " x" + bindingsList.size();
+    }
+
+    private static String type(Binding binding) {
+        BoundValue value = binding.getBoundValue();
+        if (value.isNull()) {
+            return "NULL";
+        }
+        return "<" + value.getValue().getClass().getSimpleName() + ">";
+    }
+
+    private Query query(String sql) {
+        Query query = byQuery.get(sql);
+        if (query == null) {
+            query = byQuery.computeIfAbsent(sql, key -> {
+                String text = normalize(key);
+                boolean updateCount = UPDATE_COUNT_STATEMENT.matcher(text).find();
+                if (byStatement.size() >= maxStatements && !byStatement.containsKey(text)) {
+                    text = OTHER;
+                }
+                return new Query(byStatement.computeIfAbsent(text, Statement::new), updateCount);
+            });
+        }
+        return query;
+    }
+
+    /**
+     * A statement as executed, with whether its rows are an update count.
+     */
+    private record Query(Statement statement, boolean updateCount) {
+    }
+
+    /**
+     * Statistics of one statement. Times are in milliseconds; rows are returned rows, or affected
+     * rows for an INSERT, UPDATE or DELETE without RETURNING.
+     */
+    public record StatementSummary(String statement, long calls, long errors, long rows, double totalMillis,
+                                   double meanMillis, double p50Millis, double p95Millis, double p99Millis,
+                                   double maxMillis) {
+    }
+
+    private static final class Statement {
+        private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+        private final String text;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final ConcurrentHistogram latencyMicros = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 2);
+
+        Statement(String text) {
+            this.text = text;
+        }
+
+        void record(long nanos, long resultRows, boolean success) {
+            calls.increment();
+            if (!success) {
+                errors.increment();
+            }
+            rows.add(resultRows);
+            totalNanos.add(nanos);
+            latencyMicros.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 1), HIGHEST_TRACKABLE_MICROS));
+        }
+
+        StatementSummary summary() {
+            long count = calls.sum();
+            double totalMillis = totalNanos.sum() / 1e6;
+            return new StatementSummary(text, count, errors.sum(), rows.sum(), totalMillis,
+                    count == 0 ? 0 : totalMillis / count,
+                    millis(latencyMicros.getValueAtPercentile(50)),
+                    millis(latencyMicros.getValueAtPercentile(95)),
+                    millis(latencyMicros.getValueAtPercentile(99)),
+                    millis(latencyMicros.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1e3;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.nzuwera.todoapp.observability;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/sqlstats}: latency, calls and rows of every SQL statement since startup or
+ * the last reset, the statements taking the most time in total first. A {@code DELETE} resets
+ * the statistics, for instance before a load test.
+ */
+@Endpoint(id = "sqlstats")
+@RequiredArgsConstructor
+public class SqlStatsEndpoint {
+    private final SqlStatementStats sqlStatementStats;
+
+    @ReadOperation
+    public List<SqlStatementStats.StatementSummary> statements() {
+        return sqlStatementStats.summaries();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlStatementStats.reset();
+    }
+}
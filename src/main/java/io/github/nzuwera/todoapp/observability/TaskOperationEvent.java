@@ -0,0 +1,43 @@
+package io.github.nzuwera.todoapp.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of one task service operation, from subscription to its outcome.
+ */
+@Name(TaskOperationEvent.NAME)
+@Label("Task Operation")
+@Category({"Todo App", "Tasks"})
+@Description("Task service operation with its duration and outcome")
+@StackTrace(false)
+public class TaskOperationEvent extends Event {
+    public static final String NAME = "io.github.nzuwera.todoapp.TaskOperation";
+
+    private static final EventType TYPE = EventType.getEventType(TaskOperationEvent.class);
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Task Id")
+    public String taskId;
+
+    @Label("Rows")
+    @Description("Tasks returned or affected")
+    public long rows;
+
+    @Label("Outcome")
+    public String outcome;
+
+    /**
+     * Whether a recording collects these events, checked before creating one.
+     */
+    public static boolean isRecorded() {
+        return TYPE.isEnabled();
+    }
+}
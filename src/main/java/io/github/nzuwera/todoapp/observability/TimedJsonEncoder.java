@@ -0,0 +1,83 @@
+package io.github.nzuwera.todoapp.observability;
+
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds the time the JSON encoder spends serializing response values to the
+ * {@link RequestTimings.Phase#ENCODE} phase of the request. Serialization happens synchronously
+ * between a value arriving and its buffer leaving the encoder, so that gap is what is measured.
+ */
+@RequiredArgsConstructor
+public class TimedJsonEncoder implements HttpMessageEncoder<Object> {
+    private final HttpMessageEncoder<Object> delegate;
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                   MimeType mimeType, Map<String, Object> hints) {
+        return Flux.deferContextual(context -> {
+            RequestTimings timings = RequestTimings.current(context);
+            if (timings == null) {
+                return delegate.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+            }
+            // Signals are serial, a plain holder is enough
+            long[] valueArrivedAt = new long[1];
+            // The encoder writes a Mono as a single value and anything else as an array
+            Publisher<?> values = inputStream instanceof Mono<?> mono
+                    ? mono.doOnNext(value -> valueArrivedAt[0] = System.nanoTime())
+                    : Flux.from(inputStream).doOnNext(value -> valueArrivedAt[0] = System.nanoTime());
+            return delegate.encode(values, bufferFactory, elementType, mimeType, hints)
+                    .doOnNext(buffer -> {
+                        if (valueArrivedAt[0] != 0) {
+                            timings.add(RequestTimings.Phase.ENCODE, System.nanoTime() - valueArrivedAt[0]);
+                            valueArrivedAt[0] = 0;
+                        }
+                    });
+        });
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  MimeType mimeType, Map<String, Object> hints) {
+        return delegate.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return delegate.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return delegate.getEncodableMimeTypes();
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes(ResolvableType elementType) {
+        return delegate.getEncodableMimeTypes(elementType);
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return delegate.getStreamingMediaTypes();
+    }
+
+    @Override
+    public Map<String, Object> getEncodeHints(ResolvableType actualType, ResolvableType elementType, MediaType mediaType,
+                                              ServerHttpRequest request, ServerHttpResponse response) {
+        return delegate.getEncodeHints(actualType, elementType, mediaType, request, response);
+    }
+}
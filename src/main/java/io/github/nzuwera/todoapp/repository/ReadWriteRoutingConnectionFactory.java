@@ -0,0 +1,61 @@
+package io.github.nzuwera.todoapp.repository;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Map;
+
+/**
+ * Sends the statements marked {@link #READ_ONLY read-only} to the replica and everything else
+ * to the primary. Statements of a subscriber {@link #PINNED pinned} to the primary, a client
+ * reading its own writes, go to the primary as well.
+ * <p>
+ * Deliberately not {@link io.r2dbc.spi.Wrapped}: the pools it routes to are beans of their own,
+ * and unwrapping would publish the metrics of the primary pool twice.
+ */
+public class ReadWriteRoutingConnectionFactory extends AbstractRoutingConnectionFactory {
+    /**
+     * Marks the statements of a subscriber that tolerate the replication lag of the replica.
+     */
+    public static final ContextView READ_ONLY = Context.of(Route.class, Route.REPLICA);
+
+    /**
+     * Keeps the statements of a subscriber on the primary, even when read-only.
+     */
+    public static final ContextView PINNED = Context.of(Pin.class, Pin.PRIMARY);
+
+    private static final Mono<Object> PRIMARY_KEY = Mono.just(Route.PRIMARY);
+    private static final Mono<Object> REPLICA_KEY = Mono.just(Route.REPLICA);
+
+    private final ConnectionFactory primary;
+
+    public ReadWriteRoutingConnectionFactory(ConnectionFactory primary, ConnectionFactory replica) {
+        this.primary = primary;
+        setTargetConnectionFactories(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetConnectionFactory(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public ConnectionFactory getPrimary() {
+        return primary;
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> context.hasKey(Route.class) && !context.hasKey(Pin.class)
+                ? REPLICA_KEY
+                : PRIMARY_KEY);
+    }
+
+    private enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private enum Pin {
+        PRIMARY
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.nzuwera.todoapp.repository;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import io.github.nzuwera.todoapp.store.R2dbcTaskStore;
+import io.r2dbc.postgresql.PostgresqlConnectionFactory;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Listens on the {@value #CHANNEL} Postgres channel, fed by the {@code tasks_notify_*} statement
+ * triggers, and republishes every task of a notification as a {@link TaskChangeEvent}. A single
+ * dedicated connection serves all in-process subscribers.
+ */
+@Slf4j
+@Component
+@Profile(R2dbcTaskStore.PROFILE)
+@RequiredArgsConstructor
+public class TaskChangeListener implements SmartLifecycle {
+    public static final String CHANNEL = "task_changes";
+
+    private static final Duration MIN_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final ConnectionFactory connectionFactory;
+    private final ObjectMapper objectMapper;
+    private final Sinks.Many<TaskChangeEvent> sink = Sinks.many().multicast().directBestEffort();
+    private volatile Disposable subscription;
+
+    /**
+     * Hot stream of task changes. A {@link TaskChangeEvent.Type#RESET} is published every time
+     * the listener (re)connects, since notifications sent while disconnected are lost, and for
+     * statements changing too many tasks to list them in a notification.
+     */
+    public Flux<TaskChangeEvent> changes() {
+        return sink.asFlux();
+    }
+
+    @Override
+    public void start() {
+        PostgresqlConnectionFactory postgres = unwrap(connectionFactory);
+        if (postgres == null) {
+            log.warn("Connection factory is not a Postgres one, task change notifications are disabled");
+            return;
+        }
+        subscription = listen(postgres)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, MIN_BACKOFF)
+                        .maxBackoff(MAX_BACKOFF)
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> log.warn("Listening on {} failed, reconnecting", CHANNEL, signal.failure())))
+                .subscribe(sink::tryEmitNext);
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+        sink.tryEmitComplete();
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = subscription;
+        return current != null && !current.isDisposed();
+    }
+
+    private Flux<TaskChangeEvent> listen(PostgresqlConnectionFactory factory) {
+        return Flux.usingWhen(
+                        factory.create(),
+                        connection -> connection.createStatement("LISTEN " + CHANNEL)
+                                .execute()
+                                .flatMap(PostgresqlResult::getRowsUpdated)
+                                .thenMany(Flux.just(TaskChangeEvent.reset())
+                                        .concatWith(connection.getNotifications().concatMapIterable(this::toEvents))),
+                        PostgresqlConnection::close)
+                // The notification stream only ends when the connection is gone
+                .concatWith(Mono.error(() -> new IllegalStateException("Connection listening on " + CHANNEL + " closed")));
+    }
+
+    private List<TaskChangeEvent> toEvents(Notification notification) {
+        try {
+            return objectMapper.readValue(notification.getParameter(), Payload.class).events();
+        } catch (JsonProcessingException | IllegalArgumentException | NullPointerException | DateTimeParseException ex) {
+            log.warn("Ignoring malformed notification on {}: {}", CHANNEL, notification.getParameter());
+            return List.of();
+        }
+    }
+
+    private static PostgresqlConnectionFactory unwrap(ConnectionFactory factory) {
+        // Notifications are only sent on the primary
+        Object current = factory instanceof ReadWriteRoutingConnectionFactory routing ? routing.getPrimary() : factory;
+        while (current instanceof Wrapped<?> wrapped && !(current instanceof PostgresqlConnectionFactory)) {
+            current = wrapped.unwrap();
+        }
+        return current instanceof PostgresqlConnectionFactory postgres ? postgres : null;
+    }
+
+    /**
+     * The changes of one statement: the rows it inserted or updated, the ids it deleted, or a
+     * reset when they did not fit in a notification.
+     */
+    private record Payload(String op, List<Row> tasks, List<UUID> ids) {
+        List<TaskChangeEvent> events() {
+            return switch (op) {
+                case "INSERT" -> changed(TaskChangeEvent.Type.CREATED);
+                case "UPDATE" -> changed(TaskChangeEvent.Type.UPDATED);
+                case "DELETE" -> ids.stream()
+                        .map(id -> new TaskChangeEvent(TaskChangeEvent.Type.DELETED, id.toString(), null))
+                        .toList();
+                case "RESET" -> List.of(TaskChangeEvent.reset());
+                default -> throw new IllegalArgumentException("Unknown operation " + op);
+            };
+        }
+
+        private List<TaskChangeEvent> changed(TaskChangeEvent.Type type) {
+            return tasks.stream()
+                    .map(row -> new TaskChangeEvent(type, row.id().toString(), row.toTask()))
+                    .toList();
+        }
+    }
+
+    /**
+     * The row as rendered by {@code json_build_object}, timestamps carry the writer's UTC offset.
+     */
+    private record Row(UUID id,
+                       String description,
+                       boolean completed,
+                       @JsonProperty("created_at") OffsetDateTime createdAt,
+                       @JsonProperty("updated_at") OffsetDateTime updatedAt) {
+        Task toTask() {
+            return new Task(id, description, completed, createdAt.toInstant(), updatedAt.toInstant());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.nzuwera.todoapp.repository;
+
+import io.github.nzuwera.todoapp.model.TaskFilter;
+import io.github.nzuwera.todoapp.model.TaskSort;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Statement listing a page of tasks for a filter and an order. Only the criteria given appear in
+ * the statement, so the planner sees each combination as it is instead of a catch-all predicate,
+ * and the completed state is written as a literal so that the partial index on open tasks still
+ * applies to generic plans. Only the columns of the covering indexes are selected.
+ */
+record TaskPageQuery(String sql, Map<String, Object> bindings) implements TaskQuery {
+    private static final String SELECT = "SELECT id, description, completed, created_at, updated_at FROM tasks";
+
+    static TaskPageQuery of(TaskFilter filter, TaskSort sort, Instant after, UUID afterId, int limit) {
+        StringBuilder where = new StringBuilder();
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        if (filter.completed() != null) {
+            append(where, filter.completed() ? "completed = TRUE" : "completed = FALSE");
+        }
+        if (filter.createdAfter() != null) {
+            append(where, "created_at > :createdAfter");
+            bindings.put("createdAfter", filter.createdAfter());
+        }
+        if (filter.createdBefore() != null) {
+            append(where, "created_at < :createdBefore");
+            bindings.put("createdBefore", filter.createdBefore());
+        }
+        if (filter.updatedSince() != null) {
+            append(where, "updated_at >= :updatedSince");
+            bindings.put("updatedSince", filter.updatedSince());
+        }
+        String column = sort.byUpdatedAt() ? "updated_at" : "created_at";
+        if (after != null) {
+            append(where, "(%s, id) %s (:after, :afterId)".formatted(column, sort.descending() ? "<" : ">"));
+            bindings.put("after", after);
+            bindings.put("afterId", afterId);
+        }
+        String direction = sort.descending() ? " DESC" : "";
+        bindings.put("limit", limit);
+        String sql = SELECT + where + " ORDER BY " + column + direction + ", id" + direction + " LIMIT :limit";
+        return new TaskPageQuery(sql, bindings);
+    }
+
+    private static void append(StringBuilder where, String condition) {
+        where.append(where.isEmpty() ? " WHERE " : " AND ").append(condition);
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.nzuwera.todoapp.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.Map;
+
+/**
+ * Statement built for the criteria of one call, with the values of its named parameters.
+ */
+interface TaskQuery {
+
+    String sql();
+
+    Map<String, Object> bindings();
+
+    default DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec) {
+        for (Map.Entry<String, Object> binding : bindings().entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec;
+    }
+}
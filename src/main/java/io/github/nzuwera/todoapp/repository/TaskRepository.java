@@ -1,13 +1,76 @@
 package io.github.nzuwera.todoapp.repository;
 
 import io.github.nzuwera.todoapp.entity.TaskEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Repository
-public interface TaskRepository extends R2dbcRepository<TaskEntity, UUID> {
+public interface TaskRepository extends R2dbcRepository<TaskEntity, UUID>, TaskRepositoryCustom {
     Mono<TaskEntity> findByDescription(String description);
+
+    // Explicit columns: the change stamps are of no use here and would be shipped with every row
+    @Query("SELECT id, description, completed, created_at, updated_at FROM tasks ORDER BY created_at, id LIMIT :limit")
+    Flux<TaskEntity> findFirstPage(int limit);
+
+    @Query("""
+            SELECT id, description, completed, created_at, updated_at FROM tasks
+            WHERE (created_at, id) > (:createdAt, :id) ORDER BY created_at, id LIMIT :limit""")
+    Flux<TaskEntity> findPageAfter(Instant createdAt, UUID id, int limit);
+
+    @Query("SELECT id, description, completed, created_at, updated_at FROM tasks WHERE id = ANY(:ids)")
+    Flux<TaskEntity> findAllByIds(UUID[] ids);
+
+    /**
+     * Version of the whole table, changed by every insert, update and delete: the current
+     * snapshot, which changes whenever a transaction with writes commits. Change sequence
+     * numbers are not taken in commit order, their maximum can miss a commit. Reads no rows.
+     */
+    @Query("SELECT CAST(pg_current_snapshot() AS TEXT)")
+    Mono<String> findVersion();
+
+    @Query("""
+            UPDATE tasks SET description = :description, completed = :completed, updated_at = :updatedAt
+            WHERE id = :id
+            AND (CAST(:expectedUpdatedAt AS TIMESTAMPTZ) IS NULL OR updated_at = :expectedUpdatedAt)
+            RETURNING id, description, completed, created_at, updated_at""")
+    Mono<TaskEntity> updateTask(UUID id, String description, boolean completed, Instant updatedAt, Instant expectedUpdatedAt);
+
+    @Modifying
+    @Query("""
+            UPDATE tasks SET completed = :completed, updated_at = :updatedAt
+            WHERE id = ANY(:ids) AND completed IS DISTINCT FROM :completed""")
+    Mono<Long> updateCompletedByIds(UUID[] ids, boolean completed, Instant updatedAt);
+
+    @Modifying
+    @Query("""
+            UPDATE tasks SET completed = :completed, updated_at = :updatedAt
+            WHERE completed IS DISTINCT FROM :completed
+            AND (CAST(:currentCompleted AS BOOLEAN) IS NULL OR completed = :currentCompleted)""")
+    Mono<Long> updateCompletedByState(Boolean currentCompleted, boolean completed, Instant updatedAt);
+
+    @Modifying
+    @Query("""
+            DELETE FROM tasks WHERE id = :id
+            AND (CAST(:expectedUpdatedAt AS TIMESTAMPTZ) IS NULL OR updated_at = :expectedUpdatedAt)""")
+    Mono<Long> deleteTaskById(UUID id, Instant expectedUpdatedAt);
+
+    @Modifying
+    @Query("DELETE FROM tasks WHERE id = ANY(:ids)")
+    Mono<Long> deleteByIds(UUID[] ids);
+
+    @Modifying
+    @Query("""
+            DELETE FROM tasks WHERE id IN (
+                SELECT id FROM tasks
+                WHERE (CAST(:completed AS BOOLEAN) IS NULL OR completed = :completed)
+                AND (CAST(:updatedBefore AS TIMESTAMPTZ) IS NULL OR updated_at < :updatedBefore)
+                LIMIT :limit)""")
+    Mono<Long> deleteChunkByState(Boolean completed, Instant updatedBefore, int limit);
 }
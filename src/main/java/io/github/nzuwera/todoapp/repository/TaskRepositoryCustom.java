@@ -0,0 +1,82 @@
+package io.github.nzuwera.todoapp.repository;
+
+import io.github.nzuwera.todoapp.entity.TaskChangeEntry;
+import io.github.nzuwera.todoapp.entity.TaskChangePosition;
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.model.TaskFilter;
+import io.github.nzuwera.todoapp.model.TaskSearchMode;
+import io.github.nzuwera.todoapp.model.TaskSort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Task queries that cannot be expressed as derived or annotated repository methods.
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * Inserts the task unless another task already uses its description.
+     *
+     * @return the inserted row, or an empty Mono when the description is already taken
+     */
+    Mono<TaskEntity> insertIfAbsent(TaskEntity task);
+
+    /**
+     * Inserts all tasks with one multi-row statement, skipping the ones whose description
+     * is already taken, including by an earlier task of the same list.
+     *
+     * @param tasks     tasks to insert, only description and completed are used
+     * @param createdAt creation and modification time stamped on every inserted row
+     * @return the inserted rows, in no particular order
+     */
+    Flux<TaskEntity> insertAllIfAbsent(List<TaskEntity> tasks, Instant createdAt);
+
+    /**
+     * Lists a page of tasks with a statement built for the given criteria.
+     *
+     * @param filter  criteria the tasks must match
+     * @param sort    order of the tasks
+     * @param after   sort value of the last task of the previous page, {@code null} for the first page
+     * @param afterId id of the last task of the previous page
+     * @param limit   maximum number of tasks to return
+     * @return the tasks in {@code sort} order
+     */
+    Flux<TaskEntity> findPage(TaskFilter filter, TaskSort sort, Instant after, UUID afterId, int limit);
+
+    /**
+     * Searches the task descriptions.
+     *
+     * @param query text to look for
+     * @param mode  how the text is matched
+     * @param limit maximum number of tasks to return
+     * @return the matching tasks, best match first
+     */
+    Flux<TaskEntity> search(String query, TaskSearchMode mode, int limit);
+
+    /**
+     * Reads the tasks written and the tombstones left after a change position, leaving out the
+     * changes of transactions that are not older than every running one.
+     *
+     * @param since last change position already seen, {@link TaskChangePosition#START} for everything
+     * @param limit maximum number of changes to return
+     * @return the changes in position order
+     */
+    Flux<TaskChangeEntry> findChangesSince(TaskChangePosition since, int limit);
+
+    /**
+     * Reads the position of the last pruned tombstone.
+     */
+    Mono<TaskChangePosition> findSyncHorizon();
+
+    /**
+     * Deletes the tombstones left before a time and moves the sync horizon to the last of them.
+     *
+     * @param deletedBefore tombstones of tasks deleted before this time are deleted
+     * @return the number of deleted tombstones
+     */
+    Mono<Long> pruneTombstones(Instant deletedBefore);
+}
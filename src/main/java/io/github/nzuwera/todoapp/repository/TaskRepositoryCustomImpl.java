@@ -0,0 +1,145 @@
+package io.github.nzuwera.todoapp.repository;
+
+import io.github.nzuwera.todoapp.entity.TaskChangeEntry;
+import io.github.nzuwera.todoapp.entity.TaskChangePosition;
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.model.TaskFilter;
+import io.github.nzuwera.todoapp.model.TaskSearchMode;
+import io.github.nzuwera.todoapp.model.TaskSort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+    private static final String INSERT_IF_ABSENT = """
+            INSERT INTO tasks (description, completed, created_at, updated_at)
+            VALUES (:description, :completed, :createdAt, :updatedAt)
+            ON CONFLICT (description) DO NOTHING
+            RETURNING id, description, completed, created_at, updated_at""";
+    // Binding one array per column keeps the statement text identical for every batch size
+    private static final String INSERT_ALL_IF_ABSENT = """
+            INSERT INTO tasks (description, completed, created_at, updated_at)
+            SELECT description, completed, :createdAt, :createdAt
+            FROM unnest(CAST(:descriptions AS VARCHAR[]), CAST(:completed AS BOOLEAN[])) AS batch(description, completed)
+            ON CONFLICT (description) DO NOTHING
+            RETURNING id, description, completed, created_at, updated_at""";
+    // Both branches walk their (change_xid, change_seq, id) index, so the merge stops after
+    // :limit rows. Transactions at or above the snapshot xmin may still commit changes, which
+    // would sort before the ones of younger transactions, so none of theirs is returned yet.
+    private static final String FIND_CHANGES_SINCE = """
+            (SELECT change_xid, change_seq, id, FALSE AS deleted, description, completed, created_at, updated_at
+             FROM tasks
+             WHERE (change_xid, change_seq, id) > (:sinceXid, :sinceSeq, :sinceId)
+             AND change_xid < CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT)
+             ORDER BY change_xid, change_seq, id LIMIT :limit)
+            UNION ALL
+            (SELECT change_xid, change_seq, id, TRUE, NULL, NULL, NULL, NULL
+             FROM task_tombstones
+             WHERE (change_xid, change_seq, id) > (:sinceXid, :sinceSeq, :sinceId)
+             AND change_xid < CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT)
+             ORDER BY change_xid, change_seq, id LIMIT :limit)
+            ORDER BY change_xid, change_seq, id
+            LIMIT :limit""";
+    private static final String FIND_SYNC_HORIZON = "SELECT change_xid, change_seq, id FROM task_sync_horizon";
+    // The tombstones and the horizon change in one statement, a sync reading the horizon after
+    // its changes sees every prune that could have removed one of them
+    private static final String PRUNE_TOMBSTONES = """
+            WITH pruned AS (
+                DELETE FROM task_tombstones WHERE deleted_at < :deletedBefore
+                RETURNING change_xid, change_seq, id),
+            last AS (
+                SELECT change_xid, change_seq, id FROM pruned
+                ORDER BY change_xid DESC, change_seq DESC, id DESC LIMIT 1),
+            horizon AS (
+                UPDATE task_sync_horizon h SET change_xid = last.change_xid, change_seq = last.change_seq, id = last.id
+                FROM last WHERE (last.change_xid, last.change_seq, last.id) > (h.change_xid, h.change_seq, h.id))
+            SELECT count(*) FROM pruned""";
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+
+    @Override
+    public Mono<TaskEntity> insertIfAbsent(TaskEntity task) {
+        return databaseClient.sql(INSERT_IF_ABSENT)
+                .bind("description", task.getDescription())
+                .bind("completed", task.isCompleted())
+                .bind("createdAt", task.getCreatedAt())
+                .bind("updatedAt", task.getUpdatedAt())
+                .map((row, metadata) -> converter.read(TaskEntity.class, row, metadata))
+                .one();
+    }
+
+    @Override
+    public Flux<TaskEntity> insertAllIfAbsent(List<TaskEntity> tasks, Instant createdAt) {
+        String[] descriptions = new String[tasks.size()];
+        Boolean[] completed = new Boolean[tasks.size()];
+        for (int i = 0; i < tasks.size(); i++) {
+            descriptions[i] = tasks.get(i).getDescription();
+            completed[i] = tasks.get(i).isCompleted();
+        }
+        return databaseClient.sql(INSERT_ALL_IF_ABSENT)
+                .bind("descriptions", descriptions)
+                .bind("completed", completed)
+                .bind("createdAt", createdAt)
+                .map((row, metadata) -> converter.read(TaskEntity.class, row, metadata))
+                .all();
+    }
+
+    @Override
+    public Flux<TaskEntity> findPage(TaskFilter filter, TaskSort sort, Instant after, UUID afterId, int limit) {
+        TaskPageQuery query = TaskPageQuery.of(filter, sort, after, afterId, limit);
+        return query.bind(databaseClient.sql(query.sql()))
+                .map((row, metadata) -> converter.read(TaskEntity.class, row, metadata))
+                .all();
+    }
+
+    @Override
+    public Flux<TaskEntity> search(String query, TaskSearchMode mode, int limit) {
+        TaskSearchQuery search = TaskSearchQuery.of(query, mode, limit);
+        return search.bind(databaseClient.sql(search.sql()))
+                .map((row, metadata) -> converter.read(TaskEntity.class, row, metadata))
+                .all();
+    }
+
+    @Override
+    public Flux<TaskChangeEntry> findChangesSince(TaskChangePosition since, int limit) {
+        return databaseClient.sql(FIND_CHANGES_SINCE)
+                .bind("sinceXid", since.xid())
+                .bind("sinceSeq", since.seq())
+                .bind("sinceId", since.id())
+                .bind("limit", limit)
+                .map((row, metadata) -> new TaskChangeEntry(
+                        row.get("change_xid", Long.class),
+                        row.get("change_seq", Long.class),
+                        row.get("id", UUID.class),
+                        Boolean.TRUE.equals(row.get("deleted", Boolean.class))
+                                ? null
+                                : converter.read(TaskEntity.class, row, metadata)))
+                .all();
+    }
+
+    @Override
+    public Mono<TaskChangePosition> findSyncHorizon() {
+        return databaseClient.sql(FIND_SYNC_HORIZON)
+                .map(row -> new TaskChangePosition(
+                        row.get("change_xid", Long.class),
+                        row.get("change_seq", Long.class),
+                        row.get("id", UUID.class)))
+                .one();
+    }
+
+    @Override
+    public Mono<Long> pruneTombstones(Instant deletedBefore) {
+        return databaseClient.sql(PRUNE_TOMBSTONES)
+                .bind("deletedBefore", deletedBefore)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.nzuwera.todoapp.repository;
+
+import io.github.nzuwera.todoapp.model.TaskSearchMode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statement searching task descriptions. Full-text search matches the query, parsed like a web
+ * search, against the English tsvector of the description and ranks the matches; substring and
+ * fuzzy search match trigrams, so all three are answered from a GIN index. The tsvector is written
+ * exactly as the expression of its index, otherwise the index is not used.
+ */
+record TaskSearchQuery(String sql, Map<String, Object> bindings) implements TaskQuery {
+    private static final String SELECT = "SELECT id, description, completed, created_at, updated_at FROM tasks";
+    private static final String TSVECTOR = "to_tsvector('english', description)";
+    private static final String TEXT = SELECT + """
+            , websearch_to_tsquery('english', :query) AS query
+            WHERE %1$s @@ query
+            ORDER BY ts_rank(%1$s, query) DESC, created_at, id
+            LIMIT :limit""".formatted(TSVECTOR);
+    private static final String SUBSTRING = SELECT + """
+             WHERE description ILIKE :query
+            ORDER BY created_at, id
+            LIMIT :limit""";
+    // <% holds when the query is at least as similar to some words of the description as
+    // pg_trgm.word_similarity_threshold (0.6)
+    private static final String FUZZY = SELECT + """
+             WHERE :query <% description
+            ORDER BY word_similarity(:query, description) DESC, created_at, id
+            LIMIT :limit""";
+
+    static TaskSearchQuery of(String query, TaskSearchMode mode, int limit) {
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        bindings.put("query", mode == TaskSearchMode.SUBSTRING ? "%" + escapeLike(query) + "%" : query);
+        bindings.put("limit", limit);
+        String sql = switch (mode) {
+            case TEXT -> TEXT;
+            case SUBSTRING -> SUBSTRING;
+            case FUZZY -> FUZZY;
+        };
+        return new TaskSearchQuery(sql, bindings);
+    }
+
+    /**
+     * Escapes the LIKE wildcards, so the query is matched literally.
+     */
+    static String escapeLike(String query) {
+        return query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,16 +1,47 @@
 package io.github.nzuwera.todoapp.service;
 
 import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.model.TaskBatchResult;
+import io.github.nzuwera.todoapp.model.TaskBulkResult;
+import io.github.nzuwera.todoapp.model.TaskBulkUpdate;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import io.github.nzuwera.todoapp.model.TaskFilter;
+import io.github.nzuwera.todoapp.model.TaskLookupResult;
+import io.github.nzuwera.todoapp.model.TaskPage;
+import io.github.nzuwera.todoapp.model.TaskSync;
 import jakarta.validation.Valid;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.util.List;
+
 public interface ITaskService {
-    Flux<Task> getTasks();
+    Mono<TaskPage> getTasks(Integer limit, String after);
+
+    Mono<TaskPage> getTasks(TaskFilter filter, String sort, Integer limit, String after);
+
+    Flux<Task> searchTasks(String query, String mode, Integer limit);
+
+    Mono<String> getTasksVersion();
+
+    Mono<TaskSync> syncTasks(String since, Integer limit);
+
+    Mono<Task> getTask(String taskId);
+
+    Mono<TaskLookupResult> getTasks(List<String> taskIds);
 
     Mono<Task> createTask(@Valid Task task);
 
-    Mono<Task> updateTask(String taskId, Task task);
+    Flux<TaskBatchResult> createTasks(Flux<Task> tasks);
+
+    Mono<Task> updateTask(String taskId, Task task, Instant expectedUpdatedAt);
+
+    Mono<TaskBulkResult> updateTasks(TaskBulkUpdate update);
+
+    Mono<Void> deleteTask(String taskId, Instant expectedUpdatedAt);
+
+    Mono<TaskBulkResult> deleteTasks(List<String> taskIds, Boolean completed, Instant updatedBefore);
 
-    Mono<Void> deleteTask(String taskId);
+    Flux<TaskChangeEvent> getTaskChanges();
 }
@@ -0,0 +1,66 @@
+package io.github.nzuwera.todoapp.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of single tasks, evicting by size and time since write.
+ * <p>
+ * Loads are shared between concurrent readers of the same task, and invalidating a task
+ * also drops a load still in flight, so a read racing with a write never caches the old row.
+ */
+public class TaskCache {
+    private final AsyncCache<UUID, Task> cache;
+
+    public TaskCache(long maximumSize, Duration timeToLive) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the cached task or loads it. An empty load is not cached.
+     */
+    public Mono<Task> get(UUID taskId, Function<UUID, Mono<Task>> loader) {
+        return Mono.deferContextual(context -> Mono.fromFuture(
+                cache.get(taskId, (id, executor) -> loader.apply(id).contextWrite(context).toFuture()),
+                true));
+    }
+
+    public void invalidate(UUID taskId) {
+        cache.synchronous().invalidate(taskId);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Drops what a change made by this or another instance turned stale.
+     */
+    public void apply(TaskChangeEvent event) {
+        if (event.taskId() == null) {
+            invalidateAll();
+        } else {
+            invalidate(UUID.fromString(event.taskId()));
+        }
+    }
+
+    /**
+     * Publishes hit, miss, eviction and size metrics under the {@code cache.*} meters.
+     */
+    public void bindTo(MeterRegistry registry, String name) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.nzuwera.todoapp.service;
+
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.exceptions.TaskBadRequestException;
+import io.github.nzuwera.todoapp.model.TaskSort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in a task listing: the sort value, {@code created_at} or {@code updated_at}
+ * depending on the order, and the id of the last task seen.
+ * Clients only ever see the encoded, URL-safe form.
+ */
+record TaskCursor(Instant sortValue, UUID id) {
+    private static final String SEPARATOR = "|";
+
+    static TaskCursor of(TaskEntity entity, TaskSort sort) {
+        return new TaskCursor(sort.byUpdatedAt() ? entity.getUpdatedAt() : entity.getCreatedAt(), entity.getId());
+    }
+
+    static TaskCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new TaskBadRequestException("Invalid cursor: " + cursor);
+            }
+            return new TaskCursor(
+                    Instant.parse(decoded.substring(0, separator)),
+                    UUID.fromString(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new TaskBadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    String encode() {
+        String raw = sortValue + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
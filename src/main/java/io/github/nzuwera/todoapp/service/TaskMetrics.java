@@ -0,0 +1,211 @@
+package io.github.nzuwera.todoapp.service;
+
+import io.github.nzuwera.todoapp.exceptions.TaskAlreadyExistException;
+import io.github.nzuwera.todoapp.exceptions.TaskBadRequestException;
+import io.github.nzuwera.todoapp.exceptions.TaskNotFoundException;
+import io.github.nzuwera.todoapp.exceptions.TaskPreconditionFailedException;
+import io.github.nzuwera.todoapp.exceptions.TaskSyncExpiredException;
+import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.model.TaskBulkResult;
+import io.github.nzuwera.todoapp.model.TaskLookupResult;
+import io.github.nzuwera.todoapp.model.TaskPage;
+import io.github.nzuwera.todoapp.model.TaskSync;
+import io.github.nzuwera.todoapp.observability.TaskOperationEvent;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolationException;
+import reactor.core.observability.DefaultSignalListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Times the operations of the {@link TaskService}, from subscription to the terminal signal.
+ * <p>
+ * Every operation is recorded under the {@code todo.tasks.operations} timer, tagged with the
+ * operation and its outcome: {@code ok}, {@code not_found}, {@code conflict} for a duplicate
+ * description or a failed precondition, {@code bad_request}, {@code error} for anything else,
+ * and {@code cancelled} when the caller went away first. Streams of live changes are tracked
+ * by the {@code todo.tasks.change.streams} long task timer instead.
+ * <p>
+ * While a flight recording collects them, every operation also emits a
+ * {@link TaskOperationEvent} with the task id when there is one and the number of tasks
+ * returned or affected.
+ */
+public class TaskMetrics {
+    static final String OPERATIONS = "todo.tasks.operations";
+    static final String CHANGE_STREAMS = "todo.tasks.change.streams";
+
+    private final Meter.MeterProvider<Timer> timers;
+    private final LongTaskTimer changeStreams;
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    public TaskMetrics(MeterRegistry registry) {
+        this.timers = Timer.builder(OPERATIONS)
+                .description("Duration of task service operations")
+                .withRegistry(registry);
+        this.changeStreams = LongTaskTimer.builder(CHANGE_STREAMS)
+                .description("Open streams of live task changes")
+                .register(registry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Function<Mono<T>, Mono<T>> timed(String operation) {
+        return (Function<Mono<T>, Mono<T>>) (Function<?, ?>) operation(operation).timedMono;
+    }
+
+    /**
+     * Times an operation on a single task, whose id is kept in the flight recorder event.
+     */
+    public <T> Function<Mono<T>, Mono<T>> timed(String operation, String taskId) {
+        if (!TaskOperationEvent.isRecorded()) {
+            return timed(operation);
+        }
+        Operation timed = operation(operation);
+        return mono -> mono.tap(() -> new Timing<>(timed, taskId));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Function<Flux<T>, Flux<T>> timedMany(String operation) {
+        return (Function<Flux<T>, Flux<T>>) (Function<?, ?>) operation(operation).timedFlux;
+    }
+
+    public <T> Function<Flux<T>, Flux<T>> changeStream() {
+        return flux -> Flux.using(changeStreams::start, sample -> flux, LongTaskTimer.Sample::stop);
+    }
+
+    private Operation operation(String name) {
+        Operation operation = operations.get(name);
+        if (operation == null) {
+            operation = operations.computeIfAbsent(name, Operation::new);
+        }
+        return operation;
+    }
+
+    static String outcome(Throwable ex) {
+        if (ex instanceof TaskNotFoundException) {
+            return "not_found";
+        }
+        if (ex instanceof TaskAlreadyExistException || ex instanceof TaskPreconditionFailedException) {
+            return "conflict";
+        }
+        if (ex instanceof TaskBadRequestException || ex instanceof ConstraintViolationException) {
+            return "bad_request";
+        }
+        if (ex instanceof TaskSyncExpiredException) {
+            return "expired";
+        }
+        return "error";
+    }
+
+    /**
+     * Tasks returned or affected by an operation emitting the given value.
+     */
+    static long rows(Object value) {
+        if (value instanceof Task) {
+            return 1;
+        }
+        if (value instanceof TaskPage page) {
+            return page.tasks().size();
+        }
+        if (value instanceof TaskLookupResult result) {
+            return result.tasks().size();
+        }
+        if (value instanceof TaskSync sync) {
+            return sync.tasks().size() + sync.deletedIds().size();
+        }
+        if (value instanceof TaskBulkResult result) {
+            return result.affected();
+        }
+        if (value instanceof Long count) {
+            return count;
+        }
+        return value instanceof String ? 0 : 1;
+    }
+
+    /**
+     * Timers of one operation, registered by outcome on first use. The transformers are built
+     * once, so timing a call only allocates the operator and its listener.
+     */
+    private final class Operation {
+        private final String name;
+        private final Map<String, Timer> byOutcome = new ConcurrentHashMap<>();
+        private final Function<Mono<Object>, Mono<Object>> timedMono;
+        private final Function<Flux<Object>, Flux<Object>> timedFlux;
+
+        Operation(String name) {
+            this.name = name;
+            this.timedMono = mono -> mono.tap(() -> new Timing<>(this, null));
+            this.timedFlux = flux -> flux.tap(() -> new Timing<>(this, null));
+        }
+
+        void record(String outcome, long start) {
+            Timer timer = byOutcome.get(outcome);
+            if (timer == null) {
+                timer = byOutcome.computeIfAbsent(outcome, key -> timers.withTags("operation", name, "outcome", key));
+            }
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static final class Timing<T> extends DefaultSignalListener<T> {
+        private final Operation operation;
+        private final String taskId;
+        private TaskOperationEvent event;
+        private long rows;
+        private long start;
+
+        Timing(Operation operation, String taskId) {
+            this.operation = operation;
+            this.taskId = taskId;
+        }
+
+        @Override
+        public void doFirst() {
+            if (TaskOperationEvent.isRecorded()) {
+                event = new TaskOperationEvent();
+                event.begin();
+            }
+            start = System.nanoTime();
+        }
+
+        @Override
+        public void doOnNext(T value) {
+            if (event != null) {
+                rows += rows(value);
+            }
+        }
+
+        @Override
+        public void doOnComplete() {
+            finish("ok");
+        }
+
+        @Override
+        public void doOnError(Throwable error) {
+            finish(outcome(error));
+        }
+
+        @Override
+        public void doOnCancel() {
+            finish("cancelled");
+        }
+
+        private void finish(String outcome) {
+            operation.record(outcome, start);
+            if (event != null && event.shouldCommit()) {
+                event.operation = operation.name;
+                event.taskId = taskId;
+                event.rows = rows;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+}
@@ -1,82 +1,491 @@
 package io.github.nzuwera.todoapp.service;
 
-import io.github.nzuwera.todoapp.repository.TaskRepository;
+import io.github.nzuwera.todoapp.config.TaskProperties;
+import io.github.nzuwera.todoapp.exceptions.TaskAlreadyExistException;
+import io.github.nzuwera.todoapp.exceptions.TaskBadRequestException;
+import io.github.nzuwera.todoapp.exceptions.TaskNotFoundException;
+import io.github.nzuwera.todoapp.exceptions.TaskPreconditionFailedException;
+import io.github.nzuwera.todoapp.exceptions.TaskSyncExpiredException;
+import io.github.nzuwera.todoapp.entity.TaskChangeEntry;
+import io.github.nzuwera.todoapp.entity.TaskChangePosition;
 import io.github.nzuwera.todoapp.entity.TaskEntity;
 import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.model.TaskBatchResult;
+import io.github.nzuwera.todoapp.model.TaskBulkResult;
+import io.github.nzuwera.todoapp.model.TaskBulkUpdate;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import io.github.nzuwera.todoapp.model.TaskFilter;
+import io.github.nzuwera.todoapp.model.TaskLookupResult;
+import io.github.nzuwera.todoapp.model.TaskPage;
+import io.github.nzuwera.todoapp.model.TaskSearchMode;
+import io.github.nzuwera.todoapp.model.TaskSort;
+import io.github.nzuwera.todoapp.model.TaskSync;
+import io.github.nzuwera.todoapp.store.TaskStore;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TaskService implements ITaskService {
-    private final TaskRepository taskRepository;
+    private static final String TASK_NOT_FOUND = "Task with id %s not found";
+    private static final String TASK_ALREADY_EXISTS = "Task with description '%s' already exists";
+    private static final String TASK_MODIFIED = "Task with id %s was modified since it was read";
+    private static final int MAX_SEARCH_QUERY_LENGTH = 255;
+    // Shorter substrings have no complete trigram, the trigram index could not narrow the scan
+    private static final int MIN_SUBSTRING_QUERY_LENGTH = 3;
 
-    private static Task mapToTask(TaskEntity entity) {
-        Task newTask = new Task();
-        newTask.setId(entity.getId().toString());
-        newTask.setDescription(entity.getDescription());
-        newTask.setCompleted(entity.isCompleted());
-        newTask.setCreatedAt(entity.getCreatedAt().toString());
-        newTask.setUpdatedAt(entity.getUpdatedAt().toString());
-        return newTask;
+    private final TaskStore taskStore;
+    private final TaskProperties taskProperties;
+    private final Validator validator;
+    private final TaskCache taskCache;
+    private final TaskMetrics taskMetrics;
+
+    static Task mapToTask(TaskEntity entity) {
+        return new Task(entity.getId(), entity.getDescription(), entity.isCompleted(), entity.getCreatedAt(), entity.getUpdatedAt());
+    }
+
+    @Override
+    public Mono<TaskPage> getTasks(Integer limit, String after) {
+        return getTasks(TaskFilter.NONE, null, limit, after);
+    }
+
+    /**
+     * Lists a page of tasks. The unfiltered listing in creation order keeps its fixed statements,
+     * any other combination goes through the store's filtered listing. A cursor is only
+     * meaningful with the filter and order of the page it was taken from.
+     */
+    @Override
+    public Mono<TaskPage> getTasks(TaskFilter filter, String sort, Integer limit, String after) {
+        return Mono.defer(() -> {
+            int pageSize = resolvePageSize(limit);
+            TaskSort order = resolveSort(sort);
+            TaskCursor cursor = after == null ? null : TaskCursor.decode(after);
+            // One extra row tells whether another page follows without a count query
+            Flux<TaskEntity> rows;
+            if (filter.isEmpty() && order == TaskSort.CREATED_AT) {
+                rows = cursor == null
+                        ? taskStore.findFirstPage(pageSize + 1)
+                        : taskStore.findPageAfter(cursor.sortValue(), cursor.id(), pageSize + 1);
+            } else {
+                rows = taskStore.findPage(filter, order, cursor == null ? null : cursor.sortValue(),
+                        cursor == null ? null : cursor.id(), pageSize + 1);
+            }
+            return rows.collectList().map(entities -> toTaskPage(entities, pageSize, order));
+        }).transform(taskMetrics.timed("getTasks"));
+    }
+
+    /**
+     * Streams the tasks whose description matches the query, best match first, up to a page of
+     * tasks. Full-text search ({@code text}, the default) is ranked, {@code substring} and
+     * {@code fuzzy} search tolerate partial words and typos.
+     */
+    @Override
+    public Flux<Task> searchTasks(String query, String mode, Integer limit) {
+        return Flux.defer(() -> {
+            TaskSearchMode searchMode = resolveSearchMode(mode);
+            if (query == null || query.isBlank()) {
+                throw new TaskBadRequestException("Search query must not be blank");
+            }
+            String text = query.strip();
+            if (text.length() > MAX_SEARCH_QUERY_LENGTH) {
+                throw new TaskBadRequestException("Search query cannot be longer than %d characters".formatted(MAX_SEARCH_QUERY_LENGTH));
+            }
+            if (searchMode == TaskSearchMode.SUBSTRING && text.length() < MIN_SUBSTRING_QUERY_LENGTH) {
+                throw new TaskBadRequestException("Substring search needs at least %d characters".formatted(MIN_SUBSTRING_QUERY_LENGTH));
+            }
+            return taskStore.search(text, searchMode, resolvePageSize(limit)).map(TaskService::mapToTask);
+        }).transform(taskMetrics.timedMany("searchTasks"));
+    }
+
+    /**
+     * Cheap version of the task list, any write changes it. Used to answer conditional
+     * list requests without reading the rows.
+     */
+    @Override
+    public Mono<String> getTasksVersion() {
+        return taskStore.findVersion().transform(taskMetrics.timed("getTasksVersion"));
+    }
+
+    /**
+     * Returns the changes made after the {@code since} token, so a client that already holds the
+     * tasks only downloads what changed. Without a token every task is returned. A token older
+     * than the sync horizon may have missed deletions whose tombstones were pruned since, the
+     * client has to sync from scratch.
+     */
+    @Override
+    public Mono<TaskSync> syncTasks(String since, Integer limit) {
+        return Mono.defer(() -> {
+            TaskChangePosition from = since == null ? TaskChangePosition.START : TaskSyncToken.decode(since);
+            int pageSize = resolvePageSize(limit);
+            // One extra change tells whether another sync round is needed
+            Mono<TaskSync> sync = taskStore.findChangesSince(from, pageSize + 1)
+                    .collectList()
+                    .map(entries -> toTaskSync(entries, from, pageSize));
+            if (since == null) {
+                return sync;
+            }
+            // Read after the changes, the horizon covers every prune that could have removed one
+            return sync.zipWhen(ignored -> taskStore.findSyncHorizon(), (result, horizon) -> {
+                if (from.compareTo(horizon) < 0) {
+                    throw new TaskSyncExpiredException("Sync token %s has expired, sync again without it".formatted(since));
+                }
+                return result;
+            });
+        }).transform(taskMetrics.timed("syncTasks"));
     }
 
+    /**
+     * Reads a task through the task cache. Writes invalidate the cached copy, locally right away
+     * and on other replicas through the database change notifications.
+     */
     @Override
-    public Flux<Task> getTasks() {
-        return taskRepository.findAll().map(TaskService::mapToTask);
+    public Mono<Task> getTask(String taskId) {
+        return Mono.defer(() -> taskCache.get(parseTaskId(taskId), id -> taskStore.findById(id).map(TaskService::mapToTask)))
+                .switchIfEmpty(Mono.error(() -> new TaskNotFoundException(TASK_NOT_FOUND.formatted(taskId))))
+                .transform(taskMetrics.timed("getTask", taskId));
+    }
+
+    /**
+     * Fetches many tasks with a single query. Ids that are not valid UUIDs cannot match
+     * a task and are reported as missing, like unknown ids.
+     */
+    @Override
+    public Mono<TaskLookupResult> getTasks(List<String> taskIds) {
+        return Mono.defer(() -> {
+            if (taskIds.size() > taskProperties.maxBulkIds()) {
+                throw new TaskBadRequestException("At most %d ids can be used at once".formatted(taskProperties.maxBulkIds()));
+            }
+            Map<String, UUID> requested = new LinkedHashMap<>();
+            for (String taskId : taskIds) {
+                if (!requested.containsKey(taskId)) {
+                    requested.put(taskId, tryParseTaskId(taskId));
+                }
+            }
+            UUID[] ids = requested.values().stream().filter(Objects::nonNull).distinct().toArray(UUID[]::new);
+            Mono<Map<UUID, TaskEntity>> found = ids.length == 0
+                    ? Mono.just(Map.of())
+                    : taskStore.findAllByIds(ids).collectMap(TaskEntity::getId);
+            return found.map(rows -> {
+                List<Task> tasks = new ArrayList<>(rows.size());
+                List<String> missing = new ArrayList<>();
+                requested.forEach((taskId, id) -> {
+                    TaskEntity row = id == null ? null : rows.get(id);
+                    if (row == null) {
+                        missing.add(taskId);
+                    } else {
+                        tasks.add(mapToTask(row));
+                    }
+                });
+                return new TaskLookupResult(tasks, missing);
+            });
+        }).transform(taskMetrics.timed("getTasksByIds"));
     }
 
     @Override
     public Mono<Task> createTask(Task task) {
-        return checkTaskExists(task.getDescription())
-                .then(Mono.defer(() -> saveNewTask(task)));
+        return Mono.defer(() -> saveNewTask(task)).transform(taskMetrics.timed("createTask"));
+    }
+
+    @Override
+    public Flux<TaskBatchResult> createTasks(Flux<Task> tasks) {
+        return tasks.index(IndexedTask::new)
+                .bufferTimeout(taskProperties.batchSize(), taskProperties.batchMaxWait())
+                .concatMap(this::saveNewTasks)
+                .transform(taskMetrics.timedMany("createTasks"));
     }
 
+    /**
+     * Updates a task in one statement. With an {@code expectedUpdatedAt}, the update only applies
+     * when the task was not modified since; the existence check then only runs on a mismatch.
+     */
     @Override
-    public Mono<Task> updateTask(String taskId, Task task) {
-        return taskRepository.findById(UUID.fromString(taskId))
-                .flatMap(existingTask -> {
-                    existingTask.setDescription(task.getDescription());
-                    existingTask.setCompleted(task.isCompleted());
-                    existingTask.setUpdatedAt(Instant.now());
-                    return taskRepository.save(existingTask);
+    public Mono<Task> updateTask(String taskId, Task task, Instant expectedUpdatedAt) {
+        return Mono.defer(() -> {
+                    UUID id = parseTaskId(taskId);
+                    return taskStore.updateTask(id, task.description(), task.completed(), Instant.now(), expectedUpdatedAt)
+                            .doOnNext(updated -> taskCache.invalidate(id))
+                            .switchIfEmpty(notFoundOrModified(id, taskId, expectedUpdatedAt));
                 })
-                .map(TaskService::mapToTask);
+                .onErrorMap(DuplicateKeyException.class,
+                        ex -> new TaskAlreadyExistException(TASK_ALREADY_EXISTS.formatted(task.description())))
+                .map(TaskService::mapToTask)
+                .transform(taskMetrics.timed("updateTask", taskId));
+    }
+
+    /**
+     * Changes the completed state of many tasks with one set-based statement. Tasks already
+     * in the target state are left untouched and are not counted as affected.
+     */
+    @Override
+    public Mono<TaskBulkResult> updateTasks(TaskBulkUpdate update) {
+        return Mono.defer(() -> {
+            boolean hasIds = update.ids() != null;
+            if (hasIds == (update.filter() != null)) {
+                throw new TaskBadRequestException("Exactly one of ids or filter must be provided");
+            }
+            Instant now = Instant.now();
+            if (hasIds) {
+                UUID[] ids = parseTaskIds(update.ids());
+                return taskStore.updateCompletedByIds(ids, update.completed(), now)
+                        .doOnNext(updatedRows -> invalidate(ids))
+                        .map(TaskBulkResult::new);
+            }
+            return taskStore.updateCompletedByState(update.filter().completed(), update.completed(), now)
+                    .doOnNext(updatedRows -> taskCache.invalidateAll())
+                    .map(TaskBulkResult::new);
+        }).transform(taskMetrics.timed("updateTasks"));
+    }
+
+    @Override
+    public Mono<Void> deleteTask(String taskId, Instant expectedUpdatedAt) {
+        return Mono.defer(() -> {
+            UUID id = parseTaskId(taskId);
+            return taskStore.deleteTaskById(id, expectedUpdatedAt)
+                    .doOnNext(deletedRows -> taskCache.invalidate(id))
+                    .filter(deletedRows -> deletedRows > 0)
+                    .switchIfEmpty(notFoundOrModified(id, taskId, expectedUpdatedAt));
+        }).transform(taskMetrics.timed("deleteTask", taskId)).then();
+    }
+
+    private <T> Mono<T> notFoundOrModified(UUID id, String taskId, Instant expectedUpdatedAt) {
+        if (expectedUpdatedAt == null) {
+            return Mono.error(() -> new TaskNotFoundException(TASK_NOT_FOUND.formatted(taskId)));
+        }
+        return Mono.defer(() -> taskStore.existsById(id)).flatMap(exists -> Mono.error(exists
+                ? new TaskPreconditionFailedException(TASK_MODIFIED.formatted(taskId))
+                : new TaskNotFoundException(TASK_NOT_FOUND.formatted(taskId))));
     }
 
+    /**
+     * Deletes tasks by id or by filter in chunks of at most {@code deleteChunkSize} rows. Every
+     * chunk is its own statement, so a large cleanup never holds locks on all rows in one transaction.
+     */
     @Override
-    public Mono<Void> deleteTask(String taskId) {
-        return taskRepository.findById(UUID.fromString(taskId))
-                .flatMap(existingTask -> taskRepository.delete(existingTask))
-                .then();
+    public Mono<TaskBulkResult> deleteTasks(List<String> taskIds, Boolean completed, Instant updatedBefore) {
+        return Mono.defer(() -> {
+            boolean hasIds = taskIds != null;
+            boolean hasFilter = completed != null || updatedBefore != null;
+            if (hasIds == hasFilter) {
+                throw new TaskBadRequestException("Exactly one of ids or a filter (completed, updatedBefore) must be provided");
+            }
+            int chunkSize = taskProperties.deleteChunkSize();
+            Flux<Long> deletedChunks = hasIds
+                    ? Flux.fromArray(parseTaskIds(taskIds))
+                            .buffer(chunkSize)
+                            .concatMap(chunk -> {
+                                UUID[] ids = chunk.toArray(UUID[]::new);
+                                return taskStore.deleteByIds(ids).doOnNext(deletedRows -> invalidate(ids));
+                            })
+                    : taskStore.deleteChunkByState(completed, updatedBefore, chunkSize)
+                            .expand(deletedRows -> deletedRows < chunkSize
+                                    ? Mono.empty()
+                                    : taskStore.deleteChunkByState(completed, updatedBefore, chunkSize))
+                            .doOnComplete(taskCache::invalidateAll);
+            return deletedChunks.reduce(0L, Long::sum).map(TaskBulkResult::new);
+        }).transform(taskMetrics.timed("deleteTasks"));
+    }
+
+    /**
+     * Live feed of the changes made by any replica. Every subscriber shares the change stream
+     * of the task store and starts with a {@link TaskChangeEvent.Type#RESET}. A subscriber
+     * falling more than {@code changeBufferSize} events behind is completed instead of slowing
+     * down the others; it catches up by reconnecting and fetching the tasks again.
+     */
+    @Override
+    public Flux<TaskChangeEvent> getTaskChanges() {
+        return taskStore.changes()
+                .onBackpressureBuffer(taskProperties.changeBufferSize())
+                .onErrorComplete(Exceptions::isOverflow)
+                .startWith(TaskChangeEvent.reset())
+                .transform(taskMetrics.changeStream());
+    }
+
+    /**
+     * Writes one batch with a single multi-row insert and reports a result per task,
+     * in submission order. Invalid tasks are reported without reaching the database.
+     */
+    private Flux<TaskBatchResult> saveNewTasks(List<IndexedTask> batch) {
+        List<String> violations = new ArrayList<>(batch.size());
+        List<TaskEntity> entities = new ArrayList<>(batch.size());
+        for (IndexedTask item : batch) {
+            String violation = validate(item.task());
+            violations.add(violation);
+            if (violation == null) {
+                entities.add(mapToTaskEntity(item.task(), null));
+            }
+        }
+        Mono<Map<String, TaskEntity>> inserted = entities.isEmpty()
+                ? Mono.just(new HashMap<>())
+                : taskStore.insertAllIfAbsent(entities, Instant.now())
+                        .collectMap(TaskEntity::getDescription);
+        return inserted.flatMapIterable(rows -> {
+            List<TaskBatchResult> results = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                IndexedTask item = batch.get(i);
+                String description = item.task().description();
+                TaskEntity row;
+                if (violations.get(i) != null) {
+                    results.add(TaskBatchResult.invalid(item.index(), violations.get(i)));
+                } else if ((row = rows.remove(description)) != null) {
+                    results.add(TaskBatchResult.created(item.index(), mapToTask(row)));
+                } else {
+                    results.add(TaskBatchResult.conflict(item.index(), TASK_ALREADY_EXISTS.formatted(description)));
+                }
+            }
+            return results;
+        });
+    }
+
+    private void invalidate(UUID[] ids) {
+        for (UUID id : ids) {
+            taskCache.invalidate(id);
+        }
+    }
+
+    private String validate(Task task) {
+        var violations = validator.validate(task);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return taskProperties.defaultPageSize();
+        }
+        if (limit < 1) {
+            throw new TaskBadRequestException("Limit must be a positive number");
+        }
+        return Math.min(limit, taskProperties.maxPageSize());
     }
 
-    private Mono<Void> checkTaskExists(String description) {
-        return taskRepository.findByDescription(description)
-                .flatMap(existingTask -> Mono.error(
-                        new IllegalArgumentException("Task with this description already exists")
-                ))
-                .then();
+    private static TaskSort resolveSort(String sort) {
+        if (sort == null) {
+            return TaskSort.CREATED_AT;
+        }
+        TaskSort order = TaskSort.fromParameter(sort);
+        if (order == null) {
+            throw new TaskBadRequestException("Sort must be one of " + Arrays.stream(TaskSort.values())
+                    .map(TaskSort::parameter)
+                    .collect(Collectors.joining(", ")));
+        }
+        return order;
     }
 
+    private static TaskSearchMode resolveSearchMode(String mode) {
+        if (mode == null) {
+            return TaskSearchMode.TEXT;
+        }
+        TaskSearchMode searchMode = TaskSearchMode.fromParameter(mode);
+        if (searchMode == null) {
+            throw new TaskBadRequestException("Mode must be one of " + Arrays.stream(TaskSearchMode.values())
+                    .map(TaskSearchMode::parameter)
+                    .collect(Collectors.joining(", ")));
+        }
+        return searchMode;
+    }
+
+    private static TaskPage toTaskPage(List<TaskEntity> entities, int pageSize, TaskSort sort) {
+        if (entities.size() <= pageSize) {
+            return new TaskPage(entities.stream().map(TaskService::mapToTask).toList(), null);
+        }
+        List<TaskEntity> page = entities.subList(0, pageSize);
+        return new TaskPage(
+                page.stream().map(TaskService::mapToTask).toList(),
+                TaskCursor.of(page.getLast(), sort).encode());
+    }
+
+    private static TaskSync toTaskSync(List<TaskChangeEntry> entries, TaskChangePosition since, int pageSize) {
+        boolean hasMore = entries.size() > pageSize;
+        List<TaskChangeEntry> page = hasMore ? entries.subList(0, pageSize) : entries;
+        List<Task> tasks = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+        for (TaskChangeEntry entry : page) {
+            if (entry.deleted()) {
+                deletedIds.add(entry.id().toString());
+            } else {
+                tasks.add(mapToTask(entry.task()));
+            }
+        }
+        TaskChangePosition next = page.isEmpty() ? since : page.getLast().position();
+        return new TaskSync(tasks, deletedIds, TaskSyncToken.encode(next), hasMore);
+    }
+
+    /**
+     * Parses a task id coming from the API. An id that is not a valid UUID cannot
+     * match any row, so it is reported as not found rather than as a server error.
+     */
+    private static UUID parseTaskId(String taskId) {
+        try {
+            return UUID.fromString(taskId);
+        } catch (IllegalArgumentException ex) {
+            throw new TaskNotFoundException(TASK_NOT_FOUND.formatted(taskId));
+        }
+    }
+
+    private static UUID tryParseTaskId(String taskId) {
+        try {
+            return taskId == null ? null : UUID.fromString(taskId);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private UUID[] parseTaskIds(List<String> taskIds) {
+        if (taskIds.size() > taskProperties.maxBulkIds()) {
+            throw new TaskBadRequestException("At most %d ids can be used at once".formatted(taskProperties.maxBulkIds()));
+        }
+        UUID[] ids = new UUID[taskIds.size()];
+        for (int i = 0; i < ids.length; i++) {
+            try {
+                ids[i] = UUID.fromString(taskIds.get(i));
+            } catch (IllegalArgumentException | NullPointerException ex) {
+                throw new TaskBadRequestException("Invalid task id: " + taskIds.get(i));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts the task in a single round trip. The unique index on description
+     * decides conflicts, so concurrent creates on different replicas cannot both win.
+     */
     private Mono<Task> saveNewTask(Task task) {
-        TaskEntity taskEntity = mapToTaskEntity(task);
-        return taskRepository.save(taskEntity)
+        return taskStore.insertIfAbsent(mapToTaskEntity(task, Instant.now()))
+                .switchIfEmpty(Mono.error(() ->
+                        new TaskAlreadyExistException(TASK_ALREADY_EXISTS.formatted(task.description()))))
                 .map(TaskService::mapToTask);
     }
 
-    private static TaskEntity mapToTaskEntity(Task task) {
-        TaskEntity taskEntity = new TaskEntity();
-        taskEntity.setDescription(task.getDescription());
-        taskEntity.setCompleted(task.isCompleted());
-        taskEntity.setUpdatedAt(Instant.parse(task.getUpdatedAt()));
-        taskEntity.setCreatedAt(Instant.parse(task.getCreatedAt()));
-        return taskEntity;
+    private record IndexedTask(long index, Task task) {
+    }
+
+    /**
+     * Maps the client supplied fields of a new task, the id and timestamps are the server's.
+     */
+    static TaskEntity mapToTaskEntity(Task task, Instant now) {
+        return new TaskEntity(null, task.description(), task.completed(), now, now);
     }
 }
 
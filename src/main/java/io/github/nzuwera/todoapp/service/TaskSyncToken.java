@@ -0,0 +1,42 @@
+package io.github.nzuwera.todoapp.service;
+
+import io.github.nzuwera.todoapp.entity.TaskChangePosition;
+import io.github.nzuwera.todoapp.exceptions.TaskBadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Sync token: the position of the last change a client has seen. Clients only ever see the
+ * encoded, URL-safe form.
+ */
+final class TaskSyncToken {
+    private static final String SEPARATOR = "|";
+
+    private TaskSyncToken() {
+    }
+
+    static TaskChangePosition decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split("\\|", -1);
+            if (parts.length != 3) {
+                throw new TaskBadRequestException("Invalid sync token: " + token);
+            }
+            TaskChangePosition position = new TaskChangePosition(
+                    Long.parseLong(parts[0]), Long.parseLong(parts[1]), UUID.fromString(parts[2]));
+            if (position.xid() < 0 || position.seq() < 0) {
+                throw new TaskBadRequestException("Invalid sync token: " + token);
+            }
+            return position;
+        } catch (IllegalArgumentException ex) {
+            throw new TaskBadRequestException("Invalid sync token: " + token);
+        }
+    }
+
+    static String encode(TaskChangePosition position) {
+        String raw = position.xid() + SEPARATOR + position.seq() + SEPARATOR + position.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
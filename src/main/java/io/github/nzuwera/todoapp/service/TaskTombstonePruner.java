@@ -0,0 +1,65 @@
+package io.github.nzuwera.todoapp.service;
+
+import io.github.nzuwera.todoapp.config.TaskSyncProperties;
+import io.github.nzuwera.todoapp.store.TaskStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Drops the tombstones older than {@link TaskSyncProperties#tombstoneRetention()} every
+ * {@link TaskSyncProperties#pruneInterval()}, so deletions do not pile up forever. Each instance
+ * prunes on its own; pruning again what another instance just pruned finds nothing.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TaskTombstonePruner implements SmartLifecycle {
+    private final TaskStore taskStore;
+    private final TaskSyncProperties properties;
+    private volatile Disposable subscription;
+
+    @Override
+    public void start() {
+        subscription = Flux.interval(properties.pruneInterval(), properties.pruneInterval())
+                // A prune outlasting the interval skips the ticks that fell during it
+                .onBackpressureDrop()
+                .concatMap(tick -> prune().onErrorResume(ex -> {
+                    log.warn("Pruning task tombstones failed, retrying in {}", properties.pruneInterval(), ex);
+                    return Mono.empty();
+                }), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = subscription;
+        return current != null && !current.isDisposed();
+    }
+
+    /**
+     * Drops the tombstones past their retention now and returns how many there were.
+     */
+    Mono<Long> prune() {
+        return Mono.defer(() -> taskStore.pruneTombstones(Instant.now().minus(properties.tombstoneRetention())))
+                .doOnNext(pruned -> {
+                    if (pruned > 0) {
+                        log.info("Pruned {} task tombstones", pruned);
+                    }
+                });
+    }
+}
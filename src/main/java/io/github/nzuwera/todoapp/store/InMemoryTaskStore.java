@@ -0,0 +1,563 @@
+package io.github.nzuwera.todoapp.store;
+
+import io.github.nzuwera.todoapp.entity.TaskChangeEntry;
+import io.github.nzuwera.todoapp.entity.TaskChangePosition;
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import io.github.nzuwera.todoapp.model.TaskFilter;
+import io.github.nzuwera.todoapp.model.TaskSearchMode;
+import io.github.nzuwera.todoapp.model.TaskSort;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Store keeping the tasks in memory, for running the API without Postgres. Tasks are lost on
+ * restart and not shared between instances. Selected with the {@value #PROFILE} profile.
+ * <p>
+ * Reads never block: tasks are immutable snapshots in a {@link ConcurrentHashMap}, listed through
+ * a skip list ordered like the database index. A description index claimed with
+ * {@code putIfAbsent} keeps descriptions unique, and writes to one task are serialized by the
+ * map's per-entry {@code compute}. Change sequence numbers are handed out inside that update and
+ * published in order, so a sync never skips a change that completes late. Tombstones are kept
+ * until pruned, which moves the sync horizon past them.
+ * <p>
+ * Writes are not entirely lock-free: publishing takes one short global lock, under which the
+ * completed changes are made visible and their events emitted in change order. The lock keeps the
+ * change events in the order of the sync feed and serializes the emissions the event sink needs,
+ * and it is held for the publication only, never while a change is applied or journaled.
+ */
+@Component
+@Profile(InMemoryTaskStore.PROFILE)
+public class InMemoryTaskStore implements TaskStore {
+    public static final String PROFILE = "in-memory";
+
+    private final Map<UUID, StoredTask> tasks = new ConcurrentHashMap<>();
+    private final Map<String, UUID> descriptions = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<OrderKey> order = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListMap<Long, UUID> changeLog = new ConcurrentSkipListMap<>();
+    private final Map<UUID, StoredTombstone> tombstones = new ConcurrentHashMap<>();
+    private final AtomicReference<TaskChangePosition> syncHorizon = new AtomicReference<>(TaskChangePosition.START);
+    private final AtomicLong lastChangeSeq = new AtomicLong();
+    private final AtomicLong publishedChangeSeq = new AtomicLong();
+    private final Lock publishLock = new ReentrantLock();
+    private final Condition publishedChanged = publishLock.newCondition();
+    /**
+     * Changes completed before an earlier one, by change sequence number, published once it
+     * completes. The event is {@code null} for a change that failed.
+     */
+    private final Map<Long, TaskChangeEvent> completedChanges = new HashMap<>();
+    private final Sinks.Many<TaskChangeEvent> sink = Sinks.many().multicast().directBestEffort();
+    private final TaskJournal journal;
+
+    public InMemoryTaskStore() {
+        this(TaskJournal.NONE);
+    }
+
+    /**
+     * Store recording every change in {@code journal} before it becomes visible.
+     */
+    InMemoryTaskStore(TaskJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public Mono<TaskEntity> findById(UUID id) {
+        return Mono.fromSupplier(() -> toEntity(tasks.get(id)));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(UUID id) {
+        return Mono.fromSupplier(() -> tasks.containsKey(id));
+    }
+
+    @Override
+    public Flux<TaskEntity> findFirstPage(int limit) {
+        return Flux.defer(() -> Flux.fromIterable(page(order, limit)));
+    }
+
+    @Override
+    public Flux<TaskEntity> findPageAfter(Instant createdAt, UUID id, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(page(order.tailSet(new OrderKey(createdAt, id), false), limit)));
+    }
+
+    /**
+     * Walks the creation order index for the orders by creation time; the orders by update time
+     * sort the matching tasks.
+     */
+    @Override
+    public Flux<TaskEntity> findPage(TaskFilter filter, TaskSort sort, Instant after, UUID afterId, int limit) {
+        return Flux.defer(() -> {
+            Predicate<StoredTask> matches = task -> matches(task, filter);
+            if (!sort.byUpdatedAt()) {
+                NavigableSet<OrderKey> keys = sort.descending() ? order.descendingSet() : order;
+                if (after != null) {
+                    keys = keys.tailSet(new OrderKey(micros(after), afterId), false);
+                }
+                return Flux.fromIterable(page(keys, matches, limit));
+            }
+            Comparator<StoredTask> comparator = Comparator.comparing(StoredTask::updatedAt)
+                    .thenComparing(StoredTask::id, OrderKey::compareIds);
+            Comparator<StoredTask> ordering = sort.descending() ? comparator.reversed() : comparator;
+            StoredTask position = after == null ? null : new StoredTask(afterId, null, false, null, micros(after), 0);
+            return Flux.fromStream(tasks.values().stream()
+                    .filter(matches)
+                    .filter(task -> position == null || ordering.compare(task, position) > 0)
+                    .sorted(ordering)
+                    .limit(limit)
+                    .map(StoredTask::toEntity));
+        });
+    }
+
+    /**
+     * Scans every task, there is no text index in memory.
+     */
+    @Override
+    public Flux<TaskEntity> search(String query, TaskSearchMode mode, int limit) {
+        record Match(StoredTask task, double score) {
+        }
+        Comparator<Match> ranking = Comparator.comparingDouble(Match::score).reversed()
+                .thenComparing(match -> new OrderKey(match.task().createdAt(), match.task().id()));
+        return Flux.defer(() -> Flux.fromStream(tasks.values().stream()
+                .map(task -> new Match(task, TaskTextSearch.score(mode, query, task.description())))
+                .filter(match -> match.score() != TaskTextSearch.NO_MATCH)
+                .sorted(ranking)
+                .limit(limit)
+                .map(match -> match.task().toEntity())));
+    }
+
+    @Override
+    public Flux<TaskEntity> findAllByIds(UUID[] ids) {
+        return Flux.defer(() -> Flux.fromArray(ids).distinct().mapNotNull(id -> toEntity(tasks.get(id))));
+    }
+
+    @Override
+    public Mono<String> findVersion() {
+        return Mono.fromSupplier(() -> String.valueOf(publishedChangeSeq.get()));
+    }
+
+    @Override
+    public Flux<TaskChangeEntry> findChangesSince(TaskChangePosition since, int limit) {
+        return Flux.defer(() -> {
+            long published = publishedChangeSeq.get();
+            if (since.seq() >= published) {
+                return Flux.empty();
+            }
+            List<TaskChangeEntry> changes = new ArrayList<>(Math.min(limit, 64));
+            for (Map.Entry<Long, UUID> change : changeLog.subMap(since.seq(), false, published, true).entrySet()) {
+                if (changes.size() == limit) {
+                    break;
+                }
+                long changeSeq = change.getKey();
+                UUID id = change.getValue();
+                StoredTask task = tasks.get(id);
+                if (task != null && task.changeSeq() == changeSeq) {
+                    changes.add(new TaskChangeEntry(0, changeSeq, id, task.toEntity()));
+                } else if (task == null && isTombstone(id, changeSeq)) {
+                    changes.add(new TaskChangeEntry(0, changeSeq, id, null));
+                }
+                // Otherwise the task changed again since, it is listed at its later position
+            }
+            return Flux.fromIterable(changes);
+        });
+    }
+
+    @Override
+    public Mono<TaskChangePosition> findSyncHorizon() {
+        return Mono.fromSupplier(syncHorizon::get);
+    }
+
+    /**
+     * Moves the horizon before dropping the tombstones, so a sync missing one of them reads the
+     * moved horizon afterwards.
+     */
+    @Override
+    public Mono<Long> pruneTombstones(Instant deletedBefore) {
+        return Mono.fromSupplier(() -> {
+            List<Map.Entry<UUID, StoredTombstone>> expired = tombstones.entrySet().stream()
+                    .filter(tombstone -> tombstone.getValue().deletedAt().isBefore(deletedBefore))
+                    .toList();
+            if (expired.isEmpty()) {
+                return 0L;
+            }
+            TaskChangePosition last = expired.stream()
+                    .map(tombstone -> new TaskChangePosition(0, tombstone.getValue().changeSeq(), tombstone.getKey()))
+                    .max(Comparator.naturalOrder())
+                    .orElseThrow();
+            syncHorizon.accumulateAndGet(last, (current, next) -> current.compareTo(next) < 0 ? next : current);
+            long pruned = 0;
+            for (Map.Entry<UUID, StoredTombstone> tombstone : expired) {
+                if (tombstones.remove(tombstone.getKey(), tombstone.getValue())) {
+                    changeLog.remove(tombstone.getValue().changeSeq(), tombstone.getKey());
+                    pruned++;
+                }
+            }
+            return pruned;
+        });
+    }
+
+    @Override
+    public Mono<TaskEntity> insertIfAbsent(TaskEntity task) {
+        return Mono.fromSupplier(() -> toEntity(insert(task.getDescription(), task.isCompleted(), task.getCreatedAt(), task.getUpdatedAt())));
+    }
+
+    @Override
+    public Flux<TaskEntity> insertAllIfAbsent(List<TaskEntity> tasks, Instant createdAt) {
+        return Flux.defer(() -> {
+            List<TaskEntity> inserted = new ArrayList<>(tasks.size());
+            for (TaskEntity task : tasks) {
+                StoredTask stored = insert(task.getDescription(), task.isCompleted(), createdAt, createdAt);
+                if (stored != null) {
+                    inserted.add(stored.toEntity());
+                }
+            }
+            return Flux.fromIterable(inserted);
+        });
+    }
+
+    @Override
+    public Mono<TaskEntity> updateTask(UUID id, String description, boolean completed, Instant updatedAt, Instant expectedUpdatedAt) {
+        return Mono.fromSupplier(() -> toEntity(update(id,
+                current -> expectedUpdatedAt == null || current.updatedAt().equals(micros(expectedUpdatedAt)),
+                description, completed, updatedAt)));
+    }
+
+    @Override
+    public Mono<Long> updateCompletedByIds(UUID[] ids, boolean completed, Instant updatedAt) {
+        return Mono.fromSupplier(() -> {
+            long updated = 0;
+            for (UUID id : new LinkedHashSet<>(Arrays.asList(ids))) {
+                if (update(id, current -> current.completed() != completed, null, completed, updatedAt) != null) {
+                    updated++;
+                }
+            }
+            return updated;
+        });
+    }
+
+    @Override
+    public Mono<Long> updateCompletedByState(Boolean currentCompleted, boolean completed, Instant updatedAt) {
+        Predicate<StoredTask> matches = current -> current.completed() != completed
+                && (currentCompleted == null || current.completed() == currentCompleted);
+        return Mono.fromSupplier(() -> {
+            long updated = 0;
+            for (StoredTask task : tasks.values()) {
+                if (matches.test(task) && update(task.id(), matches, null, completed, updatedAt) != null) {
+                    updated++;
+                }
+            }
+            return updated;
+        });
+    }
+
+    @Override
+    public Mono<Long> deleteTaskById(UUID id, Instant expectedUpdatedAt) {
+        return Mono.fromSupplier(() -> delete(id,
+                current -> expectedUpdatedAt == null || current.updatedAt().equals(micros(expectedUpdatedAt))) ? 1L : 0L);
+    }
+
+    @Override
+    public Mono<Long> deleteByIds(UUID[] ids) {
+        return Mono.fromSupplier(() -> {
+            long deleted = 0;
+            for (UUID id : new LinkedHashSet<>(Arrays.asList(ids))) {
+                if (delete(id, current -> true)) {
+                    deleted++;
+                }
+            }
+            return deleted;
+        });
+    }
+
+    @Override
+    public Mono<Long> deleteChunkByState(Boolean completed, Instant updatedBefore, int limit) {
+        Predicate<StoredTask> matches = current -> (completed == null || current.completed() == completed)
+                && (updatedBefore == null || current.updatedAt().isBefore(micros(updatedBefore)));
+        return Mono.fromSupplier(() -> {
+            long deleted = 0;
+            Iterator<StoredTask> iterator = tasks.values().iterator();
+            while (deleted < limit && iterator.hasNext()) {
+                StoredTask task = iterator.next();
+                if (matches.test(task) && delete(task.id(), matches)) {
+                    deleted++;
+                }
+            }
+            return deleted;
+        });
+    }
+
+    @Override
+    public Flux<TaskChangeEvent> changes() {
+        return sink.asFlux();
+    }
+
+    private StoredTask insert(String description, boolean completed, Instant createdAt, Instant updatedAt) {
+        UUID id = UUID.randomUUID();
+        if (descriptions.putIfAbsent(description, id) != null) {
+            return null;
+        }
+        long changeSeq = lastChangeSeq.incrementAndGet();
+        StoredTask task = new StoredTask(id, description, completed, micros(createdAt), micros(updatedAt), changeSeq);
+        TaskChangeEvent event = null;
+        try {
+            journal.written(task);
+            tasks.put(id, task);
+            order.add(new OrderKey(task.createdAt(), id));
+            changeLog.put(changeSeq, id);
+            event = event(TaskChangeEvent.Type.CREATED, id, task);
+        } catch (RuntimeException ex) {
+            descriptions.remove(description, id);
+            throw ex;
+        } finally {
+            publish(changeSeq, event);
+        }
+        return task;
+    }
+
+    /**
+     * Applies an update when the task exists and matches {@code condition}, keeping its
+     * description when {@code description} is {@code null}. Returns the updated task or {@code null}.
+     */
+    private StoredTask update(UUID id, Predicate<StoredTask> condition, String description, boolean completed, Instant updatedAt) {
+        long[] changeSeq = new long[1];
+        StoredTask updated = null;
+        try {
+            updated = tasks.computeIfPresent(id, (key, current) -> {
+                if (!condition.test(current)) {
+                    return current;
+                }
+                String newDescription = description == null ? current.description() : description;
+                boolean renamed = !newDescription.equals(current.description());
+                if (renamed && descriptions.putIfAbsent(newDescription, id) != null) {
+                    throw new DuplicateKeyException("Task description '%s' is already used".formatted(newDescription));
+                }
+                changeSeq[0] = lastChangeSeq.incrementAndGet();
+                StoredTask next = new StoredTask(id, newDescription, completed, current.createdAt(), micros(updatedAt), changeSeq[0]);
+                try {
+                    journal.written(next);
+                } catch (RuntimeException ex) {
+                    if (renamed) {
+                        descriptions.remove(newDescription, id);
+                    }
+                    throw ex;
+                }
+                changeLog.remove(current.changeSeq());
+                changeLog.put(changeSeq[0], id);
+                if (renamed) {
+                    descriptions.remove(current.description(), id);
+                }
+                return next;
+            });
+        } finally {
+            if (changeSeq[0] != 0) {
+                publish(changeSeq[0], updated == null ? null : event(TaskChangeEvent.Type.UPDATED, id, updated));
+            }
+        }
+        return changeSeq[0] == 0 ? null : updated;
+    }
+
+    /**
+     * Deletes the task when it exists and matches {@code condition}.
+     */
+    private boolean delete(UUID id, Predicate<StoredTask> condition) {
+        long[] changeSeq = new long[1];
+        boolean deleted = false;
+        try {
+            tasks.computeIfPresent(id, (key, current) -> {
+                if (!condition.test(current)) {
+                    return current;
+                }
+                changeSeq[0] = lastChangeSeq.incrementAndGet();
+                StoredTombstone tombstone = new StoredTombstone(changeSeq[0], Instant.now());
+                journal.deleted(id, tombstone);
+                tombstones.put(id, tombstone);
+                changeLog.remove(current.changeSeq());
+                changeLog.put(changeSeq[0], id);
+                order.remove(new OrderKey(current.createdAt(), id));
+                descriptions.remove(current.description(), id);
+                return null;
+            });
+            deleted = changeSeq[0] != 0;
+        } finally {
+            if (changeSeq[0] != 0) {
+                publish(changeSeq[0], deleted ? event(TaskChangeEvent.Type.DELETED, id, null) : null);
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Replaces the content of the store, e.g. with tasks recovered from disk.
+     */
+    void restore(StoreContent content) {
+        long last = 0;
+        for (StoredTask task : content.tasks()) {
+            tasks.put(task.id(), task);
+            descriptions.put(task.description(), task.id());
+            order.add(new OrderKey(task.createdAt(), task.id()));
+            changeLog.put(task.changeSeq(), task.id());
+            last = Math.max(last, task.changeSeq());
+        }
+        for (Map.Entry<UUID, StoredTombstone> tombstone : content.tombstones().entrySet()) {
+            tombstones.put(tombstone.getKey(), tombstone.getValue());
+            changeLog.put(tombstone.getValue().changeSeq(), tombstone.getKey());
+            last = Math.max(last, tombstone.getValue().changeSeq());
+        }
+        syncHorizon.set(content.syncHorizon());
+        last = Math.max(last, content.syncHorizon().seq());
+        lastChangeSeq.set(last);
+        publishedChangeSeq.set(last);
+    }
+
+    /**
+     * Waits until every change numbered up to {@code changeSeq} is applied, and returns the tasks,
+     * tombstones and sync horizon. They include all those changes, and possibly some later ones.
+     * Pruned tombstones are left out, the horizon is read after them and is past every one.
+     */
+    StoreContent contentAfter(long changeSeq) {
+        publishLock.lock();
+        try {
+            while (publishedChangeSeq.get() < changeSeq) {
+                publishedChanged.awaitUninterruptibly();
+            }
+        } finally {
+            publishLock.unlock();
+        }
+        Map<UUID, StoredTombstone> currentTombstones = Map.copyOf(tombstones);
+        return new StoreContent(List.copyOf(tasks.values()), currentTombstones, syncHorizon.get());
+    }
+
+    long lastChangeSeq() {
+        return lastChangeSeq.get();
+    }
+
+    /**
+     * Marks a change sequence number as completed, with the event of the change or {@code null}
+     * when it failed. It becomes visible, and its event is emitted, with the completion of all the
+     * earlier ones: the writer completing the last missing one publishes the whole run in order,
+     * the others return right away instead of waiting for it.
+     */
+    private void publish(long changeSeq, TaskChangeEvent event) {
+        publishLock.lock();
+        try {
+            if (changeSeq != publishedChangeSeq.get() + 1) {
+                completedChanges.put(changeSeq, event);
+                return;
+            }
+            long published = changeSeq;
+            TaskChangeEvent next = event;
+            while (true) {
+                // Published before the event is emitted, a subscriber writing back publishes after it
+                publishedChangeSeq.set(published);
+                publishedChanged.signalAll();
+                emit(next);
+                if (!completedChanges.containsKey(published + 1)) {
+                    break;
+                }
+                published++;
+                next = completedChanges.remove(published);
+            }
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private boolean isTombstone(UUID id, long changeSeq) {
+        StoredTombstone tombstone = tombstones.get(id);
+        return tombstone != null && tombstone.changeSeq() == changeSeq;
+    }
+
+    /**
+     * Emits under {@link #publishLock}, so the emissions are serialized and never fail for
+     * concurrent use; the sink drops events no subscriber can take.
+     */
+    private void emit(TaskChangeEvent event) {
+        if (event != null) {
+            sink.emitNext(event, Sinks.EmitFailureHandler.FAIL_FAST);
+        }
+    }
+
+    private static TaskChangeEvent event(TaskChangeEvent.Type type, UUID id, StoredTask task) {
+        return new TaskChangeEvent(type, id.toString(), task == null ? null : task.toTask());
+    }
+
+    private List<TaskEntity> page(Iterable<OrderKey> keys, int limit) {
+        return page(keys, task -> true, limit);
+    }
+
+    private List<TaskEntity> page(Iterable<OrderKey> keys, Predicate<StoredTask> matches, int limit) {
+        List<TaskEntity> page = new ArrayList<>(Math.min(limit, 64));
+        Iterator<OrderKey> iterator = keys.iterator();
+        while (page.size() < limit && iterator.hasNext()) {
+            StoredTask task = tasks.get(iterator.next().id());
+            if (task != null && matches.test(task)) {
+                page.add(task.toEntity());
+            }
+        }
+        return page;
+    }
+
+    private static boolean matches(StoredTask task, TaskFilter filter) {
+        return (filter.completed() == null || task.completed() == filter.completed())
+                && (filter.createdAfter() == null || task.createdAt().isAfter(micros(filter.createdAfter())))
+                && (filter.createdBefore() == null || task.createdAt().isBefore(micros(filter.createdBefore())))
+                && (filter.updatedSince() == null || !task.updatedAt().isBefore(micros(filter.updatedSince())));
+    }
+
+    private static TaskEntity toEntity(StoredTask task) {
+        return task == null ? null : task.toEntity();
+    }
+
+    /**
+     * Rounds to the microsecond like a Postgres {@code timestamptz}, so ETags and conditional
+     * requests behave as with the database.
+     */
+    private static Instant micros(Instant instant) {
+        return instant == null ? null : instant.plusNanos(500).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Listing order, {@code (createdAt, id)} with ids compared as unsigned bytes like Postgres does.
+     */
+    private record OrderKey(Instant createdAt, UUID id) implements Comparable<OrderKey> {
+
+        @Override
+        public int compareTo(OrderKey other) {
+            int result = createdAt.compareTo(other.createdAt);
+            return result == 0 ? compareIds(id, other.id) : result;
+        }
+
+        /**
+         * Compares ids byte by byte like Postgres, unlike {@link UUID#compareTo}.
+         */
+        static int compareIds(UUID first, UUID second) {
+            int result = Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits());
+            return result == 0 ? Long.compareUnsigned(first.getLeastSignificantBits(), second.getLeastSignificantBits()) : result;
+        }
+    }
+}
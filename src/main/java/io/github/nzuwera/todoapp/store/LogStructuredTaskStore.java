@@ -0,0 +1,91 @@
+package io.github.nzuwera.todoapp.store;
+
+import io.github.nzuwera.todoapp.config.TaskLogProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable store for single node deployments, selected with the {@value #PROFILE} profile. Tasks
+ * are served from memory like the {@link InMemoryTaskStore}, and every change is appended to a
+ * memory-mapped {@link TaskLog} before it becomes visible. The store is recovered from the log
+ * on startup; periodic snapshots let the log be compacted in the background.
+ */
+@Slf4j
+@Component
+@Profile(LogStructuredTaskStore.PROFILE)
+public class LogStructuredTaskStore extends InMemoryTaskStore implements DisposableBean {
+    public static final String PROFILE = "log-structured";
+
+    private final TaskLog taskLog;
+    private final ScheduledExecutorService maintenance;
+    private long snapshotChangeSeq;
+
+    @Autowired
+    public LogStructuredTaskStore(TaskLogProperties properties) {
+        this(new TaskLog(properties.directory(), Math.toIntExact(properties.segmentSize().toBytes()), properties.syncWrites()),
+                properties);
+    }
+
+    private LogStructuredTaskStore(TaskLog taskLog, TaskLogProperties properties) {
+        super(taskLog);
+        this.taskLog = taskLog;
+        restore(taskLog.recover());
+        this.snapshotChangeSeq = lastChangeSeq();
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-log-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!properties.syncWrites()) {
+            long flushMillis = properties.flushInterval().toMillis();
+            maintenance.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        }
+        long snapshotMillis = properties.snapshotInterval().toMillis();
+        maintenance.scheduleWithFixedDelay(this::snapshotQuietly, snapshotMillis, snapshotMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes a snapshot of the current tasks and deletes the log segments and snapshots it replaces.
+     * Does nothing when no task changed since the last snapshot.
+     */
+    synchronized void snapshot() {
+        long lastChangeSeq = lastChangeSeq();
+        if (lastChangeSeq == snapshotChangeSeq) {
+            return;
+        }
+        // Every change numbered up to lastChangeSeq was appended before the roll, later ones
+        // may be in either segment and are replayed after the snapshot anyway
+        long firstSegment = taskLog.roll();
+        lastChangeSeq = lastChangeSeq();
+        taskLog.writeSnapshot(firstSegment, contentAfter(lastChangeSeq));
+        taskLog.compact(firstSegment);
+        snapshotChangeSeq = lastChangeSeq;
+    }
+
+    void flush() {
+        taskLog.flush();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        maintenance.shutdown();
+        maintenance.awaitTermination(30, TimeUnit.SECONDS);
+        snapshotQuietly();
+        taskLog.close();
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException ex) {
+            log.error("Task snapshot failed, the log is kept until the next one", ex);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.nzuwera.todoapp.store;
+
+import io.github.nzuwera.todoapp.entity.TaskChangeEntry;
+import io.github.nzuwera.todoapp.entity.TaskChangePosition;
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import io.github.nzuwera.todoapp.model.TaskFilter;
+import io.github.nzuwera.todoapp.model.TaskSearchMode;
+import io.github.nzuwera.todoapp.model.TaskSort;
+import io.github.nzuwera.todoapp.observability.RequestTimings;
+import io.github.nzuwera.todoapp.repository.ReadWriteRoutingConnectionFactory;
+import io.github.nzuwera.todoapp.repository.TaskChangeListener;
+import io.github.nzuwera.todoapp.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static io.github.nzuwera.todoapp.observability.RequestTimings.Phase.QUERY;
+import static io.github.nzuwera.todoapp.repository.ReadWriteRoutingConnectionFactory.READ_ONLY;
+
+/**
+ * Default store, backed by Postgres through the R2DBC repository. Changes of every replica
+ * arrive through the {@link TaskChangeListener}. Statements count towards the
+ * {@link RequestTimings.Phase#QUERY query phase} of the request issuing them.
+ * <p>
+ * With a read replica, listing, search, lookups and synchronization are marked
+ * {@link ReadWriteRoutingConnectionFactory#READ_ONLY read-only}. Single task reads stay on the
+ * primary: they fill the task cache, which must not keep a copy older than the last change
+ * notification, and existence checks follow writes.
+ */
+@Component
+@Profile(R2dbcTaskStore.PROFILE)
+@RequiredArgsConstructor
+public class R2dbcTaskStore implements TaskStore {
+    /**
+     * Active unless another store is selected; also guards the other beans that need Postgres.
+     */
+    public static final String PROFILE = "!" + InMemoryTaskStore.PROFILE + " & !" + LogStructuredTaskStore.PROFILE;
+
+    private final TaskRepository taskRepository;
+    private final TaskChangeListener taskChangeListener;
+
+    @Override
+    public Mono<TaskEntity> findById(UUID id) {
+        return taskRepository.findById(id).transform(RequestTimings.timed(QUERY));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(UUID id) {
+        return taskRepository.existsById(id).transform(RequestTimings.timed(QUERY));
+    }
+
+    @Override
+    public Flux<TaskEntity> findFirstPage(int limit) {
+        return taskRepository.findFirstPage(limit).contextWrite(READ_ONLY).transform(RequestTimings.timedMany(QUERY));
+    }
+
+    @Override
+    public Flux<TaskEntity> findPageAfter(Instant createdAt, UUID id, int limit) {
+        return taskRepository.findPageAfter(createdAt, id, limit).contextWrite(READ_ONLY).transform(RequestTimings.timedMany(QUERY));
+    }
+
+    @Override
+    public Flux<TaskEntity> findPage(TaskFilter filter, TaskSort sort, Instant after, UUID afterId, int limit) {
+        return taskRepository.findPage(filter, sort, after, afterId, limit).contextWrite(READ_ONLY).transform(RequestTimings.timedMany(QUERY));
+    }
+
+    @Override
+    public Flux<TaskEntity> search(String query, TaskSearchMode mode, int limit) {
+        return taskRepository.search(query, mode, limit).contextWrite(READ_ONLY).transform(RequestTimings.timedMany(QUERY));
+    }
+
+    @Override
+    public Flux<TaskEntity> findAllByIds(UUID[] ids) {
+        return taskRepository.findAllByIds(ids).contextWrite(READ_ONLY).transform(RequestTimings.timedMany(QUERY));
+    }
+
+    @Override
+    public Mono<String> findVersion() {
+        return taskRepository.findVersion().contextWrite(READ_ONLY).transform(RequestTimings.timed(QUERY));
+    }
+
+    @Override
+    public Flux<TaskChangeEntry> findChangesSince(TaskChangePosition since, int limit) {
+        return taskRepository.findChangesSince(since, limit).contextWrite(READ_ONLY).transform(RequestTimings.timedMany(QUERY));
+    }
+
+    @Override
+    public Mono<TaskChangePosition> findSyncHorizon() {
+        return taskRepository.findSyncHorizon().contextWrite(READ_ONLY).transform(RequestTimings.timed(QUERY));
+    }
+
+    @Override
+    public Mono<Long> pruneTombstones(Instant deletedBefore) {
+        return taskRepository.pruneTombstones(deletedBefore);
+    }
+
+    @Override
+    public Mono<TaskEntity> insertIfAbsent(TaskEntity task) {
+        return taskRepository.insertIfAbsent(task).transform(RequestTimings.timed(QUERY));
+    }
+
+    @Override
+    public Flux<TaskEntity> insertAllIfAbsent(List<TaskEntity> tasks, Instant createdAt) {
+        return taskRepository.insertAllIfAbsent(tasks, createdAt).transform(RequestTimings.timedMany(QUERY));
+    }
+
+    @Override
+    public Mono<TaskEntity> updateTask(UUID id, String description, boolean completed, Instant updatedAt, Instant expectedUpdatedAt) {
+        return taskRepository.updateTask(id, description, completed, updatedAt, expectedUpdatedAt).transform(RequestTimings.timed(QUERY));
+    }
+
+    @Override
+    public Mono<Long> updateCompletedByIds(UUID[] ids, boolean completed, Instant updatedAt) {
+        return taskRepository.updateCompletedByIds(ids, completed, updatedAt).transform(RequestTimings.timed(QUERY));
+    }
+
+    @Override
+    public Mono<Long> updateCompletedByState(Boolean currentCompleted, boolean completed, Instant updatedAt) {
+        return taskRepository.updateCompletedByState(currentCompleted, completed, updatedAt).transform(RequestTimings.timed(QUERY));
+    }
+
+    @Override
+    public Mono<Long> deleteTaskById(UUID id, Instant expectedUpdatedAt) {
+        return taskRepository.deleteTaskById(id, expectedUpdatedAt).transform(RequestTimings.timed(QUERY));
+    }
+
+    @Override
+    public Mono<Long> deleteByIds(UUID[] ids) {
+        return taskRepository.deleteByIds(ids).transform(RequestTimings.timed(QUERY));
+    }
+
+    @Override
+    public Mono<Long> deleteChunkByState(Boolean completed, Instant updatedBefore, int limit) {
+        return taskRepository.deleteChunkByState(completed, updatedBefore, limit).transform(RequestTimings.timed(QUERY));
+    }
+
+    @Override
+    public Flux<TaskChangeEvent> changes() {
+        return taskChangeListener.changes();
+    }
+}
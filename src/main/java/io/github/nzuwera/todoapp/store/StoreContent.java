@@ -0,0 +1,17 @@
+package io.github.nzuwera.todoapp.store;
+
+import io.github.nzuwera.todoapp.entity.TaskChangePosition;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tasks and tombstones of an embedded store, as snapshotted or recovered.
+ *
+ * @param tasks       live tasks
+ * @param tombstones  deletion of every deleted task whose tombstone is not pruned
+ * @param syncHorizon last position whose tombstone may have been pruned
+ */
+record StoreContent(List<StoredTask> tasks, Map<UUID, StoredTombstone> tombstones, TaskChangePosition syncHorizon) {
+}
@@ -0,0 +1,23 @@
+package io.github.nzuwera.todoapp.store;
+
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.model.Task;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Immutable state of a task kept by the embedded stores.
+ *
+ * @param changeSeq position of the last change of the task in the change sequence
+ */
+record StoredTask(UUID id, String description, boolean completed, Instant createdAt, Instant updatedAt, long changeSeq) {
+
+    TaskEntity toEntity() {
+        return new TaskEntity(id, description, completed, createdAt, updatedAt);
+    }
+
+    Task toTask() {
+        return new Task(id, description, completed, createdAt, updatedAt);
+    }
+}
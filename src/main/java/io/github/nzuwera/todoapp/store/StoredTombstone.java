@@ -0,0 +1,12 @@
+package io.github.nzuwera.todoapp.store;
+
+import java.time.Instant;
+
+/**
+ * Deletion of a task kept by the embedded stores until pruned.
+ *
+ * @param changeSeq position of the deletion in the change sequence
+ * @param deletedAt when the task was deleted
+ */
+record StoredTombstone(long changeSeq, Instant deletedAt) {
+}
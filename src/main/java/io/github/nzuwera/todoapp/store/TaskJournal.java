@@ -0,0 +1,24 @@
+package io.github.nzuwera.todoapp.store;
+
+import java.util.UUID;
+
+/**
+ * Receives the changes of an {@link InMemoryTaskStore} before they become visible, in the
+ * thread making them. Changes of different tasks may arrive out of change sequence order.
+ */
+interface TaskJournal {
+
+    TaskJournal NONE = new TaskJournal() {
+        @Override
+        public void written(StoredTask task) {
+        }
+
+        @Override
+        public void deleted(UUID id, StoredTombstone tombstone) {
+        }
+    };
+
+    void written(StoredTask task);
+
+    void deleted(UUID id, StoredTombstone tombstone);
+}
@@ -0,0 +1,424 @@
+package io.github.nzuwera.todoapp.store;
+
+import io.github.nzuwera.todoapp.entity.TaskChangePosition;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Write-ahead log and snapshots of a {@link LogStructuredTaskStore}, in one directory.
+ * <p>
+ * Changes are appended to memory-mapped segment files {@code wal-<n>.log} of a fixed size. A
+ * record is {@code length, crc32c, body}; a zero length marks the end of the written part and
+ * a record with a bad checksum, torn by a crash, ends the segment as well. Every start opens a
+ * new segment, so a torn tail is never written after. A record with a good checksum but an
+ * unknown type or size, or a snapshot in another format, is corrupt and fails recovery.
+ * <p>
+ * A snapshot {@code snapshot-<n>.snap} holds all tasks, the tombstones not pruned yet and the
+ * sync horizon, and replaces the segments before segment {@code n}. Replay applies the latest
+ * snapshot and then the remaining segments, keeping for every task the change with the highest
+ * change sequence number, so records may be replayed twice and appear in any order. A pruned
+ * tombstone replayed from a segment is behind the horizon and pruned again.
+ * <p>
+ * {@link #flush()} forces the written records to disk outside the lock, so appends go on while
+ * the disk catches up.
+ */
+@Slf4j
+final class TaskLog implements TaskJournal, Closeable {
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int SNAPSHOT_MAGIC = 0x54534e50;
+    private static final byte WRITTEN = 1;
+    private static final byte DELETED = 2;
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    /**
+     * Body of the largest record: type, change sequence, id, completed, timestamps and a
+     * description of 255 characters of up to 4 bytes each.
+     */
+    private static final int MAX_BODY_SIZE = 1 + Long.BYTES * 5 + 1 + Short.BYTES + 255 * 4;
+    /**
+     * Body of a deletion: type, change sequence, id and deletion time.
+     */
+    private static final int DELETION_BODY_SIZE = 1 + Long.BYTES * 4;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean syncWrites;
+    private final ByteBuffer body = ByteBuffer.allocate(MAX_BODY_SIZE);
+    private final CRC32C checksum = new CRC32C();
+    private long segmentNumber;
+    private MappedByteBuffer segment;
+    /**
+     * Full segments whose records are not forced to disk yet.
+     */
+    private final List<MappedByteBuffer> unflushedSegments = new ArrayList<>();
+
+    TaskLog(Path directory, int segmentSize, boolean syncWrites) {
+        if (segmentSize < HEADER_SIZE + MAX_BODY_SIZE) {
+            throw new IllegalArgumentException("Segment size must be at least %d bytes".formatted(HEADER_SIZE + MAX_BODY_SIZE));
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncWrites = syncWrites;
+    }
+
+    /**
+     * Reads the latest snapshot and the segments written after it, then opens a new segment for
+     * the changes to come.
+     */
+    synchronized StoreContent recover() {
+        try {
+            Files.createDirectories(directory);
+            Map<UUID, StoredTask> tasks = new HashMap<>();
+            Map<UUID, StoredTombstone> tombstones = new HashMap<>();
+            TaskChangePosition syncHorizon = TaskChangePosition.START;
+            long firstSegment = 0;
+            List<Long> snapshots = numbers(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            if (!snapshots.isEmpty()) {
+                firstSegment = snapshots.getLast();
+                syncHorizon = readSnapshot(snapshotPath(firstSegment), tasks, tombstones);
+            }
+            long records = 0;
+            long lastSegment = firstSegment - 1;
+            for (long number : numbers(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                lastSegment = Math.max(lastSegment, number);
+                if (number >= firstSegment) {
+                    records += readSegment(segmentPath(number), tasks, tombstones);
+                }
+            }
+            log.info("Recovered {} tasks from {} ({} log records replayed)", tasks.size(), directory, records);
+            openSegment(lastSegment + 1);
+            return new StoreContent(List.copyOf(tasks.values()), tombstones, syncHorizon);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot recover the task log in " + directory, ex);
+        }
+    }
+
+    @Override
+    public synchronized void written(StoredTask task) {
+        body.clear();
+        body.put(WRITTEN).putLong(task.changeSeq());
+        putId(task.id());
+        body.put(task.completed() ? (byte) 1 : 0)
+                .putLong(ChronoUnit.MICROS.between(Instant.EPOCH, task.createdAt()))
+                .putLong(ChronoUnit.MICROS.between(Instant.EPOCH, task.updatedAt()));
+        byte[] description = task.description().getBytes(StandardCharsets.UTF_8);
+        body.putShort((short) description.length).put(description);
+        append();
+    }
+
+    @Override
+    public synchronized void deleted(UUID id, StoredTombstone tombstone) {
+        body.clear();
+        body.put(DELETED).putLong(tombstone.changeSeq());
+        putId(id);
+        body.putLong(ChronoUnit.MICROS.between(Instant.EPOCH, tombstone.deletedAt()));
+        append();
+    }
+
+    /**
+     * Continues the log in a new segment and returns its number. A snapshot taken afterwards
+     * replaces all the earlier segments.
+     */
+    synchronized long roll() {
+        openSegment(segmentNumber + 1);
+        return segmentNumber;
+    }
+
+    /**
+     * Forces the records written so far to disk. Only the segments and the written part of the
+     * current one are taken under the lock; the records appended meanwhile are left to the next
+     * flush.
+     */
+    void flush() {
+        List<MappedByteBuffer> full;
+        MappedByteBuffer current;
+        int written;
+        synchronized (this) {
+            full = List.copyOf(unflushedSegments);
+            unflushedSegments.clear();
+            current = segment;
+            written = current == null ? 0 : current.position();
+        }
+        for (MappedByteBuffer fullSegment : full) {
+            fullSegment.force();
+        }
+        if (written > 0) {
+            current.force(0, written);
+        }
+    }
+
+    /**
+     * Writes a snapshot replacing the segments before {@code firstSegment}. The file is renamed
+     * into place once complete, so a crash leaves the previous snapshot in use.
+     */
+    void writeSnapshot(long firstSegment, StoreContent content) {
+        Path target = snapshotPath(firstSegment);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32C crc = new CRC32C();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(content.tasks().size());
+            for (StoredTask task : content.tasks()) {
+                writeId(out, task.id());
+                out.writeLong(task.changeSeq());
+                out.writeBoolean(task.completed());
+                out.writeLong(ChronoUnit.MICROS.between(Instant.EPOCH, task.createdAt()));
+                out.writeLong(ChronoUnit.MICROS.between(Instant.EPOCH, task.updatedAt()));
+                out.writeUTF(task.description());
+            }
+            out.writeInt(content.tombstones().size());
+            for (Map.Entry<UUID, StoredTombstone> tombstone : content.tombstones().entrySet()) {
+                writeId(out, tombstone.getKey());
+                out.writeLong(tombstone.getValue().changeSeq());
+                out.writeLong(ChronoUnit.MICROS.between(Instant.EPOCH, tombstone.getValue().deletedAt()));
+            }
+            out.writeLong(content.syncHorizon().seq());
+            writeId(out, content.syncHorizon().id());
+            out.writeLong(crc.getValue());
+            out.flush();
+            channel.force(true);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write snapshot " + target, ex);
+        }
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write snapshot " + target, ex);
+        }
+    }
+
+    /**
+     * Deletes the segments and snapshots replaced by the snapshot of {@code firstSegment}.
+     */
+    void compact(long firstSegment) {
+        try {
+            for (long number : numbers(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                if (number < firstSegment) {
+                    Files.deleteIfExists(segmentPath(number));
+                }
+            }
+            for (long number : numbers(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+                if (number < firstSegment) {
+                    Files.deleteIfExists(snapshotPath(number));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot compact the task log in " + directory, ex);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        segment = null;
+    }
+
+    private void append() {
+        body.flip();
+        checksum.reset();
+        checksum.update(body.array(), 0, body.limit());
+        if (segment == null) {
+            throw new IllegalStateException("Task log is closed");
+        }
+        if (segment.remaining() < HEADER_SIZE + body.limit() + Integer.BYTES) {
+            openSegment(segmentNumber + 1);
+        }
+        try {
+            segment.putInt(body.limit()).putInt((int) checksum.getValue()).put(body);
+        } catch (BufferOverflowException ex) {
+            throw new IllegalStateException("Task log record does not fit in a segment", ex);
+        }
+        if (syncWrites) {
+            segment.force();
+        }
+    }
+
+    private void openSegment(long number) {
+        if (segment != null && !syncWrites) {
+            unflushedSegments.add(segment);
+        }
+        try (FileChannel channel = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid once the channel is closed
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            segmentNumber = number;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create task log segment " + number, ex);
+        }
+    }
+
+    private void putId(UUID id) {
+        body.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+    }
+
+    private long readSegment(Path path, Map<UUID, StoredTask> tasks, Map<UUID, StoredTombstone> tombstones) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        CRC32C crc = new CRC32C();
+        long records = 0;
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int length = buffer.getInt();
+            int expectedChecksum = buffer.getInt();
+            if (length <= 0 || length > MAX_BODY_SIZE || length > buffer.remaining()) {
+                break;
+            }
+            ByteBuffer record = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(record.duplicate());
+            if ((int) crc.getValue() != expectedChecksum) {
+                log.warn("Ignoring the torn end of task log segment {}", path.getFileName());
+                break;
+            }
+            buffer.position(buffer.position() + length);
+            byte type = record.get();
+            long changeSeq = record.getLong();
+            UUID id = new UUID(record.getLong(), record.getLong());
+            if (type == WRITTEN && length > DELETION_BODY_SIZE) {
+                boolean completed = record.get() != 0;
+                Instant createdAt = Instant.EPOCH.plus(record.getLong(), ChronoUnit.MICROS);
+                Instant updatedAt = Instant.EPOCH.plus(record.getLong(), ChronoUnit.MICROS);
+                int descriptionLength = record.getShort();
+                if (descriptionLength != record.remaining()) {
+                    throw new IOException("Corrupted task log segment: " + path);
+                }
+                byte[] description = new byte[descriptionLength];
+                record.get(description);
+                apply(new StoredTask(id, new String(description, StandardCharsets.UTF_8), completed, createdAt, updatedAt, changeSeq),
+                        tasks, tombstones);
+            } else if (type == DELETED && length == DELETION_BODY_SIZE) {
+                Instant deletedAt = Instant.EPOCH.plus(record.getLong(), ChronoUnit.MICROS);
+                applyDeletion(id, new StoredTombstone(changeSeq, deletedAt), tasks, tombstones);
+            } else {
+                throw new IOException("Corrupted task log segment: " + path);
+            }
+            records++;
+        }
+        return records;
+    }
+
+    /**
+     * Reads a snapshot into {@code tasks} and {@code tombstones} and returns its sync horizon.
+     */
+    private static TaskChangePosition readSnapshot(Path path, Map<UUID, StoredTask> tasks, Map<UUID, StoredTombstone> tombstones)
+            throws IOException {
+        CRC32C crc = new CRC32C();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 1 << 16), crc))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a task snapshot: " + path);
+            }
+            int taskCount = in.readInt();
+            for (int i = 0; i < taskCount; i++) {
+                UUID id = readId(in);
+                long changeSeq = in.readLong();
+                boolean completed = in.readBoolean();
+                Instant createdAt = Instant.EPOCH.plus(in.readLong(), ChronoUnit.MICROS);
+                Instant updatedAt = Instant.EPOCH.plus(in.readLong(), ChronoUnit.MICROS);
+                apply(new StoredTask(id, in.readUTF(), completed, createdAt, updatedAt, changeSeq), tasks, tombstones);
+            }
+            int tombstoneCount = in.readInt();
+            for (int i = 0; i < tombstoneCount; i++) {
+                UUID id = readId(in);
+                long changeSeq = in.readLong();
+                Instant deletedAt = Instant.EPOCH.plus(in.readLong(), ChronoUnit.MICROS);
+                applyDeletion(id, new StoredTombstone(changeSeq, deletedAt), tasks, tombstones);
+            }
+            TaskChangePosition syncHorizon = new TaskChangePosition(0, in.readLong(), readId(in));
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Corrupted task snapshot: " + path);
+            }
+            return syncHorizon;
+        } catch (EOFException ex) {
+            throw new IOException("Truncated task snapshot: " + path, ex);
+        }
+    }
+
+    private static void apply(StoredTask task, Map<UUID, StoredTask> tasks, Map<UUID, StoredTombstone> tombstones) {
+        if (task.changeSeq() > lastChangeSeq(task.id(), tasks, tombstones)) {
+            tasks.put(task.id(), task);
+            tombstones.remove(task.id());
+        }
+    }
+
+    private static void applyDeletion(UUID id, StoredTombstone tombstone, Map<UUID, StoredTask> tasks,
+                                      Map<UUID, StoredTombstone> tombstones) {
+        if (tombstone.changeSeq() > lastChangeSeq(id, tasks, tombstones)) {
+            tasks.remove(id);
+            tombstones.put(id, tombstone);
+        }
+    }
+
+    private static long lastChangeSeq(UUID id, Map<UUID, StoredTask> tasks, Map<UUID, StoredTombstone> tombstones) {
+        StoredTask task = tasks.get(id);
+        if (task != null) {
+            return task.changeSeq();
+        }
+        StoredTombstone tombstone = tombstones.get(id);
+        return tombstone == null ? 0 : tombstone.changeSeq();
+    }
+
+    private static void writeId(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readId(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private List<Long> numbers(String prefix, String suffix) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> numbers.add(Long.parseLong(name, prefix.length(), name.length() - suffix.length(), 10)));
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve("%s%020d%s".formatted(SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private Path snapshotPath(long number) {
+        return directory.resolve("%s%020d%s".formatted(SNAPSHOT_PREFIX, number, SNAPSHOT_SUFFIX));
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.nzuwera.todoapp.store;
+
+import io.github.nzuwera.todoapp.entity.TaskChangeEntry;
+import io.github.nzuwera.todoapp.entity.TaskChangePosition;
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import io.github.nzuwera.todoapp.model.TaskFilter;
+import io.github.nzuwera.todoapp.model.TaskSearchMode;
+import io.github.nzuwera.todoapp.model.TaskSort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Storage engine below the task service. Implementations are selected by Spring profile and
+ * must pass {@code TaskStoreContract}, so the service behaves the same on every engine.
+ * <p>
+ * Descriptions are unique: inserts skip a taken description, updates to a taken description
+ * fail with {@link org.springframework.dao.DuplicateKeyException}. Timestamps are rounded to
+ * the microsecond, like Postgres does. Every write gets a {@link TaskChangePosition position} in
+ * the change feed read by {@link #findChangesSince}, and changes the {@link #findVersion version}.
+ */
+public interface TaskStore {
+
+    Mono<TaskEntity> findById(UUID id);
+
+    Mono<Boolean> existsById(UUID id);
+
+    /**
+     * First {@code limit} tasks in {@code (createdAt, id)} order.
+     */
+    Flux<TaskEntity> findFirstPage(int limit);
+
+    /**
+     * Next {@code limit} tasks in {@code (createdAt, id)} order, after the given position.
+     */
+    Flux<TaskEntity> findPageAfter(Instant createdAt, UUID id, int limit);
+
+    /**
+     * Up to {@code limit} tasks matching {@code filter} in {@code sort} order. With an
+     * {@code after} position, the {@code createdAt} or {@code updatedAt} of the last task of the
+     * previous page depending on the order, only the tasks following {@code (after, afterId)}.
+     */
+    Flux<TaskEntity> findPage(TaskFilter filter, TaskSort sort, Instant after, UUID afterId, int limit);
+
+    /**
+     * Up to {@code limit} tasks whose description matches {@code query} in the given mode, best
+     * match first and oldest first among equal matches.
+     */
+    Flux<TaskEntity> search(String query, TaskSearchMode mode, int limit);
+
+    /**
+     * Tasks with the given ids, in no particular order. Unknown ids are skipped.
+     */
+    Flux<TaskEntity> findAllByIds(UUID[] ids);
+
+    /**
+     * Version of all the tasks, changed by every write.
+     */
+    Mono<String> findVersion();
+
+    /**
+     * Up to {@code limit} changes after {@code since} in position order. A task appears once, at
+     * its last change. A change is only returned once no change can become visible before it,
+     * so a client resuming from the last position it read never skips one.
+     */
+    Flux<TaskChangeEntry> findChangesSince(TaskChangePosition since, int limit);
+
+    /**
+     * Last position whose tombstone may have been pruned. Changes read from an earlier position
+     * can miss deletions.
+     */
+    Mono<TaskChangePosition> findSyncHorizon();
+
+    /**
+     * Drops the tombstones of the tasks deleted before {@code deletedBefore}, moves the sync
+     * horizon past them and returns how many were dropped.
+     */
+    Mono<Long> pruneTombstones(Instant deletedBefore);
+
+    /**
+     * Inserts the task with a new id, or completes empty when its description is taken.
+     */
+    Mono<TaskEntity> insertIfAbsent(TaskEntity task);
+
+    /**
+     * Inserts the tasks whose description is free, all created at {@code createdAt}. Of several
+     * tasks with the same description, only the first one is inserted.
+     */
+    Flux<TaskEntity> insertAllIfAbsent(List<TaskEntity> tasks, Instant createdAt);
+
+    /**
+     * Replaces the description and state of a task. With an {@code expectedUpdatedAt} the update
+     * only applies when the task was last updated at that time. Completes empty when the task
+     * does not exist or did not match.
+     */
+    Mono<TaskEntity> updateTask(UUID id, String description, boolean completed, Instant updatedAt, Instant expectedUpdatedAt);
+
+    /**
+     * Sets the state of the given tasks and returns how many of them changed.
+     */
+    Mono<Long> updateCompletedByIds(UUID[] ids, boolean completed, Instant updatedAt);
+
+    /**
+     * Sets the state of every task currently in {@code currentCompleted} state, or of all tasks
+     * when it is {@code null}, and returns how many of them changed.
+     */
+    Mono<Long> updateCompletedByState(Boolean currentCompleted, boolean completed, Instant updatedAt);
+
+    /**
+     * Deletes a task, only when it was last updated at {@code expectedUpdatedAt} if one is given.
+     * Returns the number of deleted tasks.
+     */
+    Mono<Long> deleteTaskById(UUID id, Instant expectedUpdatedAt);
+
+    Mono<Long> deleteByIds(UUID[] ids);
+
+    /**
+     * Deletes at most {@code limit} tasks matching the optional filters and returns how many were deleted.
+     */
+    Mono<Long> deleteChunkByState(Boolean completed, Instant updatedBefore, int limit);
+
+    /**
+     * Changes made through this store, or by other instances sharing it, as they happen.
+     */
+    Flux<TaskChangeEvent> changes();
+}
@@ -0,0 +1,85 @@
+package io.github.nzuwera.todoapp.store;
+
+import io.github.nzuwera.todoapp.model.TaskSearchMode;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Description matching of the in-memory stores, close to what Postgres does: full-text search
+ * compares whole words without stemming or stop words, fuzzy search compares trigrams like
+ * {@code pg_trgm} word similarity.
+ */
+final class TaskTextSearch {
+    static final double NO_MATCH = -1;
+    private static final double WORD_SIMILARITY_THRESHOLD = 0.6;
+
+    private TaskTextSearch() {
+    }
+
+    /**
+     * Scores a description against a query, higher is better, or returns {@link #NO_MATCH}.
+     */
+    static double score(TaskSearchMode mode, String query, String description) {
+        return switch (mode) {
+            case TEXT -> textScore(query, description);
+            case SUBSTRING -> description.toLowerCase(Locale.ROOT).contains(query.toLowerCase(Locale.ROOT)) ? 0 : NO_MATCH;
+            case FUZZY -> fuzzyScore(query, description);
+        };
+    }
+
+    /**
+     * Occurrences of the query words in the description, when it has all of them.
+     */
+    private static double textScore(String query, String description) {
+        Set<String> terms = new HashSet<>(Arrays.asList(words(query)));
+        if (terms.isEmpty()) {
+            return NO_MATCH;
+        }
+        Set<String> found = new HashSet<>();
+        int occurrences = 0;
+        for (String word : words(description)) {
+            if (terms.contains(word)) {
+                found.add(word);
+                occurrences++;
+            }
+        }
+        return found.size() == terms.size() ? occurrences : NO_MATCH;
+    }
+
+    /**
+     * Share of the query trigrams found in the description.
+     */
+    private static double fuzzyScore(String query, String description) {
+        Set<String> queryTrigrams = trigrams(query);
+        if (queryTrigrams.isEmpty()) {
+            return NO_MATCH;
+        }
+        Set<String> descriptionTrigrams = trigrams(description);
+        long common = queryTrigrams.stream().filter(descriptionTrigrams::contains).count();
+        double similarity = (double) common / queryTrigrams.size();
+        return similarity >= WORD_SIMILARITY_THRESHOLD ? similarity : NO_MATCH;
+    }
+
+    private static String[] words(String text) {
+        String trimmed = text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").strip();
+        return trimmed.isEmpty() ? new String[0] : trimmed.split(" ");
+    }
+
+    /**
+     * Trigrams of every word padded with two spaces in front and one behind, as {@code pg_trgm}
+     * extracts them.
+     */
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : words(text)) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,51 @@
+-- One notification per statement instead of one per row: a bulk write of thousands of tasks
+-- queued as many notifications, each parsed by every listening instance. A statement trigger
+-- reads the changed rows from its transition table, which Postgres only offers to triggers of a
+-- single event, hence a trigger per operation sharing one function. The rows of a statement go
+-- in one payload; when it does not fit the 8000 byte payload limit a RESET is sent instead, and
+-- listeners drop what they hold, as after missing notifications. Statements changing no row
+-- send nothing.
+CREATE OR REPLACE FUNCTION notify_task_changes() RETURNS TRIGGER AS $$
+DECLARE
+    changed BIGINT;
+    payload TEXT;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        SELECT count(*) INTO changed FROM old_tasks;
+    ELSE
+        SELECT count(*) INTO changed FROM new_tasks;
+    END IF;
+    IF changed = 0 THEN
+        RETURN NULL;
+    END IF;
+    -- Even bare ids take 38 bytes, more than 200 rows never fit: skip building their payload
+    IF changed <= 200 THEN
+        IF TG_OP = 'DELETE' THEN
+            SELECT json_build_object('op', TG_OP, 'ids', json_agg(id))::TEXT INTO payload FROM old_tasks;
+        ELSE
+            SELECT json_build_object('op', TG_OP, 'tasks', json_agg(json_build_object(
+                           'id', id, 'description', description, 'completed', completed,
+                           'created_at', created_at, 'updated_at', updated_at)))::TEXT INTO payload
+            FROM new_tasks;
+        END IF;
+    END IF;
+    IF payload IS NULL OR octet_length(payload) >= 8000 THEN
+        payload := json_build_object('op', 'RESET')::TEXT;
+    END IF;
+    PERFORM pg_notify('task_changes', payload);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS tasks_notify_change ON tasks;
+DROP FUNCTION IF EXISTS notify_task_change();
+
+CREATE TRIGGER tasks_notify_insert
+    AFTER INSERT ON tasks REFERENCING NEW TABLE AS new_tasks
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_task_changes();
+CREATE TRIGGER tasks_notify_update
+    AFTER UPDATE ON tasks REFERENCING NEW TABLE AS new_tasks
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_task_changes();
+CREATE TRIGGER tasks_notify_delete
+    AFTER DELETE ON tasks REFERENCING OLD TABLE AS old_tasks
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_task_changes();
@@ -0,0 +1,5 @@
+-- Index matching the keyset pagination order. Built concurrently, so writes go on while it is
+-- built, which Postgres only allows outside a transaction: Flyway runs a migration holding only
+-- such statements without one. A failed concurrent build leaves an invalid index behind, there
+-- is no IF NOT EXISTS so that a rerun stops on it instead of keeping it; drop it and rerun.
+CREATE INDEX CONCURRENTLY idx_tasks_created_at_id ON tasks (created_at, id);
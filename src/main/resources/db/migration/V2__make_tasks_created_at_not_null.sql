@@ -0,0 +1,4 @@
+-- Keyset pagination walks tasks in (created_at, id) order, which requires
+-- created_at to always be set. The matching index is built by V2_1.
+UPDATE tasks SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+ALTER TABLE tasks ALTER COLUMN created_at SET NOT NULL;
@@ -0,0 +1,7 @@
+-- Task descriptions are unique. Enforcing it in the database closes the race
+-- between concurrent inserts on different replicas and lets inserts resolve
+-- conflicts in a single statement with ON CONFLICT.
+-- Built concurrently, outside a transaction. A duplicate written between V3 and this build fails
+-- it and leaves an invalid index, which ON CONFLICT cannot use: without IF NOT EXISTS a rerun
+-- stops on it, drop it, rename the duplicate and rerun.
+CREATE UNIQUE INDEX CONCURRENTLY uk_tasks_description ON tasks (description);
@@ -0,0 +1,27 @@
+-- Task descriptions become unique in V3_1, which fails while duplicates exist. The oldest task
+-- keeps its description, every later duplicate is renamed "<description> (n)" with the first n
+-- from 2 not taken by another task, cut to fit the column. No task is lost.
+DO $$
+DECLARE
+    duplicate RECORD;
+    n INT;
+    renamed TEXT;
+BEGIN
+    FOR duplicate IN
+        SELECT id, description
+        FROM (SELECT id, description,
+                     row_number() OVER (PARTITION BY description ORDER BY created_at, id) AS position
+              FROM tasks) ranked
+        WHERE position > 1
+        ORDER BY description, position
+    LOOP
+        n := 2;
+        LOOP
+            renamed := left(duplicate.description, 255 - length(' (' || n || ')')) || ' (' || n || ')';
+            EXIT WHEN NOT EXISTS (SELECT 1 FROM tasks WHERE description = renamed);
+            n := n + 1;
+        END LOOP;
+        UPDATE tasks SET description = renamed, updated_at = CURRENT_TIMESTAMP WHERE id = duplicate.id;
+    END LOOP;
+END;
+$$;
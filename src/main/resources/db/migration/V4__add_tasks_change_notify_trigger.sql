@@ -0,0 +1,13 @@
+-- Publish every row change on the task_changes channel so that all application
+-- instances can react to writes made by any of them (cache invalidation, change feeds).
+CREATE OR REPLACE FUNCTION notify_task_change() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('task_changes', json_build_object('op', TG_OP, 'id', COALESCE(NEW.id, OLD.id))::TEXT);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS tasks_notify_change ON tasks;
+CREATE TRIGGER tasks_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON tasks
+    FOR EACH ROW EXECUTE FUNCTION notify_task_change();
@@ -0,0 +1,12 @@
+-- Ship the changed row with the notification so change feed subscribers do not have to
+-- read it back. Descriptions are capped at 255 characters, well below the 8000 byte payload limit.
+CREATE OR REPLACE FUNCTION notify_task_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('task_changes', json_build_object('op', TG_OP, 'id', OLD.id)::TEXT);
+    ELSE
+        PERFORM pg_notify('task_changes', json_build_object('op', TG_OP, 'id', NEW.id, 'task', row_to_json(NEW))::TEXT);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,3 @@
+-- Sync feed order. Built without blocking writes, which Flyway runs outside a transaction, so it
+-- has a migration of its own.
+CREATE INDEX CONCURRENTLY idx_tasks_change ON tasks (change_xid, change_seq, id);
@@ -0,0 +1,67 @@
+-- Delta sync: every insert and update stamps the row with its transaction id and the next value
+-- of a shared change sequence, and every delete leaves a tombstone stamped the same way, so a
+-- client can ask for everything that changed after the last change it has seen.
+CREATE SEQUENCE IF NOT EXISTS tasks_change_seq;
+
+-- Constant defaults are only recorded in the catalog, existing rows are not rewritten. They all
+-- sort before the first stamped change, among themselves by id.
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS change_xid BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS change_seq BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS task_tombstones (
+    id         UUID PRIMARY KEY,
+    change_xid BIGINT      NOT NULL,
+    change_seq BIGINT      NOT NULL,
+    deleted_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_task_tombstones_change ON task_tombstones (change_xid, change_seq, id);
+CREATE INDEX IF NOT EXISTS idx_task_tombstones_deleted_at ON task_tombstones (deleted_at);
+
+-- Tombstones are pruned after a retention period. The last pruned position is kept here: a
+-- client resuming from an earlier position may have missed deletions and must sync from scratch.
+CREATE TABLE IF NOT EXISTS task_sync_horizon (
+    singleton  BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (singleton),
+    change_xid BIGINT NOT NULL,
+    change_seq BIGINT NOT NULL,
+    id         UUID   NOT NULL
+);
+INSERT INTO task_sync_horizon (change_xid, change_seq, id)
+VALUES (0, 0, '00000000-0000-0000-0000-000000000000')
+ON CONFLICT DO NOTHING;
+
+-- Sequence values are handed out when a statement runs but become visible when its transaction
+-- commits, so they are not taken in commit order. Instead of serializing writers, the sync feed
+-- orders changes by transaction id first and only serves those of transactions older than the
+-- oldest one still running (pg_snapshot_xmin): every change that becomes visible later belongs
+-- to a transaction at or above that bound, and so sorts after everything already served.
+CREATE OR REPLACE FUNCTION stamp_task_change() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.change_xid := CAST(CAST(pg_current_xact_id() AS TEXT) AS BIGINT);
+    NEW.change_seq := nextval('tasks_change_seq');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION record_task_tombstone() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO task_tombstones (id, change_xid, change_seq)
+        VALUES (OLD.id, CAST(CAST(pg_current_xact_id() AS TEXT) AS BIGINT), nextval('tasks_change_seq'))
+        ON CONFLICT (id) DO UPDATE
+            SET change_xid = EXCLUDED.change_xid, change_seq = EXCLUDED.change_seq, deleted_at = CURRENT_TIMESTAMP;
+    ELSE
+        DELETE FROM task_tombstones WHERE id = NEW.id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS tasks_stamp_change_seq ON tasks;
+CREATE TRIGGER tasks_stamp_change_seq
+    BEFORE INSERT OR UPDATE ON tasks
+    FOR EACH ROW EXECUTE FUNCTION stamp_task_change();
+
+DROP TRIGGER IF EXISTS tasks_record_tombstone ON tasks;
+CREATE TRIGGER tasks_record_tombstone
+    AFTER INSERT OR DELETE ON tasks
+    FOR EACH ROW EXECUTE FUNCTION record_task_tombstone();
@@ -0,0 +1,8 @@
+-- Clients mostly list the open tasks. An index holding only them stays small however many
+-- completed tasks pile up, and carries the listed columns so a page is read from it alone.
+-- Completed is included although constant, an index-only scan only returns stored columns.
+-- The listing writes the completed state as a literal, which the planner needs to use it.
+-- Built concurrently, outside a transaction, like every index added to the populated table.
+CREATE INDEX CONCURRENTLY idx_tasks_open_created_at_id ON tasks (created_at, id)
+    INCLUDE (description, completed, updated_at)
+    WHERE completed = FALSE;
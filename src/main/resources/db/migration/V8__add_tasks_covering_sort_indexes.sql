@@ -0,0 +1,10 @@
+-- Every order of the task listing walks an index, forwards or backwards, that also carries the
+-- listed columns, so a page is an index-only scan once the visibility map is current.
+-- The covering creation order index replaces the plain one of V2_1. Each statement runs on its
+-- own outside a transaction; the plain index is only dropped once its replacement is built.
+CREATE INDEX CONCURRENTLY idx_tasks_created_at_id_covering ON tasks (created_at, id)
+    INCLUDE (description, completed, updated_at);
+DROP INDEX CONCURRENTLY IF EXISTS idx_tasks_created_at_id;
+
+CREATE INDEX CONCURRENTLY idx_tasks_updated_at_id_covering ON tasks (updated_at, id)
+    INCLUDE (description, completed, created_at);
@@ -0,0 +1,8 @@
+-- Description search. Full-text search matches the words of the description through a GIN index
+-- on its tsvector expression; queries have to spell the expression the same way to use it.
+-- Substring and fuzzy search match trigrams of the description through a second GIN index,
+-- which serves ILIKE '%...%' and the word similarity operator alike. The unique index of V3_1 is
+-- a B-tree and only serves exact matches. An expression index adds no column, so the table is
+-- not rewritten, and both are built concurrently, outside a transaction.
+CREATE INDEX CONCURRENTLY idx_tasks_description_tsv ON tasks USING GIN (to_tsvector('english', description));
+CREATE INDEX CONCURRENTLY idx_tasks_description_trgm ON tasks USING GIN (description gin_trgm_ops);
@@ -0,0 +1,2 @@
+-- Trigram matching for the description search indexes of V9_1. The extension ships with Postgres.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
@@ -0,0 +1,49 @@
+package io.github.nzuwera.todoapp;
+
+import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.store.InMemoryTaskStore;
+import io.github.nzuwera.todoapp.store.TaskStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@ActiveProfiles(InMemoryTaskStore.PROFILE)
+class InMemoryProfileTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private TaskStore taskStore;
+
+    @Test
+    void tasksApi_ShouldRunWithoutDatabase() {
+        // When
+        Task created = webTestClient.post()
+                .uri("/v1/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new Task(null, "In memory task", false, null, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Task.class)
+                .returnResult()
+                .getResponseBody();
+
+        // Then
+        assertInstanceOf(InMemoryTaskStore.class, taskStore);
+        webTestClient.get()
+                .uri("/v1/tasks/{taskId}", created.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Task.class)
+                .isEqualTo(created);
+    }
+}
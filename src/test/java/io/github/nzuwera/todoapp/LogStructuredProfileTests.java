@@ -0,0 +1,62 @@
+package io.github.nzuwera.todoapp;
+
+import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.store.LogStructuredTaskStore;
+import io.github.nzuwera.todoapp.store.TaskStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@ActiveProfiles(LogStructuredTaskStore.PROFILE)
+// Closes the store, which writes a snapshot, before the temporary directory is deleted
+@DirtiesContext
+class LogStructuredProfileTests {
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("todo.store.log.directory", () -> directory.toString());
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private TaskStore taskStore;
+
+    @Test
+    void tasksApi_ShouldLogWritesWithoutDatabase() throws IOException {
+        // When
+        webTestClient.post()
+                .uri("/v1/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new Task(null, "Logged task", false, null, null))
+                .exchange()
+                .expectStatus().isOk();
+
+        // Then
+        assertInstanceOf(LogStructuredTaskStore.class, taskStore);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.anyMatch(file -> file.getFileName().toString().startsWith("wal-")));
+        }
+    }
+}
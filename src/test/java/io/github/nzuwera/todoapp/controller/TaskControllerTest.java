@@ -1,21 +1,43 @@
 package io.github.nzuwera.todoapp.controller;
 
 import io.github.nzuwera.todoapp.TaskFixtures;
+import io.github.nzuwera.todoapp.exceptions.TaskNotFoundException;
+import io.github.nzuwera.todoapp.exceptions.TaskSyncExpiredException;
 import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.model.TaskBatchResult;
+import io.github.nzuwera.todoapp.model.TaskBulkResult;
+import io.github.nzuwera.todoapp.model.TaskBulkUpdate;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import io.github.nzuwera.todoapp.model.TaskFilter;
+import io.github.nzuwera.todoapp.model.TaskLookup;
+import io.github.nzuwera.todoapp.model.TaskLookupResult;
+import io.github.nzuwera.todoapp.model.TaskPage;
+import io.github.nzuwera.todoapp.model.TaskSync;
 import io.github.nzuwera.todoapp.service.ITaskService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
+import java.time.Instant;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(TaskController.class)
@@ -33,19 +55,118 @@ class TaskControllerTest {
         Task task1 = TaskFixtures.createTask();
         List<Task> tasks = List.of(task1);
 
-        when(taskService.getTasks()).thenReturn(Flux.fromIterable(tasks));
+        when(taskService.getTasksVersion()).thenReturn(Mono.just("1-1"));
+        when(taskService.getTasks(TaskFilter.NONE, null, null, null)).thenReturn(Mono.just(new TaskPage(tasks, null)));
 
         // When & Then
         webTestClient.get()
                 .uri("/v1/tasks")
                 .exchange()
                 .expectStatus().isOk()
+                .expectHeader().doesNotExist(TaskController.NEXT_CURSOR_HEADER)
                 .expectBodyList(Task.class)
                 .value(responseList -> {
                     assert responseList.size() == 1;
                     Task responseTask = responseList.getFirst();
-                    assert responseTask.getDescription().equals(task1.getDescription());
-                    assert responseTask.isCompleted() == task1.isCompleted();
+                    assert responseTask.description().equals(task1.description());
+                    assert responseTask.completed() == task1.completed();
+                });
+    }
+
+    @Test
+    void getTasks_ShouldReturnNextCursorHeader_WhenMoreTasksFollow() {
+        // Given
+        Task task1 = TaskFixtures.createTask();
+
+        when(taskService.getTasksVersion()).thenReturn(Mono.just("1-1"));
+        when(taskService.getTasks(TaskFilter.NONE, null, 1, "cursor-1")).thenReturn(Mono.just(new TaskPage(List.of(task1), "cursor-2")));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/v1/tasks?limit=1&after=cursor-1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(TaskController.NEXT_CURSOR_HEADER, "cursor-2")
+                .expectBodyList(Task.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void getTasks_ShouldPassFiltersAndSort() {
+        // Given
+        Task task1 = TaskFixtures.createTask();
+        TaskFilter filter = new TaskFilter(false, Instant.parse("2025-01-01T00:00:00Z"), null, Instant.parse("2025-02-01T10:00:00Z"));
+
+        when(taskService.getTasksVersion()).thenReturn(Mono.just("1-1"));
+        when(taskService.getTasks(filter, "-updatedAt", null, null)).thenReturn(Mono.just(new TaskPage(List.of(task1), null)));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/v1/tasks?completed=false&createdAfter=2025-01-01T00:00:00Z&updatedSince=2025-02-01T10:00:00Z&sort=-updatedAt")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.ETAG, eTag ->
+                        assertThat(eTag).isEqualTo(TaskETags.ofPage("1-1", filter, "-updatedAt", null, null))
+                                .isNotEqualTo(TaskETags.ofPage("1-1", TaskFilter.NONE, null, null, null)))
+                .expectBodyList(Task.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void searchTasks_ShouldStreamMatchingTasks() {
+        // Given
+        Task task = TaskFixtures.createTask();
+
+        when(taskService.searchTasks("milk", "fuzzy", 5)).thenReturn(Flux.just(task));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/v1/tasks/search?q=milk&mode=fuzzy&limit=5")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Task.class)
+                .contains(task);
+    }
+
+    @Test
+    void getTasksByIds_ShouldReturnFoundAndMissingTasks() {
+        // Given
+        Task task = TaskFixtures.createTask();
+
+        when(taskService.getTasks(List.of(task.id().toString(), "unknown")))
+                .thenReturn(Mono.just(new TaskLookupResult(List.of(task), List.of("unknown"))));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/v1/tasks?ids={first},{second}", task.id(), "unknown")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.tasks[0].id").isEqualTo(task.id().toString())
+                .jsonPath("$.missing[0]").isEqualTo("unknown");
+    }
+
+    @Test
+    void lookupTasks_ShouldReturnFoundAndMissingTasks() {
+        // Given
+        Task task = TaskFixtures.createTask();
+
+        when(taskService.getTasks(List.of(task.id().toString())))
+                .thenReturn(Mono.just(new TaskLookupResult(List.of(task), List.of())));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/v1/tasks/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TaskLookup(List.of(task.id().toString())))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskLookupResult.class)
+                .value(lookup -> {
+                    assert lookup.tasks().size() == 1;
+                    assert lookup.missing().isEmpty();
                 });
     }
 
@@ -65,9 +186,36 @@ class TaskControllerTest {
                 .expectStatus().isOk()
                 .expectBody(Task.class)
                 .value(responseTask -> {
-                    assert responseTask.getId().equals(createdTask.getId());
-                    assert responseTask.getDescription().equals(createdTask.getDescription());
-                    assert responseTask.isCompleted() == createdTask.isCompleted();
+                    assert responseTask.id().equals(createdTask.id());
+                    assert responseTask.description().equals(createdTask.description());
+                    assert responseTask.completed() == createdTask.completed();
+                });
+    }
+
+    @Test
+    void createTasks_ShouldStreamResultPerTask() {
+        // Given
+        Task created = TaskFixtures.createTask();
+
+        when(taskService.createTasks(any())).thenReturn(Flux.just(
+                TaskBatchResult.created(0, created),
+                TaskBatchResult.conflict(1, "Task with description 'Test Task' already exists")));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/v1/tasks/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"description\":\"Test Task\"}\n{\"description\":\"Test Task\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TaskBatchResult.class)
+                .value(results -> {
+                    assert results.size() == 2;
+                    assert results.get(0).status() == TaskBatchResult.Status.CREATED;
+                    assert results.get(0).task().id().equals(created.id());
+                    assert results.get(1).status() == TaskBatchResult.Status.CONFLICT;
+                    assert results.get(1).task() == null;
                 });
     }
 
@@ -75,9 +223,9 @@ class TaskControllerTest {
     void getTaskById_ShouldReturnTask_WhenTaskExists() {
         // Given
         Task task = TaskFixtures.createTask();
-        String taskId = task.getId();
+        String taskId = task.id().toString();
 
-        when(taskService.getTasks()).thenReturn(Flux.just(task));
+        when(taskService.getTask(taskId)).thenReturn(Mono.just(task));
 
         // When & Then
         webTestClient.get()
@@ -86,37 +234,93 @@ class TaskControllerTest {
                 .expectStatus().isOk()
                 .expectBody(Task.class)
                 .value(responseTask -> {
-                    assert responseTask.getId().equals(taskId);
-                    assert responseTask.getDescription().equals(task.getDescription());
-                    assert responseTask.isCompleted() == task.isCompleted();
+                    assert responseTask.id().toString().equals(taskId);
+                    assert responseTask.description().equals(task.description());
+                    assert responseTask.completed() == task.completed();
                 });
     }
 
     @Test
-    void getTaskById_ShouldReturnEmptyResponse_WhenTaskDoesNotExist() {
+    void getTaskById_ShouldWriteTimestampsAsIsoInstants() {
         // Given
-        String nonExistentTaskId = "non-existent-id";
+        Task task = TaskFixtures.createTask()
+                .withCreatedAt(Instant.parse("2025-01-01T10:15:30.123456Z"))
+                .withUpdatedAt(Instant.parse("2025-01-02T00:00:00Z"));
+        String taskId = task.id().toString();
 
-        when(taskService.getTasks()).thenReturn(Flux.empty());
+        when(taskService.getTask(taskId)).thenReturn(Mono.just(task));
 
         // When & Then
         webTestClient.get()
-                .uri("/v1/tasks/{taskId}", nonExistentTaskId)
+                .uri("/v1/tasks/{taskId}", taskId)
                 .exchange()
                 .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.createdAt").isEqualTo("2025-01-01T10:15:30.123456Z")
+                .jsonPath("$.updatedAt").isEqualTo("2025-01-02T00:00:00Z");
+    }
+
+    @Test
+    void getTasks_ShouldReturnNotModified_WhenETagMatches() {
+        // Given
+        when(taskService.getTasksVersion()).thenReturn(Mono.just("1-1"));
+        String eTag = TaskETags.ofPage("1-1", TaskFilter.NONE, null, null, null);
+
+        // When & Then
+        webTestClient.get()
+                .uri("/v1/tasks")
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, eTag)
                 .expectBody().isEmpty();
+
+        verify(taskService, never()).getTasks(any(), any(), any(), any());
+    }
+
+    @Test
+    void getTaskById_ShouldReturnNotModified_WhenETagMatches() {
+        // Given
+        Task task = TaskFixtures.createTask();
+        when(taskService.getTask(task.id().toString())).thenReturn(Mono.just(task));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/v1/tasks/{taskId}", task.id())
+                .ifNoneMatch(TaskETags.of(task))
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getTaskById_ShouldReturnNotFound_WhenTaskDoesNotExist() {
+        // Given
+        String nonExistentTaskId = "non-existent-id";
+
+        when(taskService.getTask(nonExistentTaskId))
+                .thenReturn(Mono.error(new TaskNotFoundException("Task with id non-existent-id not found")));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/v1/tasks/{taskId}", nonExistentTaskId)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Task Not Found")
+                .jsonPath("$.detail").isEqualTo("Task with id non-existent-id not found");
     }
 
     @Test
     void updateTaskById_ShouldReturnUpdatedTask() {
         // Given
-        Task taskToUpdate = TaskFixtures.createTask();
-        taskToUpdate.setDescription("Updated Task");
-        taskToUpdate.setCompleted(true);
+        Task taskToUpdate = TaskFixtures.createTask()
+                .withDescription("Updated Task")
+                .withCompleted(true);
 
-        String taskId = taskToUpdate.getId();
+        String taskId = taskToUpdate.id().toString();
 
-        when(taskService.updateTask(eq(taskId), any(Task.class))).thenReturn(Mono.just(taskToUpdate));
+        when(taskService.updateTask(eq(taskId), any(Task.class), isNull())).thenReturn(Mono.just(taskToUpdate));
 
         // When & Then
         webTestClient.put()
@@ -126,25 +330,221 @@ class TaskControllerTest {
                 .expectStatus().isOk()
                 .expectBody(Task.class)
                 .value(responseTask -> {
-                    assert responseTask.getId().equals(taskId);
-                    assert responseTask.getDescription().equals("Updated Task");
-                    assert responseTask.isCompleted();
+                    assert responseTask.id().toString().equals(taskId);
+                    assert responseTask.description().equals("Updated Task");
+                    assert responseTask.completed();
                 });
     }
 
     @Test
-    void deleteTaskById_ShouldReturnSuccess() {
+    void updateTaskById_ShouldPassIfMatchVersion_AndReturnNewETag() {
+        // Given
+        Task taskToUpdate = TaskFixtures.createTask();
+        String taskId = taskToUpdate.id().toString();
+        Instant readAt = Instant.parse("2025-01-01T10:15:30.123456Z");
+        Task readTask = TaskFixtures.createTask().withUpdatedAt(readAt);
+
+        when(taskService.updateTask(eq(taskId), any(Task.class), eq(readAt))).thenReturn(Mono.just(taskToUpdate));
+
+        // When & Then
+        webTestClient.put()
+                .uri("/v1/tasks/{taskId}", taskId)
+                .header(HttpHeaders.IF_MATCH, TaskETags.of(readTask))
+                .bodyValue(taskToUpdate)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, TaskETags.of(taskToUpdate));
+    }
+
+    @Test
+    void updateTaskById_ShouldReturnPreconditionFailed_WhenIfMatchIsNotATaskETag() {
+        // Given
+        Task taskToUpdate = TaskFixtures.createTask();
+
+        // When & Then
+        webTestClient.put()
+                .uri("/v1/tasks/{taskId}", taskToUpdate.id())
+                .header(HttpHeaders.IF_MATCH, "W/\"weak\"")
+                .bodyValue(taskToUpdate)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED)
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Precondition Failed");
+
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void updateTaskById_ShouldReturnPreconditionFailed_WhenIfMatchIsAnyAndTaskDoesNotExist() {
+        // Given
+        Task taskToUpdate = TaskFixtures.createTask();
+        String taskId = taskToUpdate.id().toString();
+
+        when(taskService.updateTask(eq(taskId), any(Task.class), isNull()))
+                .thenReturn(Mono.error(new TaskNotFoundException("Task with id %s not found".formatted(taskId))));
+
+        // When & Then
+        webTestClient.put()
+                .uri("/v1/tasks/{taskId}", taskId)
+                .header(HttpHeaders.IF_MATCH, "*")
+                .bodyValue(taskToUpdate)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED)
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Precondition Failed");
+    }
+
+    @Test
+    void updateTasks_ShouldReturnAffectedCount() {
+        // Given
+        TaskBulkUpdate update = new TaskBulkUpdate(null, new TaskBulkUpdate.Filter(false), true);
+
+        when(taskService.updateTasks(update)).thenReturn(Mono.just(new TaskBulkResult(3)));
+
+        // When & Then
+        webTestClient.patch()
+                .uri("/v1/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(update)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.affected").isEqualTo(3);
+    }
+
+    @Test
+    void updateTasks_ShouldReturnBadRequest_WhenTargetStateIsMissing() {
+        // When & Then
+        webTestClient.patch()
+                .uri("/v1/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"filter\":{}}")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void deleteTaskById_ShouldReturnNoContent() {
         // Given
         String taskId = "task-id";
 
-        when(taskService.deleteTask(taskId)).thenReturn(Mono.empty());
+        when(taskService.deleteTask(taskId, null)).thenReturn(Mono.empty());
 
         // When & Then
         webTestClient.delete()
                 .uri("/v1/tasks/{taskId}", taskId)
                 .exchange()
-                .expectStatus().isOk();
+                .expectStatus().isNoContent()
+                .expectBody().isEmpty();
+
+        verify(taskService).deleteTask(taskId, null);
+    }
+
+    @Test
+    void deleteTaskById_ShouldReturnNotFound_WhenTaskDoesNotExist() {
+        // Given
+        String taskId = "task-id";
+
+        when(taskService.deleteTask(taskId, null))
+                .thenReturn(Mono.error(new TaskNotFoundException("Task with id task-id not found")));
 
-        verify(taskService).deleteTask(taskId);
+        // When & Then
+        webTestClient.delete()
+                .uri("/v1/tasks/{taskId}", taskId)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void deleteTaskById_ShouldReturnPreconditionFailed_WhenIfMatchIsAnyAndTaskDoesNotExist() {
+        // Given
+        String taskId = "task-id";
+
+        when(taskService.deleteTask(taskId, null))
+                .thenReturn(Mono.error(new TaskNotFoundException("Task with id task-id not found")));
+
+        // When & Then
+        webTestClient.delete()
+                .uri("/v1/tasks/{taskId}", taskId)
+                .header(HttpHeaders.IF_MATCH, "*")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void deleteTasks_ShouldReturnDeletedCount() {
+        // Given
+        Instant updatedBefore = Instant.parse("2025-01-01T00:00:00Z");
+
+        when(taskService.deleteTasks(null, true, updatedBefore)).thenReturn(Mono.just(new TaskBulkResult(4)));
+
+        // When & Then
+        webTestClient.delete()
+                .uri("/v1/tasks?completed=true&updatedBefore=2025-01-01T00:00:00Z")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.affected").isEqualTo(4);
+    }
+
+    @Test
+    void getTaskChanges_ShouldStreamChangesAsServerSentEvents() {
+        // Given
+        Task task = TaskFixtures.createTask();
+        TaskChangeEvent created = new TaskChangeEvent(TaskChangeEvent.Type.CREATED, task.id().toString(), task);
+
+        when(taskService.getTaskChanges()).thenReturn(Flux.just(TaskChangeEvent.reset(), created));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/v1/tasks/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<TaskChangeEvent>>() {
+                })
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .assertNext(event -> assertThat(event.event()).isEqualTo("RESET"))
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo("CREATED");
+                    assertThat(event.data().task().description()).isEqualTo(task.description());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void syncTasks_ShouldReturnChangesSinceToken() {
+        // Given
+        Task task = TaskFixtures.createTask();
+        when(taskService.syncTasks("token-42", null))
+                .thenReturn(Mono.just(new TaskSync(List.of(task), List.of("deleted-id"), "token-44", false)));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/v1/tasks/sync?since=token-42")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.tasks[0].id").isEqualTo(task.id().toString())
+                .jsonPath("$.deletedIds[0]").isEqualTo("deleted-id")
+                .jsonPath("$.next").isEqualTo("token-44")
+                .jsonPath("$.hasMore").isEqualTo(false);
+    }
+
+    @Test
+    void syncTasks_ShouldReturnGone_WhenTokenExpired() {
+        // Given
+        when(taskService.syncTasks("old", null))
+                .thenReturn(Mono.error(new TaskSyncExpiredException("Sync token old has expired, sync again without it")));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/v1/tasks/sync?since=old")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.GONE)
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Sync Token Expired");
     }
 }
@@ -0,0 +1,58 @@
+package io.github.nzuwera.todoapp.observability;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpTimingsTest {
+
+    private final HttpTimings httpTimings = new HttpTimings(TimeUnit.MILLISECONDS.toNanos(100), 2);
+
+    private static long[] phases(long queueMillis, long acquireMillis, long queryMillis, long encodeMillis) {
+        return new long[]{
+                TimeUnit.MILLISECONDS.toNanos(queueMillis),
+                TimeUnit.MILLISECONDS.toNanos(acquireMillis),
+                TimeUnit.MILLISECONDS.toNanos(queryMillis),
+                TimeUnit.MILLISECONDS.toNanos(encodeMillis)};
+    }
+
+    @Test
+    void record_ShouldKeepHistogramsPerRouteAndPhase() {
+        // When
+        httpTimings.record("GET", "/v1/tasks/{taskId}", 200, TimeUnit.MILLISECONDS.toNanos(10), phases(1, 2, 3, 4));
+        httpTimings.record("GET", "/v1/tasks/{taskId}", 404, TimeUnit.MILLISECONDS.toNanos(20), phases(1, 2, 13, 0));
+        httpTimings.record("GET", "/v1/tasks", 200, TimeUnit.MILLISECONDS.toNanos(5), phases(0, 0, 0, 0));
+
+        // Then
+        HttpTimings.Report report = httpTimings.report();
+        assertThat(report.routes()).extracting(HttpTimings.RouteReport::route)
+                .containsExactly("GET /v1/tasks", "GET /v1/tasks/{taskId}");
+        HttpTimings.RouteReport task = report.routes().get(1);
+        assertThat(task.count()).isEqualTo(2);
+        assertThat(task.total().max()).isBetween(19.9, 20.1);
+        assertThat(task.phases()).containsOnlyKeys("queue", "acquire", "query", "encode");
+        assertThat(task.phases().get("query").max()).isBetween(12.9, 13.1);
+        assertThat(task.phases().get("encode").p50()).isZero();
+        assertThat(report.slowestRecentRequests()).isEmpty();
+    }
+
+    @Test
+    void record_ShouldKeepTheLatestSlowRequestsSlowestFirst() {
+        // When
+        httpTimings.record("GET", "/v1/tasks", 200, TimeUnit.MILLISECONDS.toNanos(300), phases(0, 250, 40, 5));
+        httpTimings.record("PUT", "/v1/tasks/{taskId}", 200, TimeUnit.MILLISECONDS.toNanos(150), phases(0, 0, 140, 5));
+        httpTimings.record("GET", "/v1/tasks/{taskId}", 200, TimeUnit.MILLISECONDS.toNanos(200), phases(190, 0, 5, 1));
+
+        // Then
+        assertThat(httpTimings.report().slowestRecentRequests())
+                .extracting(HttpTimings.SlowRequest::route)
+                .containsExactly("GET /v1/tasks/{taskId}", "PUT /v1/tasks/{taskId}");
+        assertThat(httpTimings.report().slowestRecentRequests().get(0).phases())
+                .containsEntry("queue", 190.0);
+        httpTimings.reset();
+        assertThat(httpTimings.report().routes()).isEmpty();
+        assertThat(httpTimings.report().slowestRecentRequests()).isEmpty();
+    }
+}
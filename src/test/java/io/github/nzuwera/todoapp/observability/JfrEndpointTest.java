@@ -0,0 +1,119 @@
+package io.github.nzuwera.todoapp.observability;
+
+import io.github.nzuwera.todoapp.exceptions.TaskNotFoundException;
+import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.model.TaskPage;
+import io.github.nzuwera.todoapp.service.TaskMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JfrEndpointTest {
+
+    @TempDir
+    Path directory;
+
+    private JfrEndpoint jfrEndpoint;
+
+    private final TaskMetrics taskMetrics = new TaskMetrics(new SimpleMeterRegistry());
+
+    private JfrEndpoint endpoint(int maxDumps) {
+        jfrEndpoint = new JfrEndpoint(directory, "default", Duration.ofMinutes(1), 10 * 1024 * 1024, maxDumps);
+        return jfrEndpoint;
+    }
+
+    @AfterEach
+    void closeRecording() {
+        jfrEndpoint.close();
+    }
+
+    private static Task task(String description) {
+        return new Task(UUID.randomUUID(), description, false, Instant.now(), Instant.now());
+    }
+
+    @Test
+    void dump_ShouldWriteTaskOperationAndErrorMappingEvents() throws Exception {
+        // Given
+        JfrEndpoint endpoint = endpoint(10);
+        endpoint.control("start");
+        String taskId = UUID.randomUUID().toString();
+
+        // When
+        StepVerifier.create(Mono.just(task("Recorded")).transform(taskMetrics.timed("getTask", taskId)))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(Mono.just(new TaskPage(List.of(task("First"), task("Second")), null))
+                        .transform(taskMetrics.timed("getTasks")))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(Mono.<Task>error(new TaskNotFoundException("Missing"))
+                        .transform(taskMetrics.timed("getTask", "missing")))
+                .verifyError(TaskNotFoundException.class);
+        ErrorMappingEvent.emit(new TaskNotFoundException("Missing"), 404, "Task Not Found");
+        JfrEndpoint.RecordingStatus status = endpoint.control("dump");
+
+        // Then
+        assertThat(status.state()).isEqualTo("RUNNING");
+        assertThat(status.dumps()).hasSize(1);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(directory.resolve(status.dumps().get(0)));
+        List<RecordedEvent> operations = events.stream()
+                .filter(event -> event.getEventType().getName().equals(TaskOperationEvent.NAME))
+                .toList();
+        assertThat(operations).anySatisfy(event -> {
+            assertThat(event.getString("operation")).isEqualTo("getTask");
+            assertThat(event.getString("taskId")).isEqualTo(taskId);
+            assertThat(event.getLong("rows")).isEqualTo(1);
+            assertThat(event.getString("outcome")).isEqualTo("ok");
+            assertThat(event.getDuration()).isPositive();
+        });
+        assertThat(operations).anySatisfy(event -> {
+            assertThat(event.getString("operation")).isEqualTo("getTasks");
+            assertThat(event.getLong("rows")).isEqualTo(2);
+        });
+        assertThat(operations).anySatisfy(event -> {
+            assertThat(event.getString("taskId")).isEqualTo("missing");
+            assertThat(event.getString("outcome")).isEqualTo("not_found");
+        });
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo(ErrorMappingEvent.NAME);
+            assertThat(event.getString("exception")).isEqualTo(TaskNotFoundException.class.getName());
+            assertThat(event.getInt("status")).isEqualTo(404);
+            assertThat(event.getString("title")).isEqualTo("Task Not Found");
+        });
+    }
+
+    @Test
+    void stop_ShouldWriteALastDumpAndKeepOnlyTheLatestDumps() throws Exception {
+        // Given
+        JfrEndpoint endpoint = endpoint(2);
+        endpoint.control("start");
+        endpoint.control("dump");
+        Thread.sleep(2);
+        endpoint.control("dump");
+        Thread.sleep(2);
+
+        // When
+        JfrEndpoint.RecordingStatus status = endpoint.control("stop");
+
+        // Then
+        assertThat(status.state()).isEqualTo("CLOSED");
+        assertThat(status.dumps()).hasSize(2);
+        assertThatThrownBy(() -> endpoint.control("dump")).isInstanceOf(InvalidEndpointRequestException.class);
+        assertThatThrownBy(() -> endpoint.control("restart")).isInstanceOf(InvalidEndpointRequestException.class);
+    }
+}
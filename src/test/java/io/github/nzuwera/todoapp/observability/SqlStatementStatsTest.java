@@ -0,0 +1,114 @@
+package io.github.nzuwera.todoapp.observability;
+
+import io.r2dbc.proxy.core.Bindings;
+import io.r2dbc.proxy.core.BoundValue;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.core.ValueStore;
+import io.r2dbc.proxy.test.MockQueryExecutionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SqlStatementStatsTest {
+
+    private final SqlStatementStats stats = new SqlStatementStats(Duration.ofMillis(100), 2);
+
+    private void execute(String query, Duration duration, int rows, boolean success) {
+        stats.afterQuery(MockQueryExecutionInfo.builder()
+                .queryInfo(new QueryInfo(query))
+                .executeDuration(duration)
+                .currentResultCount(rows)
+                .isSuccess(success)
+                .build());
+    }
+
+    @Test
+    void normalize_ShouldReplaceLiteralsAndBindMarkerLists() {
+        // When & Then
+        assertThat(SqlStatementStats.normalize("SELECT *  FROM task\n WHERE description = 'it''s' LIMIT 10"))
+                .isEqualTo("SELECT * FROM task WHERE description = ? LIMIT ?");
+        assertThat(SqlStatementStats.normalize("DELETE FROM task WHERE id IN ($1, $2,$3) AND t2.col1 > $4"))
+                .isEqualTo("DELETE FROM task WHERE id IN (...) AND t2.col1 > $4");
+    }
+
+    @Test
+    void afterQuery_ShouldAggregateStatementsDifferingOnlyInValues() {
+        // When
+        execute("SELECT * FROM task LIMIT 10", Duration.ofMillis(2), 10, true);
+        execute("SELECT * FROM task LIMIT 20", Duration.ofMillis(4), 20, true);
+        execute("UPDATE task SET completed = $1", Duration.ofMillis(30), 0, false);
+
+        // Then
+        List<SqlStatementStats.StatementSummary> summaries = stats.summaries();
+        assertThat(summaries).extracting(SqlStatementStats.StatementSummary::statement)
+                .containsExactly("UPDATE task SET completed = $1", "SELECT * FROM task LIMIT ?");
+        SqlStatementStats.StatementSummary select = summaries.get(1);
+        assertThat(select.calls()).isEqualTo(2);
+        assertThat(select.rows()).isEqualTo(30);
+        assertThat(select.errors()).isZero();
+        assertThat(select.totalMillis()).isEqualTo(6.0);
+        assertThat(select.maxMillis()).isBetween(3.9, 4.1);
+        assertThat(summaries.get(0).errors()).isEqualTo(1);
+    }
+
+    @Test
+    void afterQuery_ShouldCountAffectedRowsOfStatementsWithoutReturning() {
+        // Given
+        ValueStore values = ValueStore.create();
+        MockQueryExecutionInfo update = MockQueryExecutionInfo.builder()
+                .queryInfo(new QueryInfo("UPDATE task SET completed = $1"))
+                .valueStore(values)
+                .currentMappedResult(42L)
+                .currentResultCount(1)
+                .executeDuration(Duration.ofMillis(3))
+                .isSuccess(true)
+                .build();
+
+        // When
+        stats.eachQueryResult(update);
+        stats.afterQuery(update);
+        execute("DELETE FROM task WHERE id = $1 RETURNING id", Duration.ofMillis(1), 1, true);
+
+        // Then
+        assertThat(stats.summaries())
+                .extracting(SqlStatementStats.StatementSummary::statement, SqlStatementStats.StatementSummary::rows)
+                .containsExactly(
+                        tuple("UPDATE task SET completed = $1", 42L),
+                        tuple("DELETE FROM task WHERE id = $1 RETURNING id", 1L));
+    }
+
+    @Test
+    void afterQuery_ShouldCountStatementsBeyondTheLimitAsOther() {
+        // When
+        execute("SELECT 1", Duration.ofMillis(1), 1, true);
+        execute("SELECT * FROM task", Duration.ofMillis(1), 1, true);
+        execute("SELECT id FROM task", Duration.ofMillis(1), 1, true);
+        execute("SELECT description FROM task", Duration.ofMillis(1), 1, true);
+
+        // Then
+        assertThat(stats.summaries()).extracting(SqlStatementStats.StatementSummary::statement)
+                .containsExactlyInAnyOrder("SELECT ?", "SELECT * FROM task", SqlStatementStats.OTHER);
+        stats.reset();
+        assertThat(stats.summaries()).isEmpty();
+    }
+
+    @Test
+    void redact_ShouldOnlyShowBindTypes() {
+        // Given
+        Bindings bindings = new Bindings();
+        bindings.addIndexBinding(Bindings.indexBinding(0, BoundValue.value("secret description")));
+        bindings.addIndexBinding(Bindings.indexBinding(1, BoundValue.value(UUID.randomUUID())));
+        bindings.addIndexBinding(Bindings.indexBinding(2, BoundValue.nullValue(String.class)));
+
+        // When
+        String redacted = SqlStatementStats.redact(List.of(bindings));
+
+        // Then
+        assertThat(redacted).isEqualTo("[$1=<String>, $2=<UUID>, $3=NULL]");
+    }
+}
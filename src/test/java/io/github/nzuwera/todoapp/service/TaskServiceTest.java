@@ -1,31 +1,61 @@
 package io.github.nzuwera.todoapp.service;
 
-import io.github.nzuwera.todoapp.repository.TaskRepository;
+import io.github.nzuwera.todoapp.config.TaskProperties;
+import io.github.nzuwera.todoapp.exceptions.TaskAlreadyExistException;
+import io.github.nzuwera.todoapp.exceptions.TaskBadRequestException;
+import io.github.nzuwera.todoapp.exceptions.TaskNotFoundException;
+import io.github.nzuwera.todoapp.exceptions.TaskPreconditionFailedException;
+import io.github.nzuwera.todoapp.exceptions.TaskSyncExpiredException;
+import io.github.nzuwera.todoapp.entity.TaskChangeEntry;
+import io.github.nzuwera.todoapp.entity.TaskChangePosition;
 import io.github.nzuwera.todoapp.entity.TaskEntity;
 import io.github.nzuwera.todoapp.model.Task;
+import io.github.nzuwera.todoapp.model.TaskBatchResult;
+import io.github.nzuwera.todoapp.model.TaskBulkResult;
+import io.github.nzuwera.todoapp.model.TaskBulkUpdate;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import io.github.nzuwera.todoapp.model.TaskFilter;
+import io.github.nzuwera.todoapp.model.TaskLookupResult;
+import io.github.nzuwera.todoapp.model.TaskPage;
+import io.github.nzuwera.todoapp.model.TaskSearchMode;
+import io.github.nzuwera.todoapp.model.TaskSort;
+import io.github.nzuwera.todoapp.model.TaskSync;
+import io.github.nzuwera.todoapp.store.TaskStore;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class TaskServiceTest {
 
     @Mock
-    private TaskRepository taskRepository;
+    private TaskStore taskStore;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
     private TaskService taskService;
 
     private TaskEntity taskEntity;
@@ -35,6 +65,13 @@ class TaskServiceTest {
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        taskService = new TaskService(
+                taskStore,
+                new TaskProperties(2, 3, 2, Duration.ofMillis(50), 4, 1, 10, Duration.ofMinutes(1), 3),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new TaskCache(10, Duration.ofMinutes(1)),
+                new TaskMetrics(meterRegistry));
         taskId = UUID.randomUUID();
         now = Instant.now();
 
@@ -47,53 +84,305 @@ class TaskServiceTest {
         taskEntity.setUpdatedAt(now);
 
         // Setup Task
-        task = new Task();
-        task.setId(taskId.toString());
-        task.setDescription("Test task");
-        task.setCompleted(false);
-        task.setCreatedAt(now.toString());
-        task.setUpdatedAt(now.toString());
+        task = new Task(taskId, "Test task", false, now, now);
     }
 
     @Test
     void getTasks_ShouldReturnMappedTasks() {
         // Given
-        when(taskRepository.findAll()).thenReturn(Flux.just(taskEntity));
+        when(taskStore.findFirstPage(3)).thenReturn(Flux.just(taskEntity));
 
         // When
-        Flux<Task> result = taskService.getTasks();
+        Mono<TaskPage> result = taskService.getTasks(null, null);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextMatches(page ->
+                        page.nextCursor() == null &&
+                                page.tasks().size() == 1 &&
+                                page.tasks().getFirst().id().equals(taskId) &&
+                                page.tasks().getFirst().description().equals(taskEntity.getDescription()) &&
+                                page.tasks().getFirst().completed() == taskEntity.isCompleted() &&
+                                page.tasks().getFirst().createdAt().equals(taskEntity.getCreatedAt()) &&
+                                page.tasks().getFirst().updatedAt().equals(taskEntity.getUpdatedAt())
+                )
+                .verifyComplete();
+    }
+
+    @Test
+    void getTasks_ShouldReturnEmptyPage_WhenNoTasks() {
+        // Given
+        when(taskStore.findFirstPage(3)).thenReturn(Flux.empty());
+
+        // When
+        Mono<TaskPage> result = taskService.getTasks(null, null);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextMatches(page -> page.tasks().isEmpty() && page.nextCursor() == null)
+                .verifyComplete();
+    }
+
+    @Test
+    void getTasks_ShouldReturnCursor_WhenMoreTasksFollow() {
+        // Given
+        TaskEntity second = new TaskEntity(UUID.randomUUID(), "Second task", false, now.plusSeconds(1), now);
+        TaskEntity third = new TaskEntity(UUID.randomUUID(), "Third task", false, now.plusSeconds(2), now);
+        when(taskStore.findFirstPage(3)).thenReturn(Flux.just(taskEntity, second, third));
+        when(taskStore.findPageAfter(second.getCreatedAt(), second.getId(), 3)).thenReturn(Flux.just(third));
+
+        // When
+        TaskPage firstPage = taskService.getTasks(null, null).block();
+
+        // Then
+        assertThat(firstPage.tasks()).extracting(Task::description).containsExactly("Test task", "Second task");
+        assertThat(firstPage.nextCursor()).isNotNull();
+
+        StepVerifier.create(taskService.getTasks(null, firstPage.nextCursor()))
+                .expectNextMatches(page ->
+                        page.tasks().size() == 1 &&
+                                page.tasks().getFirst().description().equals("Third task") &&
+                                page.nextCursor() == null)
+                .verifyComplete();
+    }
+
+    @Test
+    void getTasks_ShouldListFilteredTasks_WithCursorOnTheSortValue() {
+        // Given
+        TaskFilter filter = new TaskFilter(false, null, null, null);
+        TaskEntity second = new TaskEntity(UUID.randomUUID(), "Second task", false, now.minusSeconds(5), now.minusSeconds(1));
+        TaskEntity third = new TaskEntity(UUID.randomUUID(), "Third task", false, now.minusSeconds(9), now.minusSeconds(2));
+        when(taskStore.findPage(filter, TaskSort.UPDATED_AT_DESC, null, null, 3)).thenReturn(Flux.just(taskEntity, second, third));
+        when(taskStore.findPage(filter, TaskSort.UPDATED_AT_DESC, second.getUpdatedAt(), second.getId(), 3)).thenReturn(Flux.just(third));
+
+        // When
+        TaskPage firstPage = taskService.getTasks(filter, "-updatedAt", null, null).block();
+
+        // Then
+        assertThat(firstPage.tasks()).extracting(Task::description).containsExactly("Test task", "Second task");
+        StepVerifier.create(taskService.getTasks(filter, "-updatedAt", null, firstPage.nextCursor()))
+                .expectNextMatches(page -> page.tasks().size() == 1 && page.nextCursor() == null)
+                .verifyComplete();
+        verify(taskStore, never()).findFirstPage(anyInt());
+    }
+
+    @Test
+    void searchTasks_ShouldStreamFullTextMatches_WithStrippedQueryAndCappedLimit() {
+        // Given
+        when(taskStore.search("milk", TaskSearchMode.TEXT, 3)).thenReturn(Flux.just(taskEntity));
+
+        // When
+        Flux<Task> result = taskService.searchTasks("  milk ", null, 50);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextMatches(task -> task.id().equals(taskEntity.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void searchTasks_ShouldReturnBadRequest_WhenQueryCannotBeSearched() {
+        // When & Then
+        StepVerifier.create(taskService.searchTasks(" ", "fuzzy", null))
+                .expectErrorMatches(ex -> ex instanceof TaskBadRequestException
+                        && ex.getMessage().equals("Search query must not be blank"))
+                .verify();
+        StepVerifier.create(taskService.searchTasks("mi", "substring", null))
+                .expectErrorMatches(ex -> ex instanceof TaskBadRequestException
+                        && ex.getMessage().equals("Substring search needs at least 3 characters"))
+                .verify();
+        StepVerifier.create(taskService.searchTasks("milk", "prefix", null))
+                .expectErrorMatches(ex -> ex instanceof TaskBadRequestException
+                        && ex.getMessage().equals("Mode must be one of text, substring, fuzzy"))
+                .verify();
+        verifyNoInteractions(taskStore);
+    }
+
+    @Test
+    void getTasks_ShouldReturnBadRequest_WhenSortIsUnknown() {
+        // When
+        Mono<TaskPage> result = taskService.getTasks(TaskFilter.NONE, "description", null, null);
+
+        // Then
+        StepVerifier.create(result)
+                .expectErrorMatches(ex -> ex instanceof TaskBadRequestException
+                        && ex.getMessage().equals("Sort must be one of createdAt, -createdAt, updatedAt, -updatedAt"))
+                .verify();
+        verifyNoInteractions(taskStore);
+    }
+
+    @Test
+    void getTasks_ShouldCapLimitToMaxPageSize() {
+        // Given
+        when(taskStore.findFirstPage(4)).thenReturn(Flux.empty());
+
+        // When
+        Mono<TaskPage> result = taskService.getTasks(100, null);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(taskStore).findFirstPage(4);
+    }
+
+    @Test
+    void getTasks_ShouldReturnBadRequest_WhenLimitIsNotPositive() {
+        // When
+        Mono<TaskPage> result = taskService.getTasks(0, null);
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskBadRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void getTasks_ShouldReturnBadRequest_WhenCursorIsInvalid() {
+        // When
+        Mono<TaskPage> result = taskService.getTasks(null, "not-a-cursor");
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskBadRequestException.class)
+                .verify();
+
+        verifyNoInteractions(taskStore);
+    }
+
+    @Test
+    void getTask_ShouldReturnMappedTask_WhenTaskExists() {
+        // Given
+        when(taskStore.findById(taskId)).thenReturn(Mono.just(taskEntity));
+
+        // When
+        Mono<Task> result = taskService.getTask(taskId.toString());
 
         // Then
         StepVerifier.create(result)
                 .expectNextMatches(task ->
-                        task.getId().equals(taskId.toString()) &&
-                                task.getDescription().equals(taskEntity.getDescription()) &&
-                                task.isCompleted() == taskEntity.isCompleted() &&
-                                task.getCreatedAt().equals(taskEntity.getCreatedAt().toString()) &&
-                                task.getUpdatedAt().equals(taskEntity.getUpdatedAt().toString())
+                        task.id().equals(taskId) &&
+                                task.description().equals(taskEntity.getDescription()) &&
+                                task.completed() == taskEntity.isCompleted()
                 )
                 .verifyComplete();
+
+        verify(taskStore).findById(taskId);
+        verify(taskStore, never()).findFirstPage(anyInt());
+        assertThat(operationCount("getTask", "ok")).isEqualTo(1);
+    }
+
+    @Test
+    void getTask_ShouldServeRepeatedReadsFromCache() {
+        // Given
+        when(taskStore.findById(taskId)).thenReturn(Mono.just(taskEntity));
+
+        // When
+        taskService.getTask(taskId.toString()).block();
+        Mono<Task> result = taskService.getTask(taskId.toString());
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextMatches(task -> task.id().equals(taskId))
+                .verifyComplete();
+
+        verify(taskStore, times(1)).findById(taskId);
+    }
+
+    @Test
+    void getTask_ShouldReloadTask_AfterItWasUpdated() {
+        // Given
+        TaskEntity updatedEntity = new TaskEntity(taskId, "Updated task", true, now, now);
+        when(taskStore.findById(taskId)).thenReturn(Mono.just(taskEntity), Mono.just(updatedEntity));
+        when(taskStore.updateTask(eq(taskId), eq("Updated task"), eq(true), any(Instant.class), isNull()))
+                .thenReturn(Mono.just(updatedEntity));
+        Task update = new Task(null, "Updated task", true, null, null);
+
+        // When
+        taskService.getTask(taskId.toString()).block();
+        taskService.updateTask(taskId.toString(), update, null).block();
+        Mono<Task> result = taskService.getTask(taskId.toString());
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextMatches(task -> task.description().equals("Updated task"))
+                .verifyComplete();
+
+        verify(taskStore, times(2)).findById(taskId);
+    }
+
+    @Test
+    void getTask_ShouldReturnNotFound_WhenTaskDoesNotExist() {
+        // Given
+        UUID nonExistentId = UUID.randomUUID();
+        when(taskStore.findById(nonExistentId)).thenReturn(Mono.empty());
+
+        // When
+        Mono<Task> result = taskService.getTask(nonExistentId.toString());
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskNotFoundException.class)
+                .verify();
+        assertThat(operationCount("getTask", "not_found")).isEqualTo(1);
+        assertThat(operationCount("getTask", "ok")).isZero();
+    }
+
+    @Test
+    void getTask_ShouldReturnNotFound_WhenTaskIdIsNotAUuid() {
+        // When
+        Mono<Task> result = taskService.getTask("non-existent-id");
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskNotFoundException.class)
+                .verify();
+
+        verify(taskStore, never()).findById(any(UUID.class));
     }
 
     @Test
-    void getTasks_ShouldReturnEmptyFlux_WhenNoTasks() {
+    void getTasksByIds_ShouldPreserveRequestOrderAndReportMissingIds() {
         // Given
-        when(taskRepository.findAll()).thenReturn(Flux.empty());
+        UUID missingId = UUID.randomUUID();
+        TaskEntity otherEntity = new TaskEntity(UUID.randomUUID(), "Other task", true, now, now);
+        when(taskStore.findAllByIds(any(UUID[].class))).thenReturn(Flux.just(taskEntity, otherEntity));
 
         // When
-        Flux<Task> result = taskService.getTasks();
+        Mono<TaskLookupResult> result = taskService.getTasks(List.of(
+                otherEntity.getId().toString(), missingId.toString(), taskId.toString(), "not-a-uuid"));
 
         // Then
         StepVerifier.create(result)
-                .expectNextCount(0)
+                .assertNext(lookup -> {
+                    assertThat(lookup.tasks()).extracting(Task::id)
+                            .containsExactly(otherEntity.getId(), taskId);
+                    assertThat(lookup.missing()).containsExactly(missingId.toString(), "not-a-uuid");
+                })
                 .verifyComplete();
+
+        verify(taskStore).findAllByIds(new UUID[]{otherEntity.getId(), missingId, taskId});
+        verify(taskStore, never()).findById(any(UUID.class));
+    }
+
+    @Test
+    void getTasksByIds_ShouldReturnBadRequest_WhenTooManyIds() {
+        // When
+        Mono<TaskLookupResult> result = taskService.getTasks(List.of("a", "b", "c", "d", "e"));
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskBadRequestException.class)
+                .verify();
+
+        verifyNoInteractions(taskStore);
     }
 
     @Test
     void createTask_ShouldReturnCreatedTask_WhenTaskDoesNotExist() {
         // Given
-        when(taskRepository.findByDescription(task.getDescription())).thenReturn(Mono.empty());
-        when(taskRepository.save(any(TaskEntity.class))).thenReturn(Mono.just(taskEntity));
+        when(taskStore.insertIfAbsent(any(TaskEntity.class))).thenReturn(Mono.just(taskEntity));
 
         // When
         Mono<Task> result = taskService.createTask(task);
@@ -101,31 +390,89 @@ class TaskServiceTest {
         // Then
         StepVerifier.create(result)
                 .expectNextMatches(createdTask ->
-                        createdTask.getId().equals(taskId.toString()) &&
-                        createdTask.getDescription().equals(task.getDescription()) &&
-                        createdTask.isCompleted() == task.isCompleted()
+                        createdTask.id().equals(taskId) &&
+                        createdTask.description().equals(task.description()) &&
+                        createdTask.completed() == task.completed()
                 )
                 .verifyComplete();
 
-        verify(taskRepository).findByDescription(task.getDescription());
-        verify(taskRepository).save(any(TaskEntity.class));
+        verify(taskStore).insertIfAbsent(any(TaskEntity.class));
+        verifyNoMoreInteractions(taskStore);
     }
 
     @Test
-    void createTask_ShouldReturnError_WhenTaskAlreadyExists() {
+    void createTask_ShouldReturnConflict_WhenTaskAlreadyExists() {
         // Given
-        when(taskRepository.findByDescription(task.getDescription())).thenReturn(Mono.just(taskEntity));
+        when(taskStore.insertIfAbsent(any(TaskEntity.class))).thenReturn(Mono.empty());
 
         // When
         Mono<Task> result = taskService.createTask(task);
 
         // Then
         StepVerifier.create(result)
-                .expectError(IllegalArgumentException.class)
+                .expectError(TaskAlreadyExistException.class)
                 .verify();
 
-        verify(taskRepository).findByDescription(task.getDescription());
-        verify(taskRepository, never()).save(any(TaskEntity.class));
+        verify(taskStore).insertIfAbsent(any(TaskEntity.class));
+    }
+
+    @Test
+    void createTasks_ShouldReportResultPerTaskInSubmissionOrder() {
+        // Given
+        Task first = new Task(null, "First task", false, now, now);
+        Task duplicate = new Task(null, "First task", true, now, now);
+        Task invalid = new Task(null, "", false, now, now);
+        TaskEntity firstEntity = new TaskEntity(UUID.randomUUID(), "First task", false, now, now);
+        when(taskStore.insertAllIfAbsent(anyList(), any(Instant.class))).thenReturn(Flux.just(firstEntity));
+
+        // When
+        Flux<TaskBatchResult> result = taskService.createTasks(Flux.just(first, duplicate, invalid));
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextMatches(item -> item.index() == 0 &&
+                        item.status() == TaskBatchResult.Status.CREATED &&
+                        item.task().id().equals(firstEntity.getId()))
+                .expectNextMatches(item -> item.index() == 1 && item.status() == TaskBatchResult.Status.CONFLICT)
+                .expectNextMatches(item -> item.index() == 2 &&
+                        item.status() == TaskBatchResult.Status.INVALID &&
+                        item.error().equals("Task description cannot be empty"))
+                .verifyComplete();
+    }
+
+    @Test
+    void createTasks_ShouldWriteOneStatementPerBatch() {
+        // Given
+        when(taskStore.insertAllIfAbsent(anyList(), any(Instant.class))).thenReturn(Flux.empty());
+        Flux<Task> tasks = Flux.range(0, 3)
+                .map(i -> new Task(null, "Task " + i, false, now, now));
+
+        // When
+        Flux<TaskBatchResult> result = taskService.createTasks(tasks);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextCount(3)
+                .verifyComplete();
+
+        verify(taskStore, times(2)).insertAllIfAbsent(anyList(), any(Instant.class));
+        verify(taskStore, never()).insertIfAbsent(any(TaskEntity.class));
+    }
+
+    @Test
+    void createTasks_ShouldNotTouchDatabase_WhenWholeBatchIsInvalid() {
+        // Given
+        Task invalid = new Task(null, null, false, now, now);
+
+        // When
+        Flux<TaskBatchResult> result = taskService.createTasks(Flux.just(invalid));
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextMatches(item -> item.status() == TaskBatchResult.Status.INVALID)
+                .verifyComplete();
+
+        verifyNoInteractions(taskStore);
     }
 
     @Test
@@ -138,81 +485,377 @@ class TaskServiceTest {
         updatedEntity.setCreatedAt(now);
         updatedEntity.setUpdatedAt(now);
 
-        Task updatedTask = new Task();
-        updatedTask.setId(taskId.toString());
-        updatedTask.setDescription("Updated task");
-        updatedTask.setCompleted(true);
-        updatedTask.setCreatedAt(now.toString());
-        updatedTask.setUpdatedAt(now.toString());
+        Task updatedTask = new Task(taskId, "Updated task", true, now, now);
 
-        when(taskRepository.findById(taskId)).thenReturn(Mono.just(taskEntity));
-        when(taskRepository.save(any(TaskEntity.class))).thenReturn(Mono.just(updatedEntity));
+        when(taskStore.updateTask(eq(taskId), eq("Updated task"), eq(true), any(Instant.class), isNull()))
+                .thenReturn(Mono.just(updatedEntity));
 
         // When
-        Mono<Task> result = taskService.updateTask(taskId.toString(), updatedTask);
+        Mono<Task> result = taskService.updateTask(taskId.toString(), updatedTask, null);
 
         // Then
         StepVerifier.create(result)
                 .expectNextMatches(task ->
-                        task.getId().equals(taskId.toString()) &&
-                        task.getDescription().equals("Updated task") &&
-                        task.isCompleted()
+                        task.id().equals(taskId) &&
+                        task.description().equals("Updated task") &&
+                        task.completed()
                 )
                 .verifyComplete();
 
-        verify(taskRepository).findById(taskId);
-        verify(taskRepository).save(any(TaskEntity.class));
+        verify(taskStore, never()).findById(any(UUID.class));
+        verifyNoMoreInteractions(taskStore);
     }
 
     @Test
-    void updateTask_ShouldReturnEmptyMono_WhenTaskDoesNotExist() {
+    void updateTask_ShouldReturnNotFound_WhenTaskDoesNotExist() {
         // Given
         UUID nonExistentId = UUID.randomUUID();
-        when(taskRepository.findById(nonExistentId)).thenReturn(Mono.empty());
+        when(taskStore.updateTask(eq(nonExistentId), any(), anyBoolean(), any(Instant.class), isNull()))
+                .thenReturn(Mono.empty());
 
         // When
-        Mono<Task> result = taskService.updateTask(nonExistentId.toString(), task);
+        Mono<Task> result = taskService.updateTask(nonExistentId.toString(), task, null);
 
         // Then
         StepVerifier.create(result)
-                .expectNextCount(0)
+                .expectError(TaskNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void updateTask_ShouldReturnConflict_WhenDescriptionIsTaken() {
+        // Given
+        when(taskStore.updateTask(eq(taskId), any(), anyBoolean(), any(Instant.class), isNull()))
+                .thenReturn(Mono.error(new DuplicateKeyException("duplicate key value violates unique constraint")));
+
+        // When
+        Mono<Task> result = taskService.updateTask(taskId.toString(), task, null);
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskAlreadyExistException.class)
+                .verify();
+        assertThat(operationCount("updateTask", "conflict")).isEqualTo(1);
+    }
+
+    @Test
+    void updateTask_ShouldReturnPreconditionFailed_WhenTaskWasModified() {
+        // Given
+        Instant expectedUpdatedAt = now.minusSeconds(60);
+        when(taskStore.updateTask(eq(taskId), any(), anyBoolean(), any(Instant.class), eq(expectedUpdatedAt)))
+                .thenReturn(Mono.empty());
+        when(taskStore.existsById(taskId)).thenReturn(Mono.just(true));
+
+        // When
+        Mono<Task> result = taskService.updateTask(taskId.toString(), task, expectedUpdatedAt);
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskPreconditionFailedException.class)
+                .verify();
+    }
+
+    @Test
+    void updateTasks_ShouldUpdateSelectedIdsInOneStatement() {
+        // Given
+        UUID otherId = UUID.randomUUID();
+        when(taskStore.updateCompletedByIds(eq(new UUID[]{taskId, otherId}), eq(true), any(Instant.class)))
+                .thenReturn(Mono.just(2L));
+
+        // When
+        Mono<TaskBulkResult> result = taskService.updateTasks(
+                new TaskBulkUpdate(List.of(taskId.toString(), otherId.toString()), null, true));
+
+        // Then
+        StepVerifier.create(result)
+                .expectNext(new TaskBulkResult(2))
+                .verifyComplete();
+    }
+
+    @Test
+    void updateTasks_ShouldUpdateTasksMatchingFilter() {
+        // Given
+        when(taskStore.updateCompletedByState(eq(false), eq(true), any(Instant.class))).thenReturn(Mono.just(5L));
+
+        // When
+        Mono<TaskBulkResult> result = taskService.updateTasks(
+                new TaskBulkUpdate(null, new TaskBulkUpdate.Filter(false), true));
+
+        // Then
+        StepVerifier.create(result)
+                .expectNext(new TaskBulkResult(5))
                 .verifyComplete();
+    }
+
+    @Test
+    void updateTasks_ShouldReturnBadRequest_WhenSelectionIsAmbiguous() {
+        // When
+        Mono<TaskBulkResult> result = taskService.updateTasks(
+                new TaskBulkUpdate(List.of(taskId.toString()), new TaskBulkUpdate.Filter(null), true));
 
-        verify(taskRepository).findById(nonExistentId);
-        verify(taskRepository, never()).save(any(TaskEntity.class));
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskBadRequestException.class)
+                .verify();
+
+        verifyNoInteractions(taskStore);
+    }
+
+    @Test
+    void updateTasks_ShouldReturnBadRequest_WhenTooManyIds() {
+        // When
+        List<String> ids = Flux.range(0, 5).map(i -> UUID.randomUUID().toString()).collectList().block();
+        Mono<TaskBulkResult> result = taskService.updateTasks(new TaskBulkUpdate(ids, null, true));
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskBadRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void updateTasks_ShouldReturnBadRequest_WhenIdIsInvalid() {
+        // When
+        Mono<TaskBulkResult> result = taskService.updateTasks(new TaskBulkUpdate(List.of("not-a-uuid"), null, true));
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskBadRequestException.class)
+                .verify();
     }
 
     @Test
     void deleteTask_ShouldDeleteTask_WhenTaskExists() {
         // Given
-        when(taskRepository.findById(taskId)).thenReturn(Mono.just(taskEntity));
-        when(taskRepository.delete(taskEntity)).thenReturn(Mono.empty());
+        when(taskStore.deleteTaskById(taskId, null)).thenReturn(Mono.just(1L));
 
         // When
-        Mono<Void> result = taskService.deleteTask(taskId.toString());
+        Mono<Void> result = taskService.deleteTask(taskId.toString(), null);
 
         // Then
         StepVerifier.create(result)
                 .verifyComplete();
 
-        verify(taskRepository).findById(taskId);
-        verify(taskRepository).delete(taskEntity);
+        verify(taskStore).deleteTaskById(taskId, null);
+        verify(taskStore, never()).findById(any(UUID.class));
+        verifyNoMoreInteractions(taskStore);
     }
 
     @Test
-    void deleteTask_ShouldReturnEmptyMono_WhenTaskDoesNotExist() {
+    void deleteTask_ShouldReturnNotFound_WhenTaskDoesNotExist() {
         // Given
         UUID nonExistentId = UUID.randomUUID();
-        when(taskRepository.findById(nonExistentId)).thenReturn(Mono.empty());
+        when(taskStore.deleteTaskById(nonExistentId, null)).thenReturn(Mono.just(0L));
+
+        // When
+        Mono<Void> result = taskService.deleteTask(nonExistentId.toString(), null);
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskNotFoundException.class)
+                .verify();
+
+        verify(taskStore).deleteTaskById(nonExistentId, null);
+    }
+
+    @Test
+    void deleteTask_ShouldReturnNotFound_WhenConditionalDeleteMatchesNoTask() {
+        // Given
+        when(taskStore.deleteTaskById(taskId, now)).thenReturn(Mono.just(0L));
+        when(taskStore.existsById(taskId)).thenReturn(Mono.just(false));
+
+        // When
+        Mono<Void> result = taskService.deleteTask(taskId.toString(), now);
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void deleteTasks_ShouldDeleteIdsInChunks() {
+        // Given
+        UUID otherId = UUID.randomUUID();
+        when(taskStore.deleteByIds(any(UUID[].class))).thenReturn(Mono.just(1L));
 
         // When
-        Mono<Void> result = taskService.deleteTask(nonExistentId.toString());
+        Mono<TaskBulkResult> result = taskService.deleteTasks(List.of(taskId.toString(), otherId.toString()), null, null);
 
         // Then
         StepVerifier.create(result)
+                .expectNext(new TaskBulkResult(2))
                 .verifyComplete();
 
-        verify(taskRepository).findById(nonExistentId);
-        verify(taskRepository, never()).delete(any(TaskEntity.class));
+        verify(taskStore).deleteByIds(new UUID[]{taskId});
+        verify(taskStore).deleteByIds(new UUID[]{otherId});
+    }
+
+    @Test
+    void deleteTasks_ShouldRepeatChunkedDeleteUntilFilterIsExhausted() {
+        // Given
+        when(taskStore.deleteChunkByState(true, now, 1))
+                .thenReturn(Mono.just(1L), Mono.just(1L), Mono.just(0L));
+
+        // When
+        Mono<TaskBulkResult> result = taskService.deleteTasks(null, true, now);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNext(new TaskBulkResult(2))
+                .verifyComplete();
+
+        verify(taskStore, times(3)).deleteChunkByState(true, now, 1);
+    }
+
+    @Test
+    void deleteTasks_ShouldReturnBadRequest_WhenNothingSelectsTasks() {
+        // When
+        Mono<TaskBulkResult> result = taskService.deleteTasks(null, null, null);
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskBadRequestException.class)
+                .verify();
+
+        verifyNoInteractions(taskStore);
+    }
+
+    @Test
+    void getTaskChanges_ShouldStartWithResetAndRelayChanges() {
+        // Given
+        TaskChangeEvent created = new TaskChangeEvent(TaskChangeEvent.Type.CREATED, taskId.toString(), task);
+        when(taskStore.changes()).thenReturn(Flux.just(created));
+
+        // When
+        Flux<TaskChangeEvent> result = taskService.getTaskChanges();
+
+        // Then
+        StepVerifier.create(result)
+                .expectNext(TaskChangeEvent.reset())
+                .expectNext(created)
+                .verifyComplete();
+    }
+
+    @Test
+    void getTaskChanges_ShouldCompleteSlowSubscriber_WhenBufferOverflows() {
+        // Given
+        Sinks.Many<TaskChangeEvent> changes = Sinks.many().multicast().directBestEffort();
+        when(taskStore.changes()).thenReturn(changes.asFlux());
+
+        // When
+        Flux<TaskChangeEvent> result = taskService.getTaskChanges();
+
+        // Then
+        StepVerifier.create(result, 1)
+                .expectNext(TaskChangeEvent.reset())
+                .then(() -> {
+                    for (int i = 0; i < 10; i++) {
+                        changes.tryEmitNext(new TaskChangeEvent(TaskChangeEvent.Type.DELETED, UUID.randomUUID().toString(), null));
+                    }
+                })
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    @Test
+    void syncTasks_ShouldSplitChangesAndReturnNextToken() {
+        // Given
+        UUID deletedId = UUID.randomUUID();
+        TaskChangePosition since = new TaskChangePosition(700, 5, UUID.randomUUID());
+        when(taskStore.findChangesSince(since, 3)).thenReturn(Flux.just(
+                new TaskChangeEntry(700, 6, taskId, taskEntity),
+                new TaskChangeEntry(702, 9, deletedId, null)));
+        when(taskStore.findSyncHorizon()).thenReturn(Mono.just(TaskChangePosition.START));
+
+        // When
+        Mono<TaskSync> result = taskService.syncTasks(TaskSyncToken.encode(since), null);
+
+        // Then
+        StepVerifier.create(result)
+                .assertNext(sync -> {
+                    assertThat(sync.tasks()).extracting(Task::id).containsExactly(taskId);
+                    assertThat(sync.deletedIds()).containsExactly(deletedId.toString());
+                    assertThat(TaskSyncToken.decode(sync.next())).isEqualTo(new TaskChangePosition(702, 9, deletedId));
+                    assertThat(sync.hasMore()).isFalse();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void syncTasks_ShouldStopAtPageSize_WhenMoreChangesFollow() {
+        // Given
+        UUID secondId = UUID.randomUUID();
+        when(taskStore.findChangesSince(TaskChangePosition.START, 3)).thenReturn(Flux.just(
+                new TaskChangeEntry(0, 1, UUID.randomUUID(), null),
+                new TaskChangeEntry(0, 2, secondId, null),
+                new TaskChangeEntry(0, 3, UUID.randomUUID(), null)));
+
+        // When
+        Mono<TaskSync> result = taskService.syncTasks(null, null);
+
+        // Then
+        StepVerifier.create(result)
+                .assertNext(sync -> {
+                    assertThat(sync.deletedIds()).hasSize(2);
+                    assertThat(TaskSyncToken.decode(sync.next())).isEqualTo(new TaskChangePosition(0, 2, secondId));
+                    assertThat(sync.hasMore()).isTrue();
+                })
+                .verifyComplete();
+        verify(taskStore, never()).findSyncHorizon();
+    }
+
+    @Test
+    void syncTasks_ShouldKeepToken_WhenNothingChanged() {
+        // Given
+        String token = TaskSyncToken.encode(new TaskChangePosition(7, 7, UUID.randomUUID()));
+        when(taskStore.findChangesSince(TaskSyncToken.decode(token), 3)).thenReturn(Flux.empty());
+        when(taskStore.findSyncHorizon()).thenReturn(Mono.just(TaskChangePosition.START));
+
+        // When
+        Mono<TaskSync> result = taskService.syncTasks(token, null);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNext(new TaskSync(List.of(), List.of(), token, false))
+                .verifyComplete();
+    }
+
+    @Test
+    void syncTasks_ShouldReturnGone_WhenTokenIsBeforeTheHorizon() {
+        // Given
+        TaskChangePosition since = new TaskChangePosition(7, 7, UUID.randomUUID());
+        when(taskStore.findChangesSince(since, 3)).thenReturn(Flux.empty());
+        when(taskStore.findSyncHorizon()).thenReturn(Mono.just(new TaskChangePosition(8, 1, UUID.randomUUID())));
+
+        // When
+        Mono<TaskSync> result = taskService.syncTasks(TaskSyncToken.encode(since), null);
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskSyncExpiredException.class)
+                .verify();
+        assertThat(operationCount("syncTasks", "expired")).isEqualTo(1);
+    }
+
+    @Test
+    void syncTasks_ShouldReturnBadRequest_WhenTokenIsInvalid() {
+        // When
+        Mono<TaskSync> result = taskService.syncTasks("42", null);
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(TaskBadRequestException.class)
+                .verify();
+
+        verifyNoInteractions(taskStore);
+    }
+
+    private long operationCount(String operation, String outcome) {
+        Timer timer = meterRegistry.find(TaskMetrics.OPERATIONS)
+                .tags("operation", operation, "outcome", outcome)
+                .timer();
+        return timer == null ? 0 : timer.count();
     }
 }
@@ -0,0 +1,78 @@
+package io.github.nzuwera.todoapp.store;
+
+import io.github.nzuwera.todoapp.entity.TaskChangePosition;
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryTaskStoreTest implements TaskStoreContract {
+
+    private InMemoryTaskStore taskStore;
+
+    @BeforeEach
+    void setUp() {
+        taskStore = new InMemoryTaskStore();
+    }
+
+    @Override
+    public TaskStore taskStore() {
+        return taskStore;
+    }
+
+    @Test
+    void concurrentWrites_ShouldKeepDescriptionsUniqueAndChangesComplete() {
+        // Given
+        Flux<TaskEntity> inserts = Flux.range(0, 400)
+                .parallel(4)
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> taskStore.insertIfAbsent(new TaskEntity(null, "Task " + (i % 100), false, Instant.now(), Instant.now())))
+                .sequential();
+
+        // When
+        List<TaskEntity> inserted = inserts.collectList().block();
+        Flux.fromIterable(inserted)
+                .parallel(4)
+                .runOn(Schedulers.parallel())
+                .flatMap(task -> taskStore.updateTask(task.getId(), task.getDescription() + " done", true, Instant.now(), null))
+                .sequential()
+                .blockLast();
+
+        // Then
+        assertEquals(100, inserted.size());
+        assertEquals(100, taskStore.findChangesSince(TaskChangePosition.START, 1000).collectList().block().size());
+        assertEquals(100, taskStore.findFirstPage(1000).filter(TaskEntity::isCompleted).count().block());
+    }
+
+    @Test
+    void concurrentWrites_ShouldEmitEveryChangeInChangeOrder() {
+        // Given
+        List<TaskChangeEvent> events = new CopyOnWriteArrayList<>();
+        Disposable subscription = taskStore.changes().subscribe(events::add);
+
+        // When
+        Flux.range(0, 1000)
+                .parallel(4)
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> taskStore.insertIfAbsent(new TaskEntity(null, "Task " + i, false, Instant.now(), Instant.now())))
+                .sequential()
+                .blockLast();
+        subscription.dispose();
+
+        // Then
+        assertEquals(taskStore.findChangesSince(TaskChangePosition.START, 1000)
+                        .map(change -> change.id().toString())
+                        .collectList()
+                        .block(),
+                events.stream().map(TaskChangeEvent::taskId).toList());
+    }
+}
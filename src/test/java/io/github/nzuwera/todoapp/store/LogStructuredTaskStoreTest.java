@@ -0,0 +1,175 @@
+package io.github.nzuwera.todoapp.store;
+
+import io.github.nzuwera.todoapp.config.TaskLogProperties;
+import io.github.nzuwera.todoapp.entity.TaskChangeEntry;
+import io.github.nzuwera.todoapp.entity.TaskChangePosition;
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogStructuredTaskStoreTest implements TaskStoreContract {
+
+    @TempDir
+    Path directory;
+
+    private LogStructuredTaskStore taskStore;
+
+    @BeforeEach
+    void setUp() {
+        taskStore = open();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        taskStore.destroy();
+    }
+
+    @Override
+    public TaskStore taskStore() {
+        return taskStore;
+    }
+
+    private LogStructuredTaskStore open() {
+        return new LogStructuredTaskStore(new TaskLogProperties(directory, DataSize.ofKilobytes(4), false,
+                Duration.ofHours(1), Duration.ofHours(1)));
+    }
+
+    private TaskEntity insert(String description) {
+        return taskStore.insertIfAbsent(new TaskEntity(null, description, false, Instant.now(), Instant.now())).block();
+    }
+
+    private List<String> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).filter(name -> name.startsWith(prefix)).sorted().toList();
+        }
+    }
+
+    @Test
+    void reopen_ShouldReplayTheLog() throws InterruptedException {
+        // Given
+        TaskEntity renamed = insert("Before restart");
+        TaskEntity deleted = insert("Deleted");
+        taskStore.updateTask(renamed.getId(), "Renamed", true, Instant.now(), null).block();
+        taskStore.deleteTaskById(deleted.getId(), null).block();
+        long version = Long.parseLong(taskStore.findVersion().block());
+        taskStore.flush();
+
+        // When
+        // A crash: the log is not closed and no snapshot is written
+        taskStore = open();
+
+        // Then
+        List<TaskEntity> tasks = taskStore.findFirstPage(10).collectList().block();
+        assertEquals(1, tasks.size());
+        assertEquals("Renamed", tasks.get(0).getDescription());
+        assertTrue(tasks.get(0).isCompleted());
+        assertEquals(String.valueOf(version), taskStore.findVersion().block());
+        assertTrue(taskStore.findChangesSince(TaskChangePosition.START, 10).collectList().block().stream()
+                .anyMatch(change -> change.deleted() && change.id().equals(deleted.getId())));
+        assertNotNull(insert("Deleted"));
+        assertTrue(Long.parseLong(taskStore.findVersion().block()) > version);
+    }
+
+    @Test
+    void snapshot_ShouldReplaceTheSegmentsBeforeIt() throws IOException {
+        // Given
+        for (int i = 0; i < 200; i++) {
+            insert("Task " + i);
+        }
+        assertTrue(files("wal-").size() > 1);
+
+        // When
+        taskStore.snapshot();
+        List<String> segments = files("wal-");
+        TaskEntity afterSnapshot = insert("After snapshot");
+        taskStore.flush();
+        taskStore = open();
+
+        // Then
+        assertEquals(1, segments.size());
+        assertEquals(1, files("snapshot-").size());
+        assertEquals(201, taskStore.findFirstPage(1000).count().block());
+        assertEquals("After snapshot", taskStore.findById(afterSnapshot.getId()).block().getDescription());
+    }
+
+    @Test
+    void snapshot_ShouldDropPrunedTombstonesAndKeepTheSyncHorizon() throws InterruptedException {
+        // Given
+        TaskEntity kept = insert("Kept");
+        taskStore.deleteTaskById(insert("Pruned").getId(), null).block();
+        taskStore.pruneTombstones(Instant.now().plus(Duration.ofMinutes(1))).block();
+        TaskChangePosition horizon = taskStore.findSyncHorizon().block();
+        String version = taskStore.findVersion().block();
+
+        // When
+        taskStore.destroy();
+        taskStore = open();
+
+        // Then
+        assertEquals(horizon, taskStore.findSyncHorizon().block());
+        assertEquals(version, taskStore.findVersion().block());
+        assertEquals(List.of(kept.getId()), taskStore.findChangesSince(TaskChangePosition.START, 10)
+                .map(TaskChangeEntry::id)
+                .collectList()
+                .block());
+        TaskEntity inserted = insert("After restart");
+        assertTrue(taskStore.findChangesSince(horizon, 10).collectList().block().stream()
+                .anyMatch(change -> change.id().equals(inserted.getId())));
+    }
+
+    @Test
+    void reopen_ShouldFail_WhenTheSnapshotHasAnotherFormat() throws IOException, InterruptedException {
+        // Given
+        insert("Snapshotted");
+        taskStore.snapshot();
+        taskStore.destroy();
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(files("snapshot-").get(0)).toFile(), "rw")) {
+            file.writeInt(0x54534e51);
+        }
+
+        // When / Then
+        assertThrows(UncheckedIOException.class, this::open);
+    }
+
+    @Test
+    void reopen_ShouldIgnoreATornRecord() throws IOException {
+        // Given
+        TaskEntity kept = insert("Kept");
+        insert("Torn");
+        taskStore.flush();
+        Path segment = directory.resolve(files("wal-").get(0));
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // Corrupts the last byte of the second record's description
+            long position = 0;
+            for (int record = 0; record < 2; record++) {
+                file.seek(position);
+                position += Integer.BYTES * 2 + file.readInt();
+            }
+            file.seek(position - 1);
+            file.writeByte('x');
+        }
+
+        // When
+        taskStore = open();
+
+        // Then
+        List<TaskEntity> tasks = taskStore.findFirstPage(10).collectList().block();
+        assertEquals(List.of(kept.getId()), tasks.stream().map(TaskEntity::getId).toList());
+        assertNotNull(insert("Torn"));
+    }
+}
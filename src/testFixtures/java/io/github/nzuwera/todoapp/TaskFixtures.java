@@ -4,23 +4,21 @@ package io.github.nzuwera.todoapp;
 import io.github.nzuwera.todoapp.model.Task;
 
 import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 public class TaskFixtures {
 
     public static Task createTask() {
-        String timestamp = Instant.now()
-                .atZone(ZoneOffset.UTC)
-                .format(DateTimeFormatter.ISO_INSTANT);
+        // Postgres keeps microseconds, truncating keeps fixtures comparable with stored rows
+        Instant timestamp = Instant.now().truncatedTo(ChronoUnit.MICROS);
 
         return new Task(
-                UUID.randomUUID().toString(),
+                UUID.randomUUID(),
                 "Test Task",
                 false,
                 timestamp,
                 timestamp
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,377 @@
+package io.github.nzuwera.todoapp.store;
+
+import io.github.nzuwera.todoapp.entity.TaskChangeEntry;
+import io.github.nzuwera.todoapp.entity.TaskChangePosition;
+import io.github.nzuwera.todoapp.entity.TaskEntity;
+import io.github.nzuwera.todoapp.model.TaskChangeEvent;
+import io.github.nzuwera.todoapp.model.TaskFilter;
+import io.github.nzuwera.todoapp.model.TaskSearchMode;
+import io.github.nzuwera.todoapp.model.TaskSort;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behavior every {@link TaskStore} must have. Implementing test classes provide a store
+ * without tasks for every test.
+ */
+public interface TaskStoreContract {
+
+    TaskStore taskStore();
+
+    private TaskEntity insert(String description, boolean completed, Instant createdAt) {
+        return taskStore().insertIfAbsent(new TaskEntity(null, description, completed, createdAt, createdAt)).block();
+    }
+
+    /**
+     * Instant as stored, rounded to the microsecond like a Postgres {@code timestamptz}.
+     */
+    private static Instant micros(Instant instant) {
+        return instant.plusNanos(500).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private TaskEntity insert(String description) {
+        return insert(description, false, Instant.now());
+    }
+
+    @Test
+    default void insertIfAbsent_ShouldAssignIdAndRoundToMicroseconds() {
+        // Given
+        Instant createdAt = Instant.parse("2025-03-01T10:15:30.123456789Z");
+
+        // When
+        TaskEntity inserted = insert("Contract task", true, createdAt);
+
+        // Then
+        assertNotNull(inserted.getId());
+        assertEquals("Contract task", inserted.getDescription());
+        assertTrue(inserted.isCompleted());
+        assertEquals(Instant.parse("2025-03-01T10:15:30.123457Z"), inserted.getCreatedAt());
+        StepVerifier.create(taskStore().findById(inserted.getId()))
+                .expectNextMatches(found -> found.getDescription().equals("Contract task")
+                        && found.getUpdatedAt().equals(inserted.getUpdatedAt()))
+                .verifyComplete();
+        StepVerifier.create(taskStore().existsById(inserted.getId()))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    default void insertIfAbsent_ShouldCompleteEmpty_WhenDescriptionIsTaken() {
+        // Given
+        insert("Taken");
+
+        // When & Then
+        StepVerifier.create(taskStore().insertIfAbsent(new TaskEntity(null, "Taken", true, Instant.now(), Instant.now())))
+                .verifyComplete();
+    }
+
+    @Test
+    default void insertAllIfAbsent_ShouldInsertFreeDescriptionsOnce() {
+        // Given
+        insert("Existing");
+        Instant createdAt = Instant.now();
+        List<TaskEntity> batch = List.of(
+                new TaskEntity(null, "First", false, null, null),
+                new TaskEntity(null, "Existing", false, null, null),
+                new TaskEntity(null, "First", true, null, null),
+                new TaskEntity(null, "Second", true, null, null));
+
+        // When
+        List<TaskEntity> inserted = taskStore().insertAllIfAbsent(batch, createdAt).collectList().block();
+
+        // Then
+        assertEquals(2, inserted.size());
+        assertTrue(inserted.stream().anyMatch(task -> task.getDescription().equals("First") && !task.isCompleted()));
+        assertTrue(inserted.stream().anyMatch(task -> task.getDescription().equals("Second") && task.isCompleted()));
+        assertTrue(inserted.stream().allMatch(task -> task.getCreatedAt().equals(micros(createdAt))));
+    }
+
+    @Test
+    default void findPages_ShouldListTasksInCreationOrder() {
+        // Given
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        TaskEntity third = insert("Third", false, start.plusSeconds(3));
+        TaskEntity first = insert("First", false, start.plusSeconds(1));
+        TaskEntity second = insert("Second", false, start.plusSeconds(2));
+
+        // When
+        List<TaskEntity> firstPage = taskStore().findFirstPage(2).collectList().block();
+        List<TaskEntity> nextPage = taskStore().findPageAfter(second.getCreatedAt(), second.getId(), 2).collectList().block();
+
+        // Then
+        assertEquals(List.of(first.getId(), second.getId()), firstPage.stream().map(TaskEntity::getId).toList());
+        assertEquals(List.of(third.getId()), nextPage.stream().map(TaskEntity::getId).toList());
+    }
+
+    @Test
+    default void findPage_ShouldFilterAndPageInEveryOrder() {
+        // Given
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        TaskEntity first = insert("First", false, start.plusSeconds(1));
+        TaskEntity second = insert("Second", true, start.plusSeconds(2));
+        TaskEntity third = insert("Third", false, start.plusSeconds(3));
+        TaskEntity fourth = insert("Fourth", false, start.plusSeconds(4));
+        TaskEntity updated = taskStore().updateTask(first.getId(), "First", false, start.plusSeconds(10), null).block();
+        TaskFilter open = new TaskFilter(false, null, null, null);
+
+        // When & Then
+        assertEquals(List.of(first.getId(), third.getId()), ids(taskStore().findPage(open, TaskSort.CREATED_AT, null, null, 2)));
+        assertEquals(List.of(fourth.getId()), ids(taskStore().findPage(open, TaskSort.CREATED_AT, third.getCreatedAt(), third.getId(), 2)));
+        assertEquals(List.of(fourth.getId(), third.getId(), first.getId()), ids(taskStore().findPage(open, TaskSort.CREATED_AT_DESC, null, null, 10)));
+        assertEquals(List.of(first.getId()), ids(taskStore().findPage(open, TaskSort.CREATED_AT_DESC, third.getCreatedAt(), third.getId(), 10)));
+        assertEquals(List.of(third.getId(), fourth.getId(), first.getId()), ids(taskStore().findPage(open, TaskSort.UPDATED_AT, null, null, 10)));
+        assertEquals(List.of(first.getId(), fourth.getId()), ids(taskStore().findPage(open, TaskSort.UPDATED_AT_DESC, null, null, 2)));
+        assertEquals(List.of(third.getId()), ids(taskStore().findPage(open, TaskSort.UPDATED_AT_DESC, fourth.getUpdatedAt(), fourth.getId(), 2)));
+        assertEquals(List.of(second.getId(), third.getId()), ids(taskStore().findPage(
+                new TaskFilter(null, first.getCreatedAt(), fourth.getCreatedAt(), null), TaskSort.CREATED_AT, null, null, 10)));
+        assertEquals(List.of(first.getId()), ids(taskStore().findPage(
+                new TaskFilter(null, null, null, updated.getUpdatedAt()), TaskSort.CREATED_AT, null, null, 10)));
+        assertEquals(List.of(second.getId()), ids(taskStore().findPage(
+                new TaskFilter(true, null, null, null), TaskSort.UPDATED_AT, null, null, 10)));
+    }
+
+    @Test
+    default void search_ShouldMatchDescriptionsInEveryMode() {
+        // Given
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        TaskEntity milk = insert("Buy milk", false, start.plusSeconds(1));
+        TaskEntity bread = insert("Buy bread", false, start.plusSeconds(2));
+        TaskEntity moreMilk = insert("Pour milk into more milk", false, start.plusSeconds(3));
+        insert("Walk the dog", false, start.plusSeconds(4));
+
+        // When & Then
+        assertEquals(List.of(moreMilk.getId(), milk.getId()), ids(taskStore().search("milk", TaskSearchMode.TEXT, 10)));
+        assertEquals(List.of(moreMilk.getId()), ids(taskStore().search("milk", TaskSearchMode.TEXT, 1)));
+        assertEquals(List.of(milk.getId()), ids(taskStore().search("Buy milk", TaskSearchMode.TEXT, 10)));
+        assertEquals(List.of(milk.getId(), moreMilk.getId()), ids(taskStore().search("ILK", TaskSearchMode.SUBSTRING, 10)));
+        assertEquals(List.of(), ids(taskStore().search("k%d", TaskSearchMode.SUBSTRING, 10)));
+        assertEquals(List.of(milk.getId(), moreMilk.getId()), ids(taskStore().search("milkk", TaskSearchMode.FUZZY, 10)));
+        assertEquals(List.of(bread.getId()), ids(taskStore().search("breadd", TaskSearchMode.FUZZY, 10)));
+    }
+
+    private static List<UUID> ids(Flux<TaskEntity> tasks) {
+        return tasks.map(TaskEntity::getId).collectList().block();
+    }
+
+    @Test
+    default void findAllByIds_ShouldSkipUnknownIds() {
+        // Given
+        TaskEntity task = insert("Known");
+
+        // When
+        List<TaskEntity> found = taskStore().findAllByIds(new UUID[]{task.getId(), UUID.randomUUID(), task.getId()})
+                .collectList()
+                .block();
+
+        // Then
+        assertEquals(1, found.size());
+        assertEquals(task.getId(), found.get(0).getId());
+    }
+
+    @Test
+    default void updateTask_ShouldApplyOnlyWhenUpdatedAtMatches() {
+        // Given
+        TaskEntity task = insert("Before");
+        Instant updatedAt = Instant.now().plusSeconds(60);
+
+        // When & Then
+        StepVerifier.create(taskStore().updateTask(task.getId(), "After", true, updatedAt, Instant.EPOCH))
+                .verifyComplete();
+        StepVerifier.create(taskStore().updateTask(task.getId(), "After", true, updatedAt, task.getUpdatedAt()))
+                .expectNextMatches(updated -> updated.getDescription().equals("After")
+                        && updated.isCompleted()
+                        && updated.getCreatedAt().equals(task.getCreatedAt())
+                        && updated.getUpdatedAt().equals(micros(updatedAt)))
+                .verifyComplete();
+        StepVerifier.create(taskStore().updateTask(UUID.randomUUID(), "Other", false, updatedAt, null))
+                .verifyComplete();
+    }
+
+    @Test
+    default void updateTask_ShouldFail_WhenDescriptionIsTaken() {
+        // Given
+        insert("Taken");
+        TaskEntity task = insert("Free");
+
+        // When & Then
+        StepVerifier.create(taskStore().updateTask(task.getId(), "Taken", false, Instant.now(), null))
+                .expectError(DuplicateKeyException.class)
+                .verify();
+    }
+
+    @Test
+    default void updateTask_ShouldReleaseThePreviousDescription() {
+        // Given
+        TaskEntity task = insert("Old name");
+
+        // When
+        taskStore().updateTask(task.getId(), "New name", false, Instant.now(), null).block();
+
+        // Then
+        assertNotNull(insert("Old name"));
+        StepVerifier.create(taskStore().insertIfAbsent(new TaskEntity(null, "New name", false, Instant.now(), Instant.now())))
+                .verifyComplete();
+    }
+
+    @Test
+    default void updateCompleted_ShouldCountOnlyChangedTasks() {
+        // Given
+        TaskEntity open = insert("Open", false, Instant.now());
+        TaskEntity done = insert("Done", true, Instant.now());
+        insert("Other", false, Instant.now());
+
+        // When & Then
+        StepVerifier.create(taskStore().updateCompletedByIds(new UUID[]{open.getId(), done.getId(), UUID.randomUUID()}, true, Instant.now()))
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(taskStore().updateCompletedByState(true, false, Instant.now()))
+                .expectNext(2L)
+                .verifyComplete();
+        StepVerifier.create(taskStore().updateCompletedByState(null, true, Instant.now()))
+                .expectNext(3L)
+                .verifyComplete();
+    }
+
+    @Test
+    default void deleteTaskById_ShouldApplyOnlyWhenUpdatedAtMatches() {
+        // Given
+        TaskEntity task = insert("Doomed");
+
+        // When & Then
+        StepVerifier.create(taskStore().deleteTaskById(task.getId(), Instant.EPOCH))
+                .expectNext(0L)
+                .verifyComplete();
+        StepVerifier.create(taskStore().deleteTaskById(task.getId(), task.getUpdatedAt()))
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(taskStore().findById(task.getId()))
+                .verifyComplete();
+        assertNotNull(insert("Doomed"));
+    }
+
+    @Test
+    default void deleteByIds_ShouldCountDeletedTasks() {
+        // Given
+        TaskEntity first = insert("First");
+        TaskEntity second = insert("Second");
+
+        // When & Then
+        StepVerifier.create(taskStore().deleteByIds(new UUID[]{first.getId(), second.getId(), UUID.randomUUID()}))
+                .expectNext(2L)
+                .verifyComplete();
+        StepVerifier.create(taskStore().findFirstPage(10))
+                .verifyComplete();
+    }
+
+    @Test
+    default void deleteChunkByState_ShouldDeleteAtMostLimitMatchingTasks() {
+        // Given
+        Instant old = Instant.parse("2024-01-01T00:00:00Z");
+        insert("Old done 1", true, old);
+        insert("Old done 2", true, old);
+        insert("Old done 3", true, old);
+        insert("Old open", false, old);
+        insert("New done", true, Instant.now());
+
+        // When & Then
+        StepVerifier.create(taskStore().deleteChunkByState(true, old.plusSeconds(1), 2))
+                .expectNext(2L)
+                .verifyComplete();
+        StepVerifier.create(taskStore().deleteChunkByState(true, old.plusSeconds(1), 2))
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(taskStore().findFirstPage(10).map(TaskEntity::getDescription).sort())
+                .expectNext("New done", "Old open")
+                .verifyComplete();
+    }
+
+    @Test
+    default void findChangesSince_ShouldReturnLastChangeOfEveryTaskInOrder() {
+        // Given
+        TaskChangePosition since = lastChangePosition();
+        String version = taskStore().findVersion().block();
+        TaskEntity kept = insert("Kept");
+        TaskEntity removed = insert("Removed");
+        taskStore().updateTask(kept.getId(), "Kept and renamed", true, Instant.now(), null).block();
+        taskStore().deleteTaskById(removed.getId(), null).block();
+
+        // When
+        List<TaskChangeEntry> changes = taskStore().findChangesSince(since, 10).collectList().block();
+
+        // Then
+        assertEquals(2, changes.size());
+        assertEquals(kept.getId(), changes.get(0).id());
+        assertEquals("Kept and renamed", changes.get(0).task().getDescription());
+        assertEquals(removed.getId(), changes.get(1).id());
+        assertTrue(changes.get(1).deleted());
+        assertTrue(changes.get(0).position().compareTo(since) > 0);
+        assertTrue(changes.get(0).position().compareTo(changes.get(1).position()) < 0);
+        assertNotEquals(version, taskStore().findVersion().block());
+        assertEquals(1, taskStore().findChangesSince(since, 1).collectList().block().size());
+        StepVerifier.create(taskStore().findChangesSince(changes.get(1).position(), 10))
+                .verifyComplete();
+    }
+
+    @Test
+    default void pruneTombstones_ShouldDropTombstonesDeletedBeforeAndMoveTheHorizonPastThem() {
+        // Given
+        TaskChangePosition since = lastChangePosition();
+        TaskEntity task = insert("Pruned");
+        taskStore().deleteTaskById(task.getId(), null).block();
+        TaskChangePosition deletion = lastChangePosition();
+
+        // When
+        taskStore().pruneTombstones(Instant.now().minus(Duration.ofHours(1))).block();
+        List<TaskChangeEntry> beforeRetention = taskStore().findChangesSince(since, 10).collectList().block();
+        Long pruned = taskStore().pruneTombstones(Instant.now().plus(Duration.ofMinutes(1))).block();
+
+        // Then
+        assertEquals(List.of(task.getId()), beforeRetention.stream().map(TaskChangeEntry::id).toList());
+        assertTrue(pruned >= 1);
+        StepVerifier.create(taskStore().findChangesSince(since, 10))
+                .verifyComplete();
+        assertTrue(taskStore().findSyncHorizon().block().compareTo(deletion) >= 0);
+    }
+
+    private TaskChangePosition lastChangePosition() {
+        List<TaskChangeEntry> changes = taskStore().findChangesSince(TaskChangePosition.START, Integer.MAX_VALUE)
+                .collectList()
+                .block();
+        return changes.isEmpty() ? TaskChangePosition.START : changes.getLast().position();
+    }
+
+    @Test
+    default void changes_ShouldPublishWrites() {
+        // Given
+        AtomicReference<UUID> observedId = new AtomicReference<>();
+
+        // When & Then
+        // Notifications of writes made before the subscription may still be on their way
+        StepVerifier.create(taskStore().changes()
+                        .skipUntil(event -> event.type() == TaskChangeEvent.Type.CREATED
+                                && event.task().description().equals("Observed"))
+                        .take(2))
+                .then(() -> {
+                    TaskEntity task = insert("Observed");
+                    observedId.set(task.getId());
+                    taskStore().deleteTaskById(task.getId(), null).block();
+                })
+                .expectNextMatches(event -> event.type() == TaskChangeEvent.Type.CREATED
+                        && event.task().description().equals("Observed"))
+                .expectNextMatches(event -> event.type() == TaskChangeEvent.Type.DELETED
+                        && event.taskId().equals(observedId.get().toString()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+}